@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Measures how many bytes the ray tracer allocates for every traced ray. The
+ * scene has spheres and triangles with shadows, reflection and transparency,
+ * the rays are the rays of the pixels of the camera. The allocated bytes are
+ * read from the thread MX bean of the JVM before and after tracing.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class AllocationBenchmark {
+	/**
+	 * width and height of the image in pixels
+	 */
+	private static final int SIZE = 200;
+	/**
+	 * amount of images that are traced before measuring, to warm up the JIT
+	 */
+	private static final int WARM_UP = 5;
+	/**
+	 * amount of images that are measured
+	 */
+	private static final int ROUNDS = 5;
+
+	/**
+	 * run the benchmark and print the allocated bytes per ray
+	 * 
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Scene scene = createScene();
+		Camera camera = createCamera();
+		RayTracerBase tracer = new RayTracerBasic(scene);
+
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		for (int i = 0; i < WARM_UP; ++i)
+			traceImage(camera, tracer);
+
+		long rays = (long) SIZE * SIZE * ROUNDS;
+		long bytes = bean.getThreadAllocatedBytes(thread);
+		long time = System.nanoTime();
+		for (int i = 0; i < ROUNDS; ++i)
+			traceImage(camera, tracer);
+		time = System.nanoTime() - time;
+		bytes = bean.getThreadAllocatedBytes(thread) - bytes;
+
+		System.out.printf("rays: %d%n", rays);
+		System.out.printf("allocated bytes per ray: %.1f%n", (double) bytes / rays);
+		System.out.printf("time per ray: %.1f ns%n", (double) time / rays);
+	}
+
+	/**
+	 * trace the rays of all the pixels of an image
+	 * 
+	 * @param camera camera
+	 * @param tracer ray tracer
+	 */
+	private static void traceImage(Camera camera, RayTracerBase tracer) {
+		for (int row = 0; row < SIZE; ++row)
+			for (int col = 0; col < SIZE; ++col)
+				tracer.traceRay(camera.constructRayThroughPixel(SIZE, SIZE, col, row));
+	}
+
+	/**
+	 * create the camera of the benchmark
+	 * 
+	 * @return the camera
+	 */
+	static Camera createCamera() {
+		return new Camera(new Point3D(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+				.setViewPlaneSize(200, 200).setDistance(1000);
+	}
+
+	/**
+	 * create the scene of the benchmark, it is also traced by the tracer
+	 * benchmark
+	 * 
+	 * @return the scene
+	 */
+	static Scene createScene() {
+		Scene scene = new Scene("Allocation benchmark") //
+				.setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+		scene.geometries.add( //
+				new Sphere(50, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.BLUE)) //
+						.setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKt(0.3)), //
+				new Sphere(25, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.RED)) //
+						.setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)), //
+				new Triangle(new Point3D(-150, -150, -115), new Point3D(150, -150, -135), new Point3D(75, 75, -150)) //
+						.setMaterial(new Material().setKs(0.8).setShininess(60).setKr(0.5)), //
+				new Triangle(new Point3D(-150, -150, -115), new Point3D(-70, 70, -140), new Point3D(75, 75, -150)) //
+						.setMaterial(new Material().setKs(0.8).setShininess(60)));
+		scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point3D(60, 50, 0), new Vector(0, 0, -1)) //
+				.setKl(4E-5).setKq(2E-7));
+		scene.lights.add(new PointLight(new Color(300, 300, 300), new Point3D(-100, 100, 100)) //
+				.setKl(1E-5).setKq(1E-7));
+		return scene;
+	}
+}
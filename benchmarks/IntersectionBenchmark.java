@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import geometries.*;
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+
+/**
+ * Micro benchmarks of the intersection of a ray with every kind of flat and
+ * round geometry. The rays come from the origin towards the geometries and
+ * about half of them hit.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+	/**
+	 * amount of different rays, a power of 2
+	 */
+	private static final int RAYS = 1024;
+
+	/**
+	 * sphere in front of the rays
+	 */
+	private Sphere sphere;
+	/**
+	 * plane in front of the rays
+	 */
+	private Plane plane;
+	/**
+	 * square in front of the rays
+	 */
+	private Polygon polygon;
+	/**
+	 * triangle in front of the rays
+	 */
+	private Triangle triangle;
+	/**
+	 * the rays, cycled by the benchmarks
+	 */
+	private Ray[] rays;
+	/**
+	 * index of the last ray
+	 */
+	private int next = 0;
+
+	/**
+	 * create the geometries and the rays
+	 */
+	@Setup
+	public void setup() {
+		this.sphere = new Sphere(1, new Point3D(0, 0, -5));
+		this.plane = new Plane(new Point3D(0, 0, -5), new Point3D(1, 0, -5), new Point3D(0, 1, -5));
+		this.polygon = new Polygon(new Point3D(-1, -1, -5), new Point3D(1, -1, -5), new Point3D(1, 1, -5),
+				new Point3D(-1, 1, -5));
+		this.triangle = new Triangle(new Point3D(-1, -1, -5), new Point3D(1, -1, -5), new Point3D(0, 1, -5));
+		// fixed seed so that every run measures the same rays
+		Random random = new Random(42);
+		this.rays = new Ray[RAYS];
+		for (int i = 0; i < RAYS; ++i)
+			this.rays[i] = new Ray(Point3D.ZERO,
+					new Vector(random.nextDouble() * 3 - 1.5, random.nextDouble() * 3 - 1.5, -5));
+	}
+
+	/**
+	 * get the next ray of the cycle
+	 * 
+	 * @return the ray
+	 */
+	private Ray nextRay() {
+		this.next = (this.next + 1) & (RAYS - 1);
+		return this.rays[this.next];
+	}
+
+	/**
+	 * intersections of a ray and a sphere
+	 * 
+	 * @return the points
+	 */
+	@Benchmark
+	public List<GeoPoint> sphere() {
+		return this.sphere.findGeoIntersections(nextRay());
+	}
+
+	/**
+	 * intersections of a ray and a plane
+	 * 
+	 * @return the points
+	 */
+	@Benchmark
+	public List<GeoPoint> plane() {
+		return this.plane.findGeoIntersections(nextRay());
+	}
+
+	/**
+	 * intersections of a ray and a square
+	 * 
+	 * @return the points
+	 */
+	@Benchmark
+	public List<GeoPoint> polygon() {
+		return this.polygon.findGeoIntersections(nextRay());
+	}
+
+	/**
+	 * intersections of a ray and a triangle
+	 * 
+	 * @return the points
+	 */
+	@Benchmark
+	public List<GeoPoint> triangle() {
+		return this.triangle.findGeoIntersections(nextRay());
+	}
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import elements.Camera;
+import renderer.*;
+import scene.Scene;
+import unittests.special.GlossyAndDiffuseSurfacesTest;
+import unittests.special.TeapotTest;
+
+/**
+ * End to end benchmarks that render the scenes of the teapot and of the glossy
+ * and diffuse surfaces tests. Besides the images per second JMH reports the
+ * rays counter, that is the camera rays per second (the shadow, reflected and
+ * refracted rays of a camera ray are part of its work).<br/>
+ * The sizes of the images and the number of threads are parameters, for
+ * example -p teapotSize=800 -p glossySize=400 -p threads=4 renders the images of
+ * the tests
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RenderBenchmark {
+	/**
+	 * width and height of the teapot image in pixels
+	 */
+	@Param({ "100" })
+	public int teapotSize;
+	/**
+	 * width and height of the glossy image in pixels. It is small because every
+	 * reflection on the glossy spheres spreads into a beam of 35 rays and every
+	 * ray of the beam that hits a sphere spreads again, so a single pixel of a
+	 * bigger image can take minutes
+	 */
+	@Param({ "10" })
+	public int glossySize;
+	/**
+	 * number of render threads, 1 renders in the benchmark thread
+	 */
+	@Param({ "1" })
+	public int threads;
+
+	/**
+	 * scene of the teapot test
+	 */
+	private Scene teapot;
+	/**
+	 * camera of the teapot test
+	 */
+	private Camera teapotCamera;
+	/**
+	 * scene of the glossy and diffuse surfaces test
+	 */
+	private Scene glossy;
+	/**
+	 * camera of the glossy and diffuse surfaces test
+	 */
+	private Camera glossyCamera;
+
+	/**
+	 * counter of the rendered camera rays, reported by JMH per second
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Rays {
+		/**
+		 * amount of camera rays
+		 */
+		public long rays;
+
+		/**
+		 * reset the counter before every iteration
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.rays = 0;
+		}
+	}
+
+	/**
+	 * create the scenes
+	 */
+	@Setup
+	public void setup() {
+		this.teapot = TeapotTest.createScene();
+		this.teapotCamera = TeapotTest.createCamera();
+		this.glossy = GlossyAndDiffuseSurfacesTest.createScene();
+		this.glossyCamera = GlossyAndDiffuseSurfacesTest.createCamera();
+	}
+
+	/**
+	 * render the teapot
+	 * 
+	 * @param counter counter of the camera rays
+	 * @return the image writer
+	 */
+	@Benchmark
+	public ImageWriter teapot(Rays counter) {
+		return render(this.teapotCamera, new RayTracerBasic(this.teapot), this.teapotSize, counter);
+	}
+
+	/**
+	 * render the ten bodies with glossy surfaces and diffuse glass
+	 * 
+	 * @param counter counter of the camera rays
+	 * @return the image writer
+	 */
+	@Benchmark
+	public ImageWriter glossy(Rays counter) {
+		return render(this.glossyCamera, GlossyAndDiffuseSurfacesTest.createTracer(this.glossy), this.glossySize,
+				counter);
+	}
+
+	/**
+	 * render an image without writing it to a file
+	 * 
+	 * @param camera  camera
+	 * @param tracer  ray tracer
+	 * @param size    width and height of the image in pixels
+	 * @param counter counter of the camera rays
+	 * @return the image writer
+	 */
+	private ImageWriter render(Camera camera, RayTracerBase tracer, int size, Rays counter) {
+		ImageWriter imageWriter = new ImageWriter("benchmark", size, size);
+		Render render = new Render() //
+				.setCamera(camera) //
+				.setImageWriter(imageWriter) //
+				.setRayTracer(tracer);
+		if (this.threads > 1)
+			render.setMultiThreading(this.threads);
+		render.renderImage();
+		counter.rays += (long) size * size;
+		return imageWriter;
+	}
+}
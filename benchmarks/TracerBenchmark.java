@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import elements.Camera;
+import primitives.*;
+import renderer.*;
+
+/**
+ * Micro benchmarks of the camera and of tracing a single ray. The rays are the
+ * rays of the pixels of the scene of the allocation benchmark.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracerBenchmark {
+	/**
+	 * width and height of the image in pixels
+	 */
+	private static final int SIZE = 100;
+
+	/**
+	 * camera
+	 */
+	private Camera camera;
+	/**
+	 * ray tracer of the scene
+	 */
+	private RayTracerBase tracer;
+	/**
+	 * rays of the pixels, cycled by the trace benchmark
+	 */
+	private Ray[] rays;
+	/**
+	 * index of the last pixel
+	 */
+	private int next = 0;
+
+	/**
+	 * create the scene and the rays of all the pixels
+	 */
+	@Setup
+	public void setup() {
+		this.camera = AllocationBenchmark.createCamera();
+		this.tracer = new RayTracerBasic(AllocationBenchmark.createScene());
+		this.rays = new Ray[SIZE * SIZE];
+		for (int row = 0; row < SIZE; ++row)
+			for (int col = 0; col < SIZE; ++col)
+				this.rays[row * SIZE + col] = this.camera.constructRayThroughPixel(SIZE, SIZE, col, row);
+	}
+
+	/**
+	 * get the index of the next pixel of the cycle
+	 * 
+	 * @return the pixel index
+	 */
+	private int nextPixel() {
+		if (++this.next == SIZE * SIZE)
+			this.next = 0;
+		return this.next;
+	}
+
+	/**
+	 * construct the ray of a pixel
+	 * 
+	 * @return the ray
+	 */
+	@Benchmark
+	public Ray constructRayThroughPixel() {
+		int pixel = nextPixel();
+		return this.camera.constructRayThroughPixel(SIZE, SIZE, pixel % SIZE, pixel / SIZE);
+	}
+
+	/**
+	 * trace the ray of a pixel, with its shadow, reflected and refracted rays
+	 * 
+	 * @return the color
+	 */
+	@Benchmark
+	public Color traceRay() {
+		return this.tracer.traceRay(this.rays[nextPixel()]);
+	}
+}
@@ -41,6 +41,11 @@ public class Camera {
 	 * screen distance
 	 */
 	private double distance;
+	/**
+	 * raster of the last resolution that was asked, reset when the view plane
+	 * changes
+	 */
+	private volatile CameraRaster raster;
 
 	/**
 	 * construct the camera
@@ -102,6 +107,33 @@ public class Camera {
 		return this.vRight;
 	}
 
+	/**
+	 * getter of the view plane width
+	 * 
+	 * @return width
+	 */
+	public double getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * getter of the view plane height
+	 * 
+	 * @return height
+	 */
+	public double getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * getter of the view plane distance
+	 * 
+	 * @return distance
+	 */
+	public double getDistance() {
+		return this.distance;
+	}
+
 	/**
 	 * A set function for the View Plane size which receives two parameters
 	 * 
@@ -117,6 +149,7 @@ public class Camera {
 		}
 		this.width = width;
 		this.height = height;
+		this.raster = null;
 		return this;
 	}
 
@@ -133,9 +166,31 @@ public class Camera {
 			throw new IllegalArgumentException("distance cant be zero");
 		}
 		this.distance = distance;
+		this.raster = null;
 		return this;
 	}
 
+	/**
+	 * get the view plane cut into pixels of a resolution, the raster of the last
+	 * resolution is kept until the view plane changes
+	 * 
+	 * @param nX Nx represents the number of columns
+	 * @param nY Ny represents the number of rows
+	 * @return the raster
+	 * @throws IllegalArgumentException distant cant be zero
+	 */
+	public CameraRaster getRaster(int nX, int nY) {
+		CameraRaster r = this.raster;
+		if (r != null && r.getNx() == nX && r.getNy() == nY)
+			return r;
+		if (isZero(this.distance)) {
+			throw new IllegalArgumentException("distance cant be zero");
+		}
+		r = new CameraRaster(this, nX, nY);
+		this.raster = r;
+		return r;
+	}
+
 	/**
 	 * A function construct Ray Through Pixel
 	 * 
@@ -147,41 +202,7 @@ public class Camera {
 	 * @throws IllegalArgumentException distant cant be zero
 	 */
 	public Ray constructRayThroughPixel(int nX, int nY, int j, int i) {
-
-		if (isZero(this.distance)) {
-			throw new IllegalArgumentException("distance cant be zero");
-		}
-		// Image center Pc = P0 + d . Vto
-		Point3D pC = this.p0.add(this.vTo.scale(this.distance));
-		// Ratio (pixel width & height)
-		// ry = h/ny
-		double rY = this.height / nY;
-		// rx = w/nx
-		double rX = this.width / nX;
-		// Pixel[i,j ] center
-		// yi=-(i–(ny−1)/2).ry
-		double yI = -(i - (nY - 1) / 2d) * rY;
-		// (j-(nx-1)/2).rx
-		double xJ = (j - (nX - 1) / 2d) * rX;
-
-		// check for zero Vector Zero
-		Point3D pIJ = null;
-		if (!isZero(xJ) && !isZero(yI)) {
-			// regular formula
-			pIJ = pC.add((vRight.scale(xJ)).add((vUp.scale(yI))));
-		} else if (isZero(xJ) && !isZero(yI)) {
-			// pIJ = pIJ.add vUp.scale yI
-			pIJ = pC.add(vUp.scale(yI));
-		} else if (!isZero(xJ) && isZero(yI)) {
-			// pIJ = pIJ.add vRight.scale xJ
-			pIJ = pC.add(vRight.scale(xJ));
-		} else {
-			pIJ = pC;
-		}
-		// vij = pIJ -p0
-		// ray (po,vij)
-		return new Ray(p0, pIJ.subtract(p0));
-
+		return getRaster(nX, nY).constructRay(j, i);
 	}
 
 	/**
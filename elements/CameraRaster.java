@@ -0,0 +1,194 @@
+package elements;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import static primitives.Util.*;
+
+/**
+ * The view plane of a camera cut into pixels of one resolution. The center of
+ * the view plane, the size of a pixel and the basis of the camera are computed
+ * once, so a ray of a pixel is built from plain doubles without temporary
+ * vectors. Rays can be built one by one, or the directions of a whole tile at
+ * a time into an array.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class CameraRaster {
+	/**
+	 * number of columns
+	 */
+	private final int nX;
+	/**
+	 * number of rows
+	 */
+	private final int nY;
+	/**
+	 * location of the camera
+	 */
+	private final Point3D p0;
+	/**
+	 * coordinates of the location of the camera
+	 */
+	private final double p0X, p0Y, p0Z;
+	/**
+	 * coordinates of the center of the view plane
+	 */
+	private final double pCX, pCY, pCZ;
+	/**
+	 * coordinates of the right vector of the camera
+	 */
+	private final double rightX, rightY, rightZ;
+	/**
+	 * coordinates of the up vector of the camera
+	 */
+	private final double upX, upY, upZ;
+	/**
+	 * width of a pixel
+	 */
+	private final double rX;
+	/**
+	 * height of a pixel
+	 */
+	private final double rY;
+
+	/**
+	 * constructor of the raster of a camera
+	 * 
+	 * @param camera the camera
+	 * @param nX     number of columns
+	 * @param nY     number of rows
+	 * @throws IllegalArgumentException if the resolution is not positive
+	 */
+	CameraRaster(Camera camera, int nX, int nY) {
+		if (nX <= 0 || nY <= 0)
+			throw new IllegalArgumentException("resolution must be positive");
+		this.nX = nX;
+		this.nY = nY;
+		this.p0 = camera.getP0();
+		this.p0X = this.p0.getX();
+		this.p0Y = this.p0.getY();
+		this.p0Z = this.p0.getZ();
+		// Image center Pc = P0 + d . Vto
+		Point3D pC = this.p0.add(camera.getVTo().scale(camera.getDistance()));
+		this.pCX = pC.getX();
+		this.pCY = pC.getY();
+		this.pCZ = pC.getZ();
+		Point3D right = camera.getVRight().getHead();
+		this.rightX = right.getX();
+		this.rightY = right.getY();
+		this.rightZ = right.getZ();
+		Point3D up = camera.getVUo().getHead();
+		this.upX = up.getX();
+		this.upY = up.getY();
+		this.upZ = up.getZ();
+		// Ratio (pixel width & height)
+		this.rY = camera.getHeight() / nY;
+		this.rX = camera.getWidth() / nX;
+	}
+
+	/**
+	 * get the number of columns
+	 * 
+	 * @return number of columns
+	 */
+	public int getNx() {
+		return this.nX;
+	}
+
+	/**
+	 * get the number of rows
+	 * 
+	 * @return number of rows
+	 */
+	public int getNy() {
+		return this.nY;
+	}
+
+	/**
+	 * construct the ray through the center of a pixel
+	 * 
+	 * @param j column of the pixel
+	 * @param i row of the pixel
+	 * @return ray through the pixel
+	 */
+	public Ray constructRay(int j, int i) {
+		return constructRay((double) j, (double) i);
+	}
+
+	/**
+	 * construct the ray through a point of the view plane, given in pixels - the
+	 * center of pixel [i,j] is (j, i) and its corners are half a pixel away, so
+	 * rays inside a pixel can be built for anti-aliasing
+	 * 
+	 * @param x column of the point
+	 * @param y row of the point
+	 * @return ray through the point
+	 */
+	public Ray constructRay(double x, double y) {
+		double[] direction = new double[3];
+		direction(x, y, direction, 0);
+		return new Ray(this.p0, new Vector(direction[0], direction[1], direction[2]));
+	}
+
+	/**
+	 * fill an array with the normalized directions of the rays of the centers of
+	 * the pixels of a tile, row by row, 3 values (x,y,z) per ray. All the rays
+	 * start at the location of the camera, and a direction is the direction of
+	 * the ray that {@link #constructRay(double, double)} builds
+	 * 
+	 * @param col        first column of the tile
+	 * @param row        first row of the tile
+	 * @param cols       number of columns of the tile
+	 * @param rows       number of rows of the tile
+	 * @param directions array for the directions of the rays
+	 */
+	public void fillTile(int col, int row, int cols, int rows, double[] directions) {
+		int k = 0;
+		for (int i = row; i < row + rows; ++i) {
+			for (int j = col; j < col + cols; ++j, k += 3) {
+				direction(j, i, directions, k);
+				// normalize like Vector.normalize
+				double d = 1 / Math.sqrt(directions[k] * directions[k] + directions[k + 1] * directions[k + 1]
+						+ directions[k + 2] * directions[k + 2]);
+				directions[k] = alignZero(directions[k] * d);
+				directions[k + 1] = alignZero(directions[k + 1] * d);
+				directions[k + 2] = alignZero(directions[k + 2] * d);
+			}
+		}
+	}
+
+	/**
+	 * get the location of the camera, the head of all the rays
+	 * 
+	 * @return the location
+	 */
+	public Point3D getP0() {
+		return this.p0;
+	}
+
+	/**
+	 * compute the vector from the camera to a point of the view plane, with the
+	 * same steps and rounding as the vectors of Camera did
+	 * 
+	 * @param x      column of the point
+	 * @param y      row of the point
+	 * @param target array for the vector
+	 * @param offset index of the vector in the array
+	 */
+	private void direction(double x, double y, double[] target, int offset) {
+		// Pixel[i,j] center
+		// yi=-(i–(ny−1)/2).ry
+		double yI = -(y - (this.nY - 1) / 2d) * this.rY;
+		// xj=(j-(nx-1)/2).rx
+		double xJ = (x - (this.nX - 1) / 2d) * this.rX;
+		// pIJ = pC + vRight.xJ + vUp.yI, vij = pIJ - p0
+		target[offset] = alignZero(alignZero(this.pCX
+				+ alignZero(alignZero(this.rightX * xJ) + alignZero(this.upX * yI))) - this.p0X);
+		target[offset + 1] = alignZero(alignZero(this.pCY
+				+ alignZero(alignZero(this.rightY * xJ) + alignZero(this.upY * yI))) - this.p0Y);
+		target[offset + 2] = alignZero(alignZero(this.pCZ
+				+ alignZero(alignZero(this.rightZ * xJ) + alignZero(this.upZ * yI))) - this.p0Z);
+	}
+}
@@ -27,6 +27,15 @@ public class DirectionalLight extends Light implements LightSource {
 		this.direction = dir;
 	}
 
+	/**
+	 * get the direction
+	 * 
+	 * @return direction of the light
+	 */
+	public Vector getDirection() {
+		return this.direction;
+	}
+
 	/**
 	 * get the intensity
 	 * 
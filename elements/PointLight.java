@@ -90,6 +90,42 @@ public class PointLight extends Light implements LightSource {
 		return this;
 	}
 
+	/**
+	 * get the location
+	 * 
+	 * @return location
+	 */
+	public Point3D getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * get Kc
+	 * 
+	 * @return kc
+	 */
+	public double getKc() {
+		return this.kC;
+	}
+
+	/**
+	 * get Kl
+	 * 
+	 * @return kl
+	 */
+	public double getKl() {
+		return this.kL;
+	}
+
+	/**
+	 * get Kq
+	 * 
+	 * @return kq
+	 */
+	public double getKq() {
+		return this.kQ;
+	}
+
 	/**
 	 * get the intensity
 	 * 
@@ -44,6 +44,15 @@ public class SpotLight extends PointLight {
 		this.direction = d.normalize();
 	}
 
+	/**
+	 * get the direction
+	 * 
+	 * @return direction of the spot
+	 */
+	public Vector getDirection() {
+		return this.direction;
+	}
+
 	/**
 	 * get the intensity
 	 * 
@@ -0,0 +1,795 @@
+package geometries;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+/**
+ * Bounding volume hierarchy over a set of axis aligned boxes, built with the
+ * surface area heuristic (SAH). The tree knows nothing about the objects in
+ * it, only their boxes and indices, so it can index a list of intersectables as
+ * well as the faces of a mesh.<br/>
+ * The nodes are kept in flat arrays in depth first order: the left child of
+ * node i is node i+1 and the index of its right child is stored in the node.
+ * <br/>
+ * A tree may be built by several threads of a fork/join pool: the centroids,
+ * the boxes of large nodes and the bins of their SAH splits are computed over
+ * parallel parts of the objects, and large subtrees are built in parallel.
+ * Boxes and bins are merged by min, max and sums of counts, which are exact,
+ * so the tree is the same for every number of threads.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class BVH {
+	/**
+	 * callback that is called for each object whose leaf box is hit by the ray
+	 */
+	public interface Visitor {
+		/**
+		 * visit an object of a leaf that the ray reaches
+		 * 
+		 * @param index       index of the object
+		 * @param maxDistance current max distance of the search
+		 * @return new max distance (to prune farther nodes), or a negative number
+		 *         to stop the traversal
+		 */
+		double visit(int index, double maxDistance);
+	}
+
+	/**
+	 * number of bins per axis when looking for the best split
+	 */
+	private static final int BINS = 16;
+	/**
+	 * max amount of objects in a leaf
+	 */
+	private static final int MAX_LEAF_SIZE = 4;
+	/**
+	 * cost of visiting a node relatively to intersecting an object
+	 */
+	private static final double TRAVERSAL_COST = 1.0;
+	/**
+	 * depth after which nodes are split in the median instead of by SAH
+	 */
+	private static final int MAX_SAH_DEPTH = 64;
+	/**
+	 * size of the traversal stack, enough for the deepest possible tree
+	 */
+	private static final int STACK_SIZE = 128;
+	/**
+	 * padding of the far distance of a box test against rounding errors
+	 */
+	private static final double ROUNDING_PAD = 1 + 1e-15;
+	/**
+	 * min amount of objects of a subtree that is built by another thread
+	 */
+	private static final int FORK_SIZE = 1 << 12;
+	/**
+	 * min amount of objects of a range whose boxes and bins are computed in
+	 * parallel parts
+	 */
+	private static final int PARALLEL_RANGE = 1 << 15;
+
+	/**
+	 * cache of the trees in files, null to build every tree
+	 */
+	private static volatile BVHCache cache;
+
+	/**
+	 * boxes of the nodes, 6 values per node (min x,y,z and max x,y,z)
+	 */
+	private final double[] nodeBounds;
+	/**
+	 * 2 values per node: leaf - first index and count, inner node - index of the
+	 * right child and -(axis + 1)
+	 */
+	private final int[] nodeData;
+	/**
+	 * indices of the objects ordered by leaves
+	 */
+	private final int[] indices;
+
+	/**
+	 * constructor of a tree from its flat arrays
+	 * 
+	 * @param nodeBounds boxes of the nodes
+	 * @param nodeData   children and leaves of the nodes
+	 * @param indices    indices of the objects
+	 */
+	private BVH(double[] nodeBounds, int[] nodeData, int[] indices) {
+		this.nodeBounds = nodeBounds;
+		this.nodeData = nodeData;
+		this.indices = indices;
+	}
+
+	/**
+	 * set the cache of the trees of the meshes and the geometries that are built
+	 * from now on
+	 * 
+	 * @param c the cache, null to build every tree
+	 */
+	public static void setCache(BVHCache c) {
+		cache = c;
+	}
+
+	/**
+	 * get the cache of the trees
+	 * 
+	 * @return the cache, null if every tree is built
+	 */
+	public static BVHCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * build a tree over boxes, or load it from the cache if a cache was set
+	 * 
+	 * @param bounds boxes of the objects, 6 values per object (min x,y,z and max
+	 *               x,y,z)
+	 * @param count  number of objects
+	 * @return the tree
+	 * @throws IllegalArgumentException if there are no objects
+	 */
+	public static BVH build(double[] bounds, int count) {
+		return build(bounds, count, 1);
+	}
+
+	/**
+	 * build a tree over boxes by several threads, or load it from the cache if a
+	 * cache was set
+	 * 
+	 * @param bounds  boxes of the objects, 6 values per object (min x,y,z and max
+	 *                x,y,z)
+	 * @param count   number of objects
+	 * @param threads number of threads of the build
+	 * @return the tree
+	 * @throws IllegalArgumentException if there are no objects
+	 */
+	public static BVH build(double[] bounds, int count, int threads) {
+		BVHCache c = cache;
+		return c == null ? buildTree(bounds, count, threads) : c.get(bounds, count, threads);
+	}
+
+	/**
+	 * build a tree over boxes, without the cache
+	 * 
+	 * @param bounds  boxes of the objects, 6 values per object (min x,y,z and max
+	 *                x,y,z)
+	 * @param count   number of objects
+	 * @param threads number of threads of the build, a small tree is built by the
+	 *                calling thread
+	 * @return the tree
+	 * @throws IllegalArgumentException if there are no objects
+	 */
+	static BVH buildTree(double[] bounds, int count, int threads) {
+		if (count < 1)
+			throw new IllegalArgumentException("can not build a BVH without objects");
+		if (threads <= 1 || count < FORK_SIZE)
+			return new Builder(bounds, count, false).tree();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.invoke(ForkJoinTask.adapt(() -> new Builder(bounds, count, true).tree()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * construct a tree from the flat arrays of a tree that was built before, the
+	 * arrays are used as they are and not copied
+	 * 
+	 * @param nodeBounds boxes of the nodes, 6 values per node
+	 * @param nodeData   children and leaves of the nodes, 2 values per node
+	 * @param indices    indices of the objects ordered by leaves
+	 * @return the tree
+	 * @throws IllegalArgumentException if the arrays do not fit each other, the
+	 *                                  tree is deeper than the traversal stack,
+	 *                                  or the leaves do not hold every object
+	 *                                  exactly once
+	 */
+	public static BVH of(double[] nodeBounds, int[] nodeData, int[] indices) {
+		int nodes = nodeData.length / 2;
+		if (nodes < 1 || nodeData.length % 2 != 0 || nodeBounds.length != nodes * 6 || indices.length < 1)
+			throw new IllegalArgumentException("the arrays are not of a tree");
+		for (int node = 0; node < nodes; ++node) {
+			int a = nodeData[2 * node], b = nodeData[2 * node + 1];
+			if (b < 0 ? b < -3 || a <= node + 1 || a >= nodes : b == 0 || a < 0 || a + b > indices.length)
+				throw new IllegalArgumentException("node " + node + " is not of the tree");
+		}
+		// walk the tree as the traversal does: every node once, every inner node
+		// pushes a child, and the leaves cover every position once
+		boolean[] reached = new boolean[nodes];
+		boolean[] covered = new boolean[indices.length];
+		int[] stack = new int[STACK_SIZE + 1];
+		int[] depths = new int[STACK_SIZE + 1];
+		int sp = 0;
+		stack[sp++] = 0;
+		while (sp > 0) {
+			int node = stack[--sp];
+			int depth = depths[sp];
+			if (reached[node])
+				throw new IllegalArgumentException("node " + node + " is in the tree twice");
+			reached[node] = true;
+			int a = nodeData[2 * node], b = nodeData[2 * node + 1];
+			if (b > 0) {
+				for (int k = a; k < a + b; ++k) {
+					if (covered[k])
+						throw new IllegalArgumentException("index " + k + " is in two leaves");
+					covered[k] = true;
+				}
+				continue;
+			}
+			if (depth >= STACK_SIZE)
+				throw new IllegalArgumentException("the tree is deeper than " + STACK_SIZE);
+			stack[sp] = a;
+			depths[sp++] = depth + 1;
+			stack[sp] = node + 1;
+			depths[sp++] = depth + 1;
+		}
+		boolean[] objects = new boolean[indices.length];
+		for (int k = 0; k < indices.length; ++k) {
+			int index = indices[k];
+			if (!covered[k] || index < 0 || index >= indices.length || objects[index])
+				throw new IllegalArgumentException("the leaves do not hold every object once");
+			objects[index] = true;
+		}
+		return new BVH(nodeBounds, nodeData, indices);
+	}
+
+	/**
+	 * get the boxes of the nodes, the array of the tree itself and not a copy
+	 * 
+	 * @return 6 values per node (min x,y,z and max x,y,z)
+	 */
+	public double[] getNodeBounds() {
+		return this.nodeBounds;
+	}
+
+	/**
+	 * get the children and the leaves of the nodes, the array of the tree itself
+	 * and not a copy
+	 * 
+	 * @return 2 values per node: leaf - first index and count, inner node - index
+	 *         of the right child and -(axis + 1)
+	 */
+	public int[] getNodeData() {
+		return this.nodeData;
+	}
+
+	/**
+	 * get the indices of the objects ordered by leaves, the array of the tree
+	 * itself and not a copy
+	 * 
+	 * @return the indices
+	 */
+	public int[] getIndices() {
+		return this.indices;
+	}
+
+	/**
+	 * get the number of nodes in the tree
+	 * 
+	 * @return number of nodes
+	 */
+	public int getNodeCount() {
+		return this.nodeData.length / 2;
+	}
+
+	/**
+	 * get the box of the whole tree
+	 * 
+	 * @return box of the root
+	 */
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox(this.nodeBounds[0], this.nodeBounds[1], this.nodeBounds[2], this.nodeBounds[3],
+				this.nodeBounds[4], this.nodeBounds[5]);
+	}
+
+	/**
+	 * visit the objects whose leaves the ray reaches, nearer children first
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @param visitor     callback for the objects
+	 */
+	public void traverse(Ray ray, double maxDistance, Visitor visitor) {
+		Point3D p0 = ray.getP0();
+		Point3D dir = ray.getVector().getHead();
+		double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+		double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+		int[] stack = new int[STACK_SIZE];
+		int sp = 0;
+		int node = 0;
+		double tMax = maxDistance;
+		while (true) {
+			if (hitsBox(node, ox, oy, oz, ix, iy, iz, tMax)) {
+				int first = this.nodeData[2 * node];
+				int data = this.nodeData[2 * node + 1];
+				if (data > 0) {
+					// leaf - visit its objects
+					for (int k = first; k < first + data; ++k) {
+						tMax = visitor.visit(this.indices[k], tMax);
+						if (tMax < 0)
+							return;
+					}
+				} else {
+					// inner node - go on with the child that is nearer along the split axis
+					int axis = -data - 1;
+					boolean negative = axis == 0 ? ix < 0 : (axis == 1 ? iy < 0 : iz < 0);
+					if (negative) {
+						stack[sp++] = node + 1;
+						node = first;
+					} else {
+						stack[sp++] = first;
+						node = node + 1;
+					}
+					continue;
+				}
+			}
+			if (sp == 0)
+				return;
+			node = stack[--sp];
+		}
+	}
+
+	/**
+	 * slab test of a ray against the box of a node
+	 * 
+	 * @param node node index
+	 * @param ox   x of the ray head
+	 * @param oy   y of the ray head
+	 * @param oz   z of the ray head
+	 * @param ix   1 / x of the ray direction
+	 * @param iy   1 / y of the ray direction
+	 * @param iz   1 / z of the ray direction
+	 * @param tMax max distance
+	 * @return true if the ray reaches the box before the max distance
+	 */
+	private boolean hitsBox(int node, double ox, double oy, double oz, double ix, double iy, double iz,
+			double tMax) {
+		int b = node * 6;
+		double tNear = 0;
+		double tFar = tMax;
+		// NaN (ray parallel to a face that lies on the box) fails all the
+		// comparisons, so it never rejects the box
+		double t0 = (this.nodeBounds[b] - ox) * ix, t1 = (this.nodeBounds[b + 3] - ox) * ix;
+		if (t0 > t1) {
+			double t = t0;
+			t0 = t1;
+			t1 = t;
+		}
+		if (t0 > tNear)
+			tNear = t0;
+		if (t1 < tFar)
+			tFar = t1;
+		t0 = (this.nodeBounds[b + 1] - oy) * iy;
+		t1 = (this.nodeBounds[b + 4] - oy) * iy;
+		if (t0 > t1) {
+			double t = t0;
+			t0 = t1;
+			t1 = t;
+		}
+		if (t0 > tNear)
+			tNear = t0;
+		if (t1 < tFar)
+			tFar = t1;
+		t0 = (this.nodeBounds[b + 2] - oz) * iz;
+		t1 = (this.nodeBounds[b + 5] - oz) * iz;
+		if (t0 > t1) {
+			double t = t0;
+			t0 = t1;
+			t1 = t;
+		}
+		if (t0 > tNear)
+			tNear = t0;
+		if (t1 < tFar)
+			tFar = t1;
+		return tNear <= tFar * ROUNDING_PAD;
+	}
+
+	/**
+	 * write a node and its children into the flat arrays
+	 * 
+	 * @param node       node
+	 * @param index      index of the node in the arrays
+	 * @param nodeBounds boxes of the nodes
+	 * @param nodeData   children and leaves of the nodes
+	 * @return the next free index
+	 */
+	private static int flatten(Node node, int index, double[] nodeBounds, int[] nodeData) {
+		System.arraycopy(node.box, 0, nodeBounds, index * 6, 6);
+		if (node.left == null) {
+			nodeData[2 * index] = node.start;
+			nodeData[2 * index + 1] = node.count;
+			return index + 1;
+		}
+		int right = flatten(node.left, index + 1, nodeBounds, nodeData);
+		nodeData[2 * index] = right;
+		nodeData[2 * index + 1] = -(node.axis + 1);
+		return flatten(node.right, right, nodeBounds, nodeData);
+	}
+
+	/**
+	 * node of the tree while it is built
+	 */
+	private static class Node {
+		/**
+		 * box of the node
+		 */
+		final double[] box = new double[6];
+		/**
+		 * children of an inner node, null for a leaf
+		 */
+		Node left, right;
+		/**
+		 * split axis of an inner node
+		 */
+		int axis;
+		/**
+		 * first index and number of the objects of a leaf
+		 */
+		int start, count;
+		/**
+		 * number of nodes of the subtree
+		 */
+		int nodes = 1;
+	}
+
+	/**
+	 * top down binned SAH builder, the parallel builder runs in the threads of a
+	 * fork/join pool
+	 */
+	private static class Builder {
+		/**
+		 * boxes of the objects
+		 */
+		final double[] bounds;
+		/**
+		 * centers of the boxes of the objects, 3 values per object
+		 */
+		final double[] centroids;
+		/**
+		 * object indices, reordered while the tree is built
+		 */
+		final int[] indices;
+		/**
+		 * true to fork large subtrees and ranges into tasks of the current pool
+		 */
+		final boolean parallel;
+
+		/**
+		 * constructor of the builder, it must run in the pool of a parallel builder
+		 * 
+		 * @param bounds   boxes of the objects
+		 * @param count    number of objects
+		 * @param parallel true to fork tasks into the current pool
+		 */
+		Builder(double[] bounds, int count, boolean parallel) {
+			this.bounds = bounds;
+			this.centroids = new double[count * 3];
+			this.indices = new int[count];
+			this.parallel = parallel;
+			centroids(0, count);
+		}
+
+		/**
+		 * build the tree
+		 * 
+		 * @return the tree
+		 */
+		BVH tree() {
+			Node root = build(0, this.indices.length, 0);
+			double[] nodeBounds = new double[root.nodes * 6];
+			int[] nodeData = new int[root.nodes * 2];
+			flatten(root, 0, nodeBounds, nodeData);
+			return new BVH(nodeBounds, nodeData, this.indices);
+		}
+
+		/**
+		 * compute the indices and the centroids of a range of objects
+		 * 
+		 * @param start first object
+		 * @param end   object after the range
+		 */
+		private void centroids(int start, int end) {
+			if (this.parallel && end - start > PARALLEL_RANGE) {
+				int mid = (start + end) >>> 1;
+				ForkJoinTask<?> left = ForkJoinTask.adapt(() -> centroids(start, mid)).fork();
+				centroids(mid, end);
+				left.join();
+				return;
+			}
+			for (int i = start; i < end; ++i) {
+				this.indices[i] = i;
+				for (int a = 0; a < 3; ++a)
+					this.centroids[3 * i + a] = (this.bounds[6 * i + a] + this.bounds[6 * i + a + 3]) / 2;
+			}
+		}
+
+		/**
+		 * compute the box of a range of objects and the box of their centroids
+		 * 
+		 * @param start first index in the range
+		 * @param end   index after the range
+		 * @return the box of the objects and then the box of the centroids, 6
+		 *         values each
+		 */
+		private double[] rangeBounds(int start, int end) {
+			if (this.parallel && end - start > PARALLEL_RANGE) {
+				int mid = (start + end) >>> 1;
+				ForkJoinTask<double[]> left = ForkJoinTask.adapt(() -> rangeBounds(start, mid)).fork();
+				double[] result = rangeBounds(mid, end);
+				double[] other = left.join();
+				grow(result, 0, other, 0);
+				grow(result, 6, other, 6);
+				return result;
+			}
+			double[] result = new double[12];
+			empty(result, 0);
+			empty(result, 6);
+			for (int i = start; i < end; ++i) {
+				int o = this.indices[i];
+				for (int a = 0; a < 3; ++a) {
+					result[a] = Math.min(result[a], this.bounds[6 * o + a]);
+					result[a + 3] = Math.max(result[a + 3], this.bounds[6 * o + a + 3]);
+					result[a + 6] = Math.min(result[a + 6], this.centroids[3 * o + a]);
+					result[a + 9] = Math.max(result[a + 9], this.centroids[3 * o + a]);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * sort a range of objects into the bins of an axis
+		 * 
+		 * @param start first index in the range
+		 * @param end   index after the range
+		 * @param axis  the axis
+		 * @param min   minimal centroid coordinate on the axis
+		 * @param scale bins per unit
+		 * @return the number of objects of every bin, and then the box of every bin
+		 *         (6 values per bin)
+		 */
+		private double[] rangeBins(int start, int end, int axis, double min, double scale) {
+			if (this.parallel && end - start > PARALLEL_RANGE) {
+				int mid = (start + end) >>> 1;
+				ForkJoinTask<double[]> left = ForkJoinTask.adapt(() -> rangeBins(start, mid, axis, min, scale))
+						.fork();
+				double[] result = rangeBins(mid, end, axis, min, scale);
+				double[] other = left.join();
+				for (int b = 0; b < BINS; ++b) {
+					result[b] += other[b];
+					grow(result, BINS + b * 6, other, BINS + b * 6);
+				}
+				return result;
+			}
+			double[] result = new double[BINS * 7];
+			for (int b = 0; b < BINS; ++b)
+				empty(result, BINS + b * 6);
+			for (int i = start; i < end; ++i) {
+				int o = this.indices[i];
+				int b = bin(this.centroids[3 * o + axis], min, scale);
+				++result[b];
+				grow(result, BINS + b * 6, this.bounds, 6 * o);
+			}
+			return result;
+		}
+
+		/**
+		 * build the node of a range of objects
+		 * 
+		 * @param start first index in the range
+		 * @param end   index after the range
+		 * @param depth depth of the node
+		 * @return the node
+		 */
+		Node build(int start, int end, int depth) {
+			Node node = new Node();
+			double[] box = node.box;
+			double[] rangeBox = rangeBounds(start, end);
+			System.arraycopy(rangeBox, 0, box, 0, 6);
+			double[] cMin = { rangeBox[6], rangeBox[7], rangeBox[8] };
+			double[] cMax = { rangeBox[9], rangeBox[10], rangeBox[11] };
+			int count = end - start;
+			if (count == 1)
+				return leaf(node, start, count);
+
+			// look for the cheapest split, a leaf costs one test per object
+			double area = area(box, 0);
+			double invArea = area > 0 ? 1 / area : 0;
+			double bestCost = count <= MAX_LEAF_SIZE ? count : Double.POSITIVE_INFINITY;
+			int bestAxis = -1;
+			int bestBin = -1;
+			if (depth < MAX_SAH_DEPTH) {
+				double[] rightArea = new double[BINS];
+				int[] rightCount = new int[BINS];
+				double[] acc = new double[6];
+				for (int axis = 0; axis < 3; ++axis) {
+					double extent = cMax[axis] - cMin[axis];
+					if (extent <= 0)
+						continue;
+					double[] bins = rangeBins(start, end, axis, cMin[axis], BINS / extent);
+					// sweep from the right for the areas of the right sides
+					empty(acc, 0);
+					int n = 0;
+					for (int b = BINS - 1; b > 0; --b) {
+						grow(acc, 0, bins, BINS + b * 6);
+						n += (int) bins[b];
+						rightArea[b] = n == 0 ? 0 : area(acc, 0);
+						rightCount[b] = n;
+					}
+					// sweep from the left and compare the costs
+					empty(acc, 0);
+					n = 0;
+					for (int b = 0; b < BINS - 1; ++b) {
+						grow(acc, 0, bins, BINS + b * 6);
+						n += (int) bins[b];
+						if (n == 0 || rightCount[b + 1] == 0)
+							continue;
+						double cost = TRAVERSAL_COST
+								+ (area(acc, 0) * n + rightArea[b + 1] * rightCount[b + 1]) * invArea;
+						if (cost < bestCost) {
+							bestCost = cost;
+							bestAxis = axis;
+							bestBin = b;
+						}
+					}
+				}
+			}
+
+			int mid;
+			if (bestAxis >= 0) {
+				// partition by the chosen bin
+				double scale = BINS / (cMax[bestAxis] - cMin[bestAxis]);
+				int i = start, j = end - 1;
+				while (i <= j) {
+					if (bin(this.centroids[3 * this.indices[i] + bestAxis], cMin[bestAxis], scale) <= bestBin)
+						++i;
+					else
+						swap(i, j--);
+				}
+				mid = i;
+				node.axis = bestAxis;
+			} else {
+				if (count <= MAX_LEAF_SIZE)
+					return leaf(node, start, count);
+				// no useful SAH split (too deep or equal centers) - split in the median
+				int axis = 0;
+				for (int a = 1; a < 3; ++a)
+					if (cMax[a] - cMin[a] > cMax[axis] - cMin[axis])
+						axis = a;
+				mid = (start + end) / 2;
+				if (cMax[axis] > cMin[axis])
+					select(start, end, mid, axis);
+				node.axis = axis;
+			}
+			if (this.parallel && count > FORK_SIZE) {
+				// the subtrees are built over separate ranges of the indices
+				ForkJoinTask<Node> left = ForkJoinTask.adapt(() -> build(start, mid, depth + 1)).fork();
+				node.right = build(mid, end, depth + 1);
+				node.left = left.join();
+			} else {
+				node.left = build(start, mid, depth + 1);
+				node.right = build(mid, end, depth + 1);
+			}
+			node.nodes = 1 + node.left.nodes + node.right.nodes;
+			return node;
+		}
+
+		/**
+		 * turn a node into a leaf
+		 * 
+		 * @param node  node
+		 * @param start first index of its objects
+		 * @param count number of objects
+		 * @return the node
+		 */
+		private Node leaf(Node node, int start, int count) {
+			node.start = start;
+			node.count = count;
+			return node;
+		}
+
+		/**
+		 * reorder a range so the object at k is the one that would be there if the
+		 * range were sorted along an axis (quick select)
+		 * 
+		 * @param start first index in the range
+		 * @param end   index after the range
+		 * @param k     index to select
+		 * @param axis  axis
+		 */
+		private void select(int start, int end, int k, int axis) {
+			int lo = start, hi = end - 1;
+			while (lo < hi) {
+				double pivot = this.centroids[3 * this.indices[(lo + hi) >>> 1] + axis];
+				int i = lo, j = hi;
+				while (i <= j) {
+					while (this.centroids[3 * this.indices[i] + axis] < pivot)
+						++i;
+					while (this.centroids[3 * this.indices[j] + axis] > pivot)
+						--j;
+					if (i <= j)
+						swap(i++, j--);
+				}
+				if (k <= j)
+					hi = j;
+				else if (k >= i)
+					lo = i;
+				else
+					return;
+			}
+		}
+
+		/**
+		 * swap two object indices
+		 * 
+		 * @param i first position
+		 * @param j second position
+		 */
+		private void swap(int i, int j) {
+			int t = this.indices[i];
+			this.indices[i] = this.indices[j];
+			this.indices[j] = t;
+		}
+	}
+
+	/**
+	 * find the bin of a centroid
+	 * 
+	 * @param c     centroid coordinate
+	 * @param min   minimal centroid coordinate
+	 * @param scale bins per unit
+	 * @return the bin
+	 */
+	static int bin(double c, double min, double scale) {
+		int b = (int) ((c - min) * scale);
+		return b < 0 ? 0 : (b >= BINS ? BINS - 1 : b);
+	}
+
+	/**
+	 * set a box in an array to the empty box
+	 * 
+	 * @param box    array of boxes
+	 * @param offset offset of the box
+	 */
+	static void empty(double[] box, int offset) {
+		for (int a = 0; a < 3; ++a) {
+			box[offset + a] = Double.POSITIVE_INFINITY;
+			box[offset + a + 3] = Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * grow a box in an array to contain another box
+	 * 
+	 * @param box    array of the box to grow
+	 * @param offset offset of the box to grow
+	 * @param other  array of the other box
+	 * @param from   offset of the other box
+	 */
+	static void grow(double[] box, int offset, double[] other, int from) {
+		for (int a = 0; a < 3; ++a) {
+			box[offset + a] = Math.min(box[offset + a], other[from + a]);
+			box[offset + a + 3] = Math.max(box[offset + a + 3], other[from + a + 3]);
+		}
+	}
+
+	/**
+	 * surface area of a box in an array
+	 * 
+	 * @param box    array of the box
+	 * @param offset offset of the box
+	 * @return the area
+	 */
+	static double area(double[] box, int offset) {
+		double dx = box[offset + 3] - box[offset];
+		double dy = box[offset + 4] - box[offset + 1];
+		double dz = box[offset + 5] - box[offset + 2];
+		return 2 * (dx * dy + dy * dz + dz * dx);
+	}
+}
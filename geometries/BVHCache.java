@@ -0,0 +1,287 @@
+package geometries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of BVH trees in files of a directory. A tree depends only on the boxes
+ * of its objects, so the key of a tree is the SHA-256 hash of the boxes: when
+ * a geometry changes, its boxes and so its key change and the old file is not
+ * used any more, and the same static assets find their tree in every render.
+ * <br/>
+ * A file holds the flat arrays of the tree as little endian blocks after a
+ * header with the key, and is loaded by mapping it and copying the blocks in
+ * bulk into the arrays. A new file is written into a temporary file and moved
+ * into its name, so a reader never sees half a file. A file that cannot be
+ * read is built again, and a failure to write a file is logged and does not
+ * fail the build.<br/>
+ * Trees of less objects than a minimum are built without the cache, they are
+ * built faster than a file is read.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class BVHCache {
+	/**
+	 * version of the files, a file of another version is built again
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * first 4 bytes of a file, "BVHC" in little endian
+	 */
+	private static final int MAGIC = 0x43485642;
+	/**
+	 * size of the header: magic, version, key, count, node count, index count and
+	 * padding up to 8 bytes
+	 */
+	private static final int HEADER = 4 + 4 + 32 + 4 + 4 + 4 + 4;
+	/**
+	 * default minimum amount of objects of a cached tree
+	 */
+	private static final int MIN_OBJECTS = 10000;
+	/**
+	 * size of the buffer that the boxes are hashed through
+	 */
+	private static final int BUFFER = 1 << 16;
+
+	/**
+	 * directory of the files
+	 */
+	private final Path directory;
+	/**
+	 * minimum amount of objects of a cached tree
+	 */
+	private final int minObjects;
+	/**
+	 * amount of trees that were loaded from files
+	 */
+	private final AtomicInteger hits = new AtomicInteger();
+	/**
+	 * amount of trees that were built and written
+	 */
+	private final AtomicInteger misses = new AtomicInteger();
+	/**
+	 * logger of the failures to write a file
+	 */
+	private final Logger logger = Logger.getLogger("BVHCache");
+
+	/**
+	 * constructor of a cache of trees of at least 10000 objects
+	 * 
+	 * @param directory directory of the files, it is created if it does not exist
+	 */
+	public BVHCache(Path directory) {
+		this(directory, MIN_OBJECTS);
+	}
+
+	/**
+	 * constructor of a cache
+	 * 
+	 * @param directory  directory of the files, it is created if it does not
+	 *                   exist
+	 * @param minObjects minimum amount of objects of a cached tree
+	 */
+	public BVHCache(Path directory, int minObjects) {
+		this.directory = directory;
+		this.minObjects = minObjects;
+	}
+
+	/**
+	 * get the amount of trees that were loaded from files
+	 * 
+	 * @return amount of hits
+	 */
+	public int getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * get the amount of trees that were built and written into files
+	 * 
+	 * @return amount of misses
+	 */
+	public int getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * get the tree of boxes from its file, or build it and write its file
+	 * 
+	 * @param bounds boxes of the objects, 6 values per object (min x,y,z and max
+	 *               x,y,z)
+	 * @param count  number of objects
+	 * @return the tree
+	 * @throws IllegalArgumentException if there are no objects
+	 */
+	public BVH get(double[] bounds, int count) {
+		return get(bounds, count, 1);
+	}
+
+	/**
+	 * get the tree of boxes from its file, or build it by several threads and
+	 * write its file
+	 * 
+	 * @param bounds  boxes of the objects, 6 values per object (min x,y,z and max
+	 *                x,y,z)
+	 * @param count   number of objects
+	 * @param threads number of threads of the build
+	 * @return the tree
+	 * @throws IllegalArgumentException if there are no objects
+	 */
+	public BVH get(double[] bounds, int count, int threads) {
+		if (count < this.minObjects)
+			return BVH.buildTree(bounds, count, threads);
+		byte[] key = key(bounds, count);
+		Path path = this.directory.resolve(hex(key) + ".bvh");
+		BVH tree = Files.isRegularFile(path) ? read(path, key, count) : null;
+		if (tree != null) {
+			this.hits.incrementAndGet();
+			return tree;
+		}
+		tree = BVH.buildTree(bounds, count, threads);
+		this.misses.incrementAndGet();
+		try {
+			write(path, key, count, tree);
+		} catch (IOException e) {
+			this.logger.log(Level.WARNING, "cannot write " + path, e);
+		}
+		return tree;
+	}
+
+	/**
+	 * hash the boxes of the objects
+	 * 
+	 * @param bounds boxes of the objects
+	 * @param count  number of objects
+	 * @return SHA-256 of the version, the count and the boxes
+	 */
+	private static byte[] key(double[] bounds, int count) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform has SHA-256
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(VERSION).putInt(count);
+		digest.update(buffer.array(), 0, buffer.position());
+		int values = count * 6;
+		for (int i = 0; i < values;) {
+			int n = Math.min(values - i, BUFFER / 8);
+			buffer.clear();
+			buffer.asDoubleBuffer().put(bounds, i, n);
+			digest.update(buffer.array(), 0, n * 8);
+			i += n;
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * write a key as hexadecimal digits
+	 * 
+	 * @param key the key
+	 * @return the digits
+	 */
+	private static String hex(byte[] key) {
+		StringBuilder digits = new StringBuilder(key.length * 2);
+		for (byte b : key)
+			digits.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		return digits.toString();
+	}
+
+	/**
+	 * read a tree from its file
+	 * 
+	 * @param path  the file
+	 * @param key   key of the tree
+	 * @param count number of objects
+	 * @return the tree, or null if the file cannot be read, is not of the key or
+	 *         is not a whole tree of the objects
+	 */
+	private static BVH read(Path path, byte[] key, int count) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER || size > Integer.MAX_VALUE)
+				return null;
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+			if (bytes.getInt() != MAGIC || bytes.getInt() != VERSION)
+				return null;
+			byte[] fileKey = new byte[key.length];
+			bytes.get(fileKey);
+			if (!MessageDigest.isEqual(key, fileKey) || bytes.getInt() != count)
+				return null;
+			int nodes = bytes.getInt();
+			int indexCount = bytes.getInt();
+			if (nodes < 1 || indexCount != count || size != HEADER + 8L * 6 * nodes + 4L * 2 * nodes + 4L * count)
+				return null;
+			bytes.position(HEADER);
+			double[] nodeBounds = new double[nodes * 6];
+			bytes.asDoubleBuffer().get(nodeBounds);
+			bytes.position(bytes.position() + nodeBounds.length * 8);
+			int[] nodeData = new int[nodes * 2];
+			bytes.asIntBuffer().get(nodeData);
+			bytes.position(bytes.position() + nodeData.length * 4);
+			int[] indices = new int[count];
+			bytes.asIntBuffer().get(indices);
+			// a damaged tree that is too deep or loses objects is built again
+			return BVH.of(nodeBounds, nodeData, indices);
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * write a tree into its file, through a temporary file in the same directory
+	 * 
+	 * @param path  the file
+	 * @param key   key of the tree
+	 * @param count number of objects
+	 * @param tree  the tree
+	 * @throws IOException if the file cannot be written
+	 */
+	private void write(Path path, byte[] key, int count, BVH tree) throws IOException {
+		Files.createDirectories(this.directory);
+		double[] nodeBounds = tree.getNodeBounds();
+		int[] nodeData = tree.getNodeData();
+		int[] indices = tree.getIndices();
+		ByteBuffer bytes = ByteBuffer
+				.allocateDirect(HEADER + nodeBounds.length * 8 + nodeData.length * 4 + indices.length * 4)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		bytes.putInt(MAGIC).putInt(VERSION).put(key).putInt(count).putInt(tree.getNodeCount())
+				.putInt(indices.length).putInt(0);
+		bytes.asDoubleBuffer().put(nodeBounds);
+		bytes.position(bytes.position() + nodeBounds.length * 8);
+		bytes.asIntBuffer().put(nodeData);
+		bytes.position(bytes.position() + nodeData.length * 4);
+		bytes.asIntBuffer().put(indices);
+		bytes.clear();
+
+		Path temp = Files.createTempFile(this.directory, "bvh", ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				while (bytes.hasRemaining())
+					channel.write(bytes);
+			}
+			try {
+				Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+}
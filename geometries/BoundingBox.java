@@ -0,0 +1,167 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+/**
+ * class BoundingBox is an axis aligned box that contains an intersectable, it
+ * is used to skip intersectables that a ray can not reach
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class BoundingBox {
+	/**
+	 * padding of the far distance of a ray test against rounding errors
+	 */
+	private static final double ROUNDING_PAD = 1 + 1e-15;
+	/**
+	 * minimal x of the box
+	 */
+	public final double minX;
+	/**
+	 * minimal y of the box
+	 */
+	public final double minY;
+	/**
+	 * minimal z of the box
+	 */
+	public final double minZ;
+	/**
+	 * maximal x of the box
+	 */
+	public final double maxX;
+	/**
+	 * maximal y of the box
+	 */
+	public final double maxY;
+	/**
+	 * maximal z of the box
+	 */
+	public final double maxZ;
+
+	/**
+	 * constructor of a box with its two extreme corners
+	 * 
+	 * @param minX minimal x
+	 * @param minY minimal y
+	 * @param minZ minimal z
+	 * @param maxX maximal x
+	 * @param maxY maximal y
+	 * @param maxZ maximal z
+	 */
+	public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+	}
+
+	/**
+	 * constructor of the smallest box that contains all the points
+	 * 
+	 * @param points points inside the box
+	 * @throws IllegalArgumentException if there are no points
+	 */
+	public BoundingBox(Point3D... points) {
+		if (points.length == 0)
+			throw new IllegalArgumentException("a bounding box needs at least one point");
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+		for (Point3D p : points) {
+			x0 = Math.min(x0, p.getX());
+			y0 = Math.min(y0, p.getY());
+			z0 = Math.min(z0, p.getZ());
+			x1 = Math.max(x1, p.getX());
+			y1 = Math.max(y1, p.getY());
+			z1 = Math.max(z1, p.getZ());
+		}
+		this.minX = x0;
+		this.minY = y0;
+		this.minZ = z0;
+		this.maxX = x1;
+		this.maxY = y1;
+		this.maxZ = z1;
+	}
+
+	/**
+	 * the smallest box that contains this box and another one
+	 * 
+	 * @param other other box
+	 * @return new box
+	 */
+	public BoundingBox union(BoundingBox other) {
+		return new BoundingBox(Math.min(this.minX, other.minX), Math.min(this.minY, other.minY),
+				Math.min(this.minZ, other.minZ), Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY),
+				Math.max(this.maxZ, other.maxZ));
+	}
+
+	/**
+	 * get the center of the box
+	 * 
+	 * @return center point
+	 */
+	public Point3D getCenter() {
+		return new Point3D((this.minX + this.maxX) / 2, (this.minY + this.maxY) / 2, (this.minZ + this.maxZ) / 2);
+	}
+
+	/**
+	 * surface area of the box, used by the surface area heuristic
+	 * 
+	 * @return the area
+	 */
+	public double surfaceArea() {
+		double dx = this.maxX - this.minX;
+		double dy = this.maxY - this.minY;
+		double dz = this.maxZ - this.minZ;
+		return 2 * (dx * dy + dy * dz + dz * dx);
+	}
+
+	/**
+	 * cheap slab test that checks if a ray can reach the box, used to reject a ray
+	 * before testing what is inside the box
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return true if the ray reaches the box before the max distance
+	 */
+	public boolean intersects(Ray ray, double maxDistance) {
+		Point3D p0 = ray.getP0();
+		Point3D dir = ray.getVector().getHead();
+		double tNear = 0;
+		double tFar = maxDistance;
+		// a NaN (ray parallel to a face that lies on the box) fails the comparisons
+		// and does not reject the box
+		double t0 = (this.minX - p0.getX()) / dir.getX(), t1 = (this.maxX - p0.getX()) / dir.getX();
+		if (Math.min(t0, t1) > tNear)
+			tNear = Math.min(t0, t1);
+		if (Math.max(t0, t1) < tFar)
+			tFar = Math.max(t0, t1);
+		t0 = (this.minY - p0.getY()) / dir.getY();
+		t1 = (this.maxY - p0.getY()) / dir.getY();
+		if (Math.min(t0, t1) > tNear)
+			tNear = Math.min(t0, t1);
+		if (Math.max(t0, t1) < tFar)
+			tFar = Math.max(t0, t1);
+		t0 = (this.minZ - p0.getZ()) / dir.getZ();
+		t1 = (this.maxZ - p0.getZ()) / dir.getZ();
+		if (Math.min(t0, t1) > tNear)
+			tNear = Math.min(t0, t1);
+		if (Math.max(t0, t1) < tFar)
+			tFar = Math.max(t0, t1);
+		return tNear <= tFar * ROUNDING_PAD;
+	}
+
+	/**
+	 * get the values of the members in the box
+	 * 
+	 * @return return a string of the members
+	 */
+	@Override
+	public String toString() {
+		return "Min: (" + this.minX + "," + this.minY + "," + this.minZ + ")\nMax: (" + this.maxX + "," + this.maxY
+				+ "," + this.maxZ + ")";
+	}
+}
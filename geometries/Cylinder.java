@@ -67,6 +67,26 @@ public class Cylinder extends Tube {
 
 	}
 
+	/**
+	 * get the box of the cylinder: the box of its two bases, each base is a disc
+	 * whose extent along an axis is r * sqrt(1 - v^2) where v is the axis
+	 * component of the direction
+	 * 
+	 * @return the box around the cylinder
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		Point3D a = this.axisRay.getP0();
+		Point3D b = isZero(this.height) ? a : this.axisRay.getPoint(this.height);
+		Point3D v = this.axisRay.getVector().getHead();
+		double ex = this.radius * Math.sqrt(Math.max(0, 1 - v.getX() * v.getX()));
+		double ey = this.radius * Math.sqrt(Math.max(0, 1 - v.getY() * v.getY()));
+		double ez = this.radius * Math.sqrt(Math.max(0, 1 - v.getZ() * v.getZ()));
+		return new BoundingBox(Math.min(a.getX(), b.getX()) - ex, Math.min(a.getY(), b.getY()) - ey,
+				Math.min(a.getZ(), b.getZ()) - ez, Math.max(a.getX(), b.getX()) + ex,
+				Math.max(a.getY(), b.getY()) + ey, Math.max(a.getZ(), b.getZ()) + ez);
+	}
+
 	// use zero.
 	/**
 	 * get the values of the members in cylinder
@@ -1,7 +1,11 @@
 package geometries;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import primitives.Ray;
 
 /**
@@ -16,6 +20,23 @@ public class Geometries implements Intersectable {
 	 * center of the sphere
 	 */
 	private ArrayList<Intersectable> geometries;
+	/**
+	 * whether the intersections are searched through a BVH
+	 */
+	private boolean bvhEnabled = true;
+	/**
+	 * acceleration structure over the list, built on first use and dropped when
+	 * the list or a nested group changes
+	 */
+	private volatile Index index;
+	/**
+	 * view of the list that tells the group about its changes
+	 */
+	private final List<Intersectable> view = new GeometryList();
+	/**
+	 * groups that contain this group, their index is dropped with its index
+	 */
+	private final CopyOnWriteArrayList<Geometries> parents = new CopyOnWriteArrayList<>();
 
 	/**
 	 * default constructor of a Geometries
@@ -34,7 +55,7 @@ public class Geometries implements Intersectable {
 		this.geometries = new ArrayList<Intersectable>();
 		for (Intersectable intersectable : otherGeometries) {
 			this.geometries.add(intersectable);
-
+			adopt(intersectable);
 		}
 	}
 
@@ -46,17 +67,124 @@ public class Geometries implements Intersectable {
 	public void add(Intersectable... otherGeometries) {
 		for (Intersectable intersectable : otherGeometries) {
 			this.geometries.add(intersectable);
+			adopt(intersectable);
+		}
+		changed();
+	}
 
+	/**
+	 * register this group as a parent of a nested group, so a change of the
+	 * nested group drops the index of this group
+	 * 
+	 * @param intersectable object that was put in the list
+	 */
+	private void adopt(Intersectable intersectable) {
+		if (intersectable instanceof Geometries)
+			((Geometries) intersectable).parents.addIfAbsent(this);
+	}
+
+	/**
+	 * remove this group from the parents of a nested group that left the list,
+	 * unless the group is in the list again
+	 * 
+	 * @param intersectable object that was taken out of the list
+	 */
+	private void disown(Intersectable intersectable) {
+		if (intersectable instanceof Geometries && !this.geometries.contains(intersectable))
+			((Geometries) intersectable).parents.remove(this);
+	}
+
+	/**
+	 * drop the index of the group and of the groups that contain it, they are
+	 * built again on their next use
+	 */
+	private void changed() {
+		synchronized (this) {
+			this.index = null;
 		}
+		for (Geometries parent : this.parents)
+			parent.changed();
 	}
 
 	/**
-	 * get list of geometries
+	 * get list of geometries, a change of the list drops the index of the group
+	 * and of the groups that contain it
 	 * 
 	 * @return list of Intersectable
 	 */
-	public ArrayList<Intersectable> getList() {
-		return this.geometries;
+	public List<Intersectable> getList() {
+		return this.view;
+	}
+
+	/**
+	 * set whether the intersections are searched through a bounding volume
+	 * hierarchy (the default) or by testing every object in the list
+	 * 
+	 * @param enabled true to use the BVH
+	 * @return this object
+	 */
+	public Geometries setBVH(boolean enabled) {
+		this.bvhEnabled = enabled;
+		this.index = null;
+		return this;
+	}
+
+	/**
+	 * check whether the intersections are searched through a bounding volume
+	 * hierarchy
+	 * 
+	 * @return true if the BVH is used
+	 */
+	public boolean isBVHEnabled() {
+		return this.bvhEnabled;
+	}
+
+	/**
+	 * get the BVH over the objects of the list that have a bounding box, in their
+	 * order in the list, building it if the list has changed
+	 * 
+	 * @return the tree, or null if there is no bounded object or the BVH is
+	 *         disabled
+	 */
+	public BVH getBVH() {
+		return index().bvh;
+	}
+
+	/**
+	 * set a tree that was built before over the objects of the list that have a
+	 * bounding box, in their order in the list, instead of building it on first
+	 * use. The tree is kept until the list changes
+	 * 
+	 * @param tree the tree
+	 * @return this object
+	 * @throws IllegalArgumentException if the tree is not of the bounded objects
+	 */
+	public Geometries setBVH(BVH tree) {
+		this.bvhEnabled = true;
+		this.index = new Index(this.geometries, true, tree, 1);
+		return this;
+	}
+
+	/**
+	 * get the union of the boxes of the objects, it is cached until the list
+	 * changes
+	 * 
+	 * @return the box, or null if the list is empty or has an unbounded object
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return index().box;
+	}
+
+	/**
+	 * build the trees of the objects and then the BVH of the list, so the nested
+	 * groups are built by the threads and not by the box that the list asks
+	 */
+	@Override
+	public void buildBVH(int threads) {
+		for (Intersectable intersectable : this.geometries)
+			intersectable.buildBVH(threads);
+		index(threads);
 	}
 
 	/**
@@ -69,9 +197,22 @@ public class Geometries implements Intersectable {
 	 */
 	@Override
 	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+		if (this.bvhEnabled && !geometries.isEmpty()) {
+			Index idx = index();
+			Collector collector = new Collector(idx.bounded, ray);
+			if (idx.bvh != null)
+				idx.bvh.traverse(ray, maxDistance, collector);
+			for (Intersectable intersectable : idx.unbounded)
+				collector.add(intersectable.findGeoIntersections(ray, maxDistance));
+			return collector.result;
+		}
 		List<GeoPoint> result = null;
 		// check if list is empty
 		if (!geometries.isEmpty()) {
+			// skip the whole group if the ray misses its box
+			BoundingBox box = index().box;
+			if (box != null && !box.intersects(ray, maxDistance))
+				return null;
 			for (Intersectable intersectable : geometries) {
 				List<GeoPoint> tempList = intersectable.findGeoIntersections(ray, maxDistance);
 				if (tempList != null) {
@@ -86,4 +227,366 @@ public class Geometries implements Intersectable {
 		return result;
 	}
 
+	/**
+	 * find the closest intersection point, every object only looks for points
+	 * nearer than the best point found so far, and the BVH skips the nodes that
+	 * are farther than it
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return the closest point, null if there is none
+	 */
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		if (geometries.isEmpty())
+			return null;
+		Index idx = index();
+		ClosestFinder finder = new ClosestFinder(idx.bounded, ray);
+		// unbounded objects first, their point may prune the tree
+		double distance = maxDistance;
+		for (Intersectable intersectable : idx.unbounded)
+			distance = finder.test(intersectable, distance);
+		if (idx.bvh != null) {
+			idx.bvh.traverse(ray, distance, finder);
+		} else if (idx.box == null || idx.box.intersects(ray, distance)) {
+			for (Intersectable intersectable : idx.bounded)
+				distance = finder.test(intersectable, distance);
+		}
+		return finder.result;
+	}
+
+	/**
+	 * find how much light passes through the objects, the search stops at the
+	 * first object that blocks the light
+	 * 
+	 * @param ray         ray towards the light
+	 * @param maxDistance distance of the light
+	 * @param minK        transparency below which the light is blocked
+	 * @return transparency, 0 if the light is blocked
+	 */
+	@Override
+	public double findTransparency(Ray ray, double maxDistance, double minK) {
+		if (geometries.isEmpty())
+			return 1.0;
+		Index idx = index();
+		ShadowFinder finder = new ShadowFinder(idx.bounded, ray, maxDistance, minK);
+		for (Intersectable intersectable : idx.unbounded)
+			if (!finder.test(intersectable))
+				return 0.0;
+		if (idx.bvh != null) {
+			idx.bvh.traverse(ray, maxDistance, finder);
+		} else if (idx.box == null || idx.box.intersects(ray, maxDistance)) {
+			for (Intersectable intersectable : idx.bounded)
+				if (!finder.test(intersectable))
+					return 0.0;
+		}
+		return finder.ktr < minK ? 0.0 : finder.ktr;
+	}
+
+	/**
+	 * get the acceleration structure, building it if the list has changed
+	 * 
+	 * @return the index
+	 */
+	private Index index() {
+		return index(1);
+	}
+
+	/**
+	 * get the acceleration structure, building it by several threads if the list
+	 * has changed
+	 * 
+	 * @param threads number of threads of the build
+	 * @return the index
+	 */
+	private Index index(int threads) {
+		Index idx = this.index;
+		if (idx != null)
+			return idx;
+		synchronized (this) {
+			idx = this.index;
+			if (idx == null) {
+				idx = new Index(this.geometries, this.bvhEnabled, null, threads);
+				this.index = idx;
+			}
+			return idx;
+		}
+	}
+
+	/**
+	 * list of the group that drops the index on every change, every change of an
+	 * AbstractList goes through set, add and remove
+	 */
+	private class GeometryList extends AbstractList<Intersectable> implements RandomAccess {
+		@Override
+		public Intersectable get(int i) {
+			return Geometries.this.geometries.get(i);
+		}
+
+		@Override
+		public int size() {
+			return Geometries.this.geometries.size();
+		}
+
+		@Override
+		public Intersectable set(int i, Intersectable intersectable) {
+			Intersectable old = Geometries.this.geometries.set(i, intersectable);
+			disown(old);
+			adopt(intersectable);
+			changed();
+			return old;
+		}
+
+		@Override
+		public void add(int i, Intersectable intersectable) {
+			Geometries.this.geometries.add(i, intersectable);
+			++this.modCount;
+			adopt(intersectable);
+			changed();
+		}
+
+		@Override
+		public Intersectable remove(int i) {
+			Intersectable old = Geometries.this.geometries.remove(i);
+			++this.modCount;
+			disown(old);
+			changed();
+			return old;
+		}
+	}
+
+	/**
+	 * BVH over the bounded objects of the list, the unbounded objects that have
+	 * to be tested by every ray, and the box of the whole list
+	 */
+	private static class Index {
+		/**
+		 * objects with a bounding box, in the order of the BVH indices
+		 */
+		final Intersectable[] bounded;
+		/**
+		 * objects without a bounding box
+		 */
+		final Intersectable[] unbounded;
+		/**
+		 * tree over the bounded objects, null if there are none or the BVH is
+		 * disabled
+		 */
+		final BVH bvh;
+		/**
+		 * union of all the boxes, null if there is an unbounded object
+		 */
+		final BoundingBox box;
+
+		/**
+		 * build the index of a list
+		 * 
+		 * @param list    list of intersectables
+		 * @param withBvh whether to have a tree
+		 * @param tree    tree over the bounded objects that was built before, null
+		 *                to build it
+		 * @param threads number of threads of the build
+		 * @throws IllegalArgumentException if the tree is not of the bounded objects
+		 */
+		Index(List<Intersectable> list, boolean withBvh, BVH tree, int threads) {
+			List<Intersectable> boundedList = new ArrayList<>();
+			List<Intersectable> unboundedList = new ArrayList<>();
+			List<BoundingBox> boxes = new ArrayList<>();
+			BoundingBox union = null;
+			for (Intersectable intersectable : list) {
+				BoundingBox box = intersectable.getBoundingBox();
+				if (box == null) {
+					unboundedList.add(intersectable);
+				} else {
+					boundedList.add(intersectable);
+					boxes.add(box);
+					union = union == null ? box : union.union(box);
+				}
+			}
+			this.box = unboundedList.isEmpty() ? union : null;
+			this.bounded = boundedList.toArray(new Intersectable[0]);
+			this.unbounded = unboundedList.toArray(new Intersectable[0]);
+			if (tree != null) {
+				// the leaves of a tree hold every index once
+				if (tree.getIndices().length != boxes.size())
+					throw new IllegalArgumentException("the tree is not of the bounded objects of the list");
+				this.bvh = tree;
+				return;
+			}
+			if (!withBvh || boxes.isEmpty()) {
+				this.bvh = null;
+				return;
+			}
+			double[] bounds = new double[boxes.size() * 6];
+			for (int i = 0; i < boxes.size(); ++i) {
+				BoundingBox box = boxes.get(i);
+				bounds[6 * i] = box.minX;
+				bounds[6 * i + 1] = box.minY;
+				bounds[6 * i + 2] = box.minZ;
+				bounds[6 * i + 3] = box.maxX;
+				bounds[6 * i + 4] = box.maxY;
+				bounds[6 * i + 5] = box.maxZ;
+			}
+			this.bvh = BVH.build(bounds, boxes.size(), threads);
+		}
+	}
+
+	/**
+	 * BVH visitor that keeps the closest intersection
+	 */
+	private static class ClosestFinder implements BVH.Visitor {
+		/**
+		 * objects indexed by the BVH
+		 */
+		private final Intersectable[] items;
+		/**
+		 * the ray
+		 */
+		private final Ray ray;
+		/**
+		 * closest point so far, null if there is none
+		 */
+		GeoPoint result = null;
+
+		/**
+		 * constructor of a finder
+		 * 
+		 * @param items objects indexed by the BVH
+		 * @param ray   the ray
+		 */
+		ClosestFinder(Intersectable[] items, Ray ray) {
+			this.items = items;
+			this.ray = ray;
+		}
+
+		@Override
+		public double visit(int index, double maxDistance) {
+			return test(this.items[index], maxDistance);
+		}
+
+		/**
+		 * look for a point of an object that is nearer than the best one
+		 * 
+		 * @param intersectable the object
+		 * @param maxDistance   distance of the best point
+		 * @return the new distance of the best point
+		 */
+		double test(Intersectable intersectable, double maxDistance) {
+			GeoPoint point = intersectable.findClosestGeoIntersection(this.ray, maxDistance);
+			if (point == null)
+				return maxDistance;
+			double distance = point.point.distance(this.ray.getP0());
+			if (distance >= maxDistance)
+				return maxDistance;
+			this.result = point;
+			return distance;
+		}
+	}
+
+	/**
+	 * BVH visitor that multiplies the transparency of the objects and stops when
+	 * the light is blocked
+	 */
+	private static class ShadowFinder implements BVH.Visitor {
+		/**
+		 * objects indexed by the BVH
+		 */
+		private final Intersectable[] items;
+		/**
+		 * the ray
+		 */
+		private final Ray ray;
+		/**
+		 * distance of the light
+		 */
+		private final double maxDistance;
+		/**
+		 * transparency below which the light is blocked
+		 */
+		private final double minK;
+		/**
+		 * transparency so far
+		 */
+		double ktr = 1.0;
+
+		/**
+		 * constructor of a finder
+		 * 
+		 * @param items       objects indexed by the BVH
+		 * @param ray         the ray
+		 * @param maxDistance distance of the light
+		 * @param minK        transparency below which the light is blocked
+		 */
+		ShadowFinder(Intersectable[] items, Ray ray, double maxDistance, double minK) {
+			this.items = items;
+			this.ray = ray;
+			this.maxDistance = maxDistance;
+			this.minK = minK;
+		}
+
+		@Override
+		public double visit(int index, double maxDistance) {
+			return test(this.items[index]) ? maxDistance : -1;
+		}
+
+		/**
+		 * multiply the transparency of an object
+		 * 
+		 * @param intersectable the object
+		 * @return false if the light is blocked
+		 */
+		boolean test(Intersectable intersectable) {
+			this.ktr *= intersectable.findTransparency(this.ray, this.maxDistance, this.minK / this.ktr);
+			return this.ktr >= this.minK;
+		}
+	}
+
+	/**
+	 * BVH visitor that gathers all the intersections
+	 */
+	private static class Collector implements BVH.Visitor {
+		/**
+		 * objects indexed by the BVH
+		 */
+		private final Intersectable[] items;
+		/**
+		 * the ray
+		 */
+		private final Ray ray;
+		/**
+		 * gathered points, null if there are none
+		 */
+		List<GeoPoint> result = null;
+
+		/**
+		 * constructor of a collector
+		 * 
+		 * @param items objects indexed by the BVH
+		 * @param ray   the ray
+		 */
+		Collector(Intersectable[] items, Ray ray) {
+			this.items = items;
+			this.ray = ray;
+		}
+
+		@Override
+		public double visit(int index, double maxDistance) {
+			add(this.items[index].findGeoIntersections(this.ray, maxDistance));
+			return maxDistance;
+		}
+
+		/**
+		 * add intersection points to the result
+		 * 
+		 * @param points points, may be null
+		 */
+		void add(List<GeoPoint> points) {
+			if (points != null) {
+				if (this.result == null)
+					this.result = new ArrayList<GeoPoint>();
+				this.result.addAll(points);
+			}
+		}
+	}
+
 }
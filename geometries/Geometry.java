@@ -3,6 +3,7 @@ package geometries;
 import primitives.Color;
 import primitives.Material;
 import primitives.Point3D;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
@@ -62,6 +63,23 @@ public abstract class Geometry implements Intersectable {
 		return this;
 	}
 
+	/**
+	 * find how much light passes through the geometry, an opaque geometry only
+	 * needs to know if there is any point so it does not gather them
+	 * 
+	 * @param ray         ray towards the light
+	 * @param maxDistance distance of the light
+	 * @param minK        transparency below which the light is blocked
+	 * @return transparency, 0 if the light is blocked
+	 */
+	@Override
+	public double findTransparency(Ray ray, double maxDistance, double minK) {
+		if (getMaterial().kT < minK) {
+			return findClosestGeoIntersection(ray, maxDistance) == null ? 1.0 : 0.0;
+		}
+		return Intersectable.super.findTransparency(ray, maxDistance, minK);
+	}
+
 	/**
 	 * get the normal of a shape
 	 * 
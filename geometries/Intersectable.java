@@ -45,6 +45,74 @@ public interface Intersectable {
 	 */
 	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance);
 
+	/**
+	 * find the intersection point that is closest to the head of the ray
+	 * 
+	 * @param ray ray
+	 * @return the closest point, null if there is none
+	 */
+	default GeoPoint findClosestGeoIntersection(Ray ray) {
+		return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * find the intersection point that is closest to the head of the ray and
+	 * nearer than a distance. Geometries override it to skip building a list of
+	 * all the intersections, and groups pass the distance of the best point so far
+	 * as the max distance of the next objects
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return the closest point, null if there is none
+	 */
+	default GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		return ray.findClosestGeoPoint(findGeoIntersections(ray, maxDistance));
+	}
+
+	/**
+	 * any-hit query for shadow rays: find how much light passes through the
+	 * objects in front of the ray, it is the product of kT of all the points
+	 * nearer than the distance. The search stops as soon as the product falls
+	 * below minK
+	 * 
+	 * @param ray         ray towards the light
+	 * @param maxDistance distance of the light
+	 * @param minK        transparency below which the light is blocked
+	 * @return transparency, 0 if the light is blocked
+	 */
+	default double findTransparency(Ray ray, double maxDistance, double minK) {
+		List<GeoPoint> points = findGeoIntersections(ray, maxDistance);
+		if (points == null) {
+			return 1.0;
+		}
+		double ktr = 1.0;
+		for (GeoPoint gp : points) {
+			ktr *= gp.geometry.getMaterial().kT;
+			if (ktr < minK) {
+				return 0.0;
+			}
+		}
+		return ktr;
+	}
+
+	/**
+	 * get the axis aligned box that contains the intersectable
+	 * 
+	 * @return the box, or null if the intersectable is unbounded
+	 */
+	default BoundingBox getBoundingBox() {
+		return null;
+	}
+
+	/**
+	 * build the acceleration structures of the intersectable before the first
+	 * ray, instead of by the first ray that reaches them
+	 * 
+	 * @param threads number of threads of the build
+	 */
+	default void buildBVH(int threads) {
+	}
+
 	/**
 	 * point and it geometry
 	 */
@@ -33,6 +33,17 @@ public class Plane extends Geometry {
 		this.normal = v.normalized();
 	}
 
+	/**
+	 * constructor of a plane with a point and a normal
+	 * 
+	 * @param q0 point of plane
+	 * @param v  normal vector
+	 */
+	public Plane(Point3D q0, Vector v) {
+		this.q0 = q0;
+		this.normal = v.normalized();
+	}
+
 	/**
 	 * constructor of a plane with 3 points
 	 * 
@@ -78,6 +89,16 @@ public class Plane extends Geometry {
 		return this.normal;
 	}
 
+	/**
+	 * a plane is infinite so it has no box
+	 * 
+	 * @return null - the plane is unbounded
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return null;
+	}
+
 	/**
 	 * get the values of the members in plane
 	 * 
@@ -97,12 +118,39 @@ public class Plane extends Geometry {
 	 */
 	@Override
 	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+		double t = findDistance(ray, maxDistance);
+		// return intersectionPoint;
+		return t > 0 ? List.of(new GeoPoint(this, ray.getPoint(t))) : null;
+	}
+
+	/**
+	 * find the intersection point of the ray without building a list, a plane has
+	 * one point at most
+	 * 
+	 * @param ray         a ray that might intersect a plane
+	 * @param maxDistance distance
+	 * @return the point, null if there is none
+	 */
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		double t = findDistance(ray, maxDistance);
+		return t > 0 ? new GeoPoint(this, ray.getPoint(t)) : null;
+	}
+
+	/**
+	 * find the distance of the intersection point along the ray
+	 * 
+	 * @param ray         a ray that might intersect a plane
+	 * @param maxDistance distance
+	 * @return t of the point, or 0 if there is no point
+	 */
+	double findDistance(Ray ray, double maxDistance) {
 
 		Point3D p0 = ray.getP0();
 
 		// check if q0 = po
 		if (p0.equals(q0)) {
-			return null;
+			return 0;
 		}
 		// normal
 		Vector n = this.normal;
@@ -113,21 +161,17 @@ public class Plane extends Geometry {
 
 		// check for zeroes in denominator and numerator,
 		if (isZero(numerator) || isZero(denominator)) {
-			return null;
+			return 0;
 		}
 
 		// t = N . (q0 - p0) / N . v
 		double t = alignZero(numerator / denominator);
 
-		if (t <= 0) {
-			return null;
-		}
 		// take only t>0
-		if (alignZero(t - maxDistance) <= 0) {
-			// return intersectionPoint;
-			return List.of(new GeoPoint(this, ray.getPoint(t)));
+		if (t <= 0 || alignZero(t - maxDistance) > 0) {
+			return 0;
 		}
-		return null;
+		return t;
 
 	}
 
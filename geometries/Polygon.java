@@ -84,11 +84,30 @@ public class Polygon extends Geometry {
 		}
 	}
 
+	/**
+	 * get the vertices of the polygon
+	 * 
+	 * @return list of vertices by edge path
+	 */
+	public List<Point3D> getVertices() {
+		return this.vertices;
+	}
+
 	@Override
 	public Vector getNormal(Point3D point) {
 		return plane.getNormal();
 	}
 
+	/**
+	 * get the box of the polygon
+	 * 
+	 * @return the box around the vertices
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox(this.vertices.toArray(new Point3D[0]));
+	}
+
 	@Override
 	public String toString() {
 		String outputVertices = "";
@@ -106,8 +125,35 @@ public class Polygon extends Geometry {
 	 */
 	@Override
 	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
-		// list of all the points
-		// List<Point3D> points = new ArrayList<Point3D>();
+		GeoPoint point = findClosestGeoIntersection(ray, maxDistance);
+		return point == null ? null : List.of(point);
+	}
+
+	/**
+	 * find the intersection point of the ray without building a list, a polygon
+	 * has one point at most
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return the point, null if there is none
+	 */
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		// Check if the intersection point with its plane is inside the polygon/triangle
+		double t = plane.findDistance(ray, maxDistance);
+		if (t <= 0 || !isInside(ray)) {
+			return null;
+		}
+		return new GeoPoint(this, ray.getPoint(t));
+	}
+
+	/**
+	 * check if a ray that crosses the plane of the polygon goes through its inside
+	 * 
+	 * @param ray ray
+	 * @return true if the ray goes through the polygon
+	 */
+	protected boolean isInside(Ray ray) {
 		Point3D p0 = ray.getP0();
 
 		// get all Vi in the polygon
@@ -117,35 +163,29 @@ public class Polygon extends Geometry {
 			vec.add(vertices.get(i).subtract(p0));
 		}
 
-		// Check if the intersection point with its plane is inside the polygon/triangle
-		List<GeoPoint> planeResult = plane.findGeoIntersections(ray, maxDistance);
-		if (planeResult != null) {
-			// signs
-			boolean sign = false;
-			// normal
-			Vector n;
-
-			for (int i = 0; i < numPoints; i++) {
-				n = vec.get(i).crossProduct(vec.get((i + 1) % numPoints)).normalize();
-				// Constraint compromise: if one or more are 0.0 no intersection
-				if (isZero(ray.getVector().dotProduct(n))) {
-					return null;
-				}
-				// The point is inside if all v . Ni have the same sign (+/-)
-				double inside = ray.getVector().dotProduct(n);
-				// dont update on the first pass through
-				if (i == 0) {
-					sign = (inside > 0);
-				} else {
-					if (sign != (inside > 0)) {
-						return null;
-					}
+		// signs
+		boolean sign = false;
+		// normal
+		Vector n;
+
+		for (int i = 0; i < numPoints; i++) {
+			n = vec.get(i).crossProduct(vec.get((i + 1) % numPoints)).normalize();
+			// Constraint compromise: if one or more are 0.0 no intersection
+			if (isZero(ray.getVector().dotProduct(n))) {
+				return false;
+			}
+			// The point is inside if all v . Ni have the same sign (+/-)
+			double inside = ray.getVector().dotProduct(n);
+			// dont update on the first pass through
+			if (i == 0) {
+				sign = (inside > 0);
+			} else {
+				if (sign != (inside > 0)) {
+					return false;
 				}
 			}
-			planeResult.get(0).geometry = this;
-			return planeResult;
 		}
-		return null;
+		return true;
 	}
 
 }
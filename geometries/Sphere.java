@@ -66,6 +66,18 @@ public class Sphere extends Geometry {
 
 	}
 
+	/**
+	 * get the box of the sphere
+	 * 
+	 * @return the box around the sphere
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		double x = this.center.getX(), y = this.center.getY(), z = this.center.getZ();
+		return new BoundingBox(x - this.radius, y - this.radius, z - this.radius, x + this.radius, y + this.radius,
+				z + this.radius);
+	}
+
 	/**
 	 * get the values of the members in sphere
 	 * 
@@ -142,4 +154,47 @@ public class Sphere extends Geometry {
 
 	}
 
+	/**
+	 * find the closest intersection point without building a list, the same
+	 * calculation as findGeoIntersections that keeps only the nearer t
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance distance
+	 * @return the closest point, null if there is none
+	 */
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		Vector u;
+		// test for zero vector
+		try {
+			// u= O-p0
+			u = this.center.subtract(ray.getP0());
+		} catch (IllegalArgumentException e) {
+			// check if ray are close to light source
+			return alignZero(this.radius - maxDistance) <= 0 ? new GeoPoint(this, ray.getPoint(this.radius)) : null;
+		}
+
+		// tm=v.u
+		double tm = alignZero(ray.getVector().dotProduct(u));
+		// d = sqr(|u|^2-tm^2)
+		double d = alignZero(Math.sqrt(u.lengthSquared() - (tm * tm)));
+		// if ( d >= r) there are no intersections
+		if ((d - this.radius) >= 0) {
+			return null;
+		}
+
+		// th=sqr(r^2-d^2)
+		double th = Math.sqrt((this.radius * this.radius) - (d * d));
+		// t1 <= t2 so t1 is taken first if it is in range
+		double t1 = alignZero(tm - th);
+		if (t1 > 0 && alignZero(maxDistance - t1) > 0) {
+			return new GeoPoint(this, ray.getPoint(t1));
+		}
+		double t2 = alignZero(tm + th);
+		if (t2 > 0 && alignZero(maxDistance - t2) > 0) {
+			return new GeoPoint(this, ray.getPoint(t2));
+		}
+		return null;
+	}
+
 }
@@ -0,0 +1,537 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import primitives.*;
+import static primitives.Util.*;
+
+/**
+ * class TriangleMesh is a set of triangles that share their vertices. The
+ * vertices and the faces are kept in primitive arrays instead of a Triangle
+ * object per face, and the faces are searched through a BVH, so a mesh can hold
+ * millions of triangles.<br/>
+ * The faces are split into groups of consecutive faces, every group has its own
+ * emission and material. A new mesh has one group with all the faces.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class TriangleMesh implements Intersectable {
+	/**
+	 * coordinates of the vertices, 3 values per vertex (x,y,z)
+	 */
+	private final double[] vertices;
+	/**
+	 * indices of the vertices of the faces, 3 values per face
+	 */
+	private final int[] indices;
+	/**
+	 * first face of every group, in increasing order
+	 */
+	private int[] groupStarts = { 0 };
+	/**
+	 * emission color of every group
+	 */
+	private Color[] emissions = { Color.BLACK };
+	/**
+	 * material of every group
+	 */
+	private Material[] materials = { new Material() };
+	/**
+	 * box of all the vertices
+	 */
+	private final BoundingBox box;
+	/**
+	 * tree over the faces, built on first use
+	 */
+	private volatile BVH bvh;
+
+	/**
+	 * constructor of a mesh, the arrays are used as they are and not copied
+	 * 
+	 * @param vertices coordinates of the vertices, 3 values per vertex (x,y,z)
+	 * @param indices  indices of the vertices of the faces, 3 values per face
+	 * @throws IllegalArgumentException if there are no faces, the arrays are not
+	 *                                  of triples or an index is not of a vertex
+	 */
+	public TriangleMesh(double[] vertices, int[] indices) {
+		if (vertices.length % 3 != 0 || indices.length % 3 != 0)
+			throw new IllegalArgumentException("vertices and faces must have 3 values each");
+		if (indices.length == 0)
+			throw new IllegalArgumentException("a mesh needs at least one face");
+		int vertexCount = vertices.length / 3;
+		for (int index : indices)
+			if (index < 0 || index >= vertexCount)
+				throw new IllegalArgumentException("face index " + index + " is not of a vertex");
+		this.vertices = vertices;
+		this.indices = indices;
+
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+		for (int index : indices) {
+			x0 = Math.min(x0, vertices[3 * index]);
+			y0 = Math.min(y0, vertices[3 * index + 1]);
+			z0 = Math.min(z0, vertices[3 * index + 2]);
+			x1 = Math.max(x1, vertices[3 * index]);
+			y1 = Math.max(y1, vertices[3 * index + 1]);
+			z1 = Math.max(z1, vertices[3 * index + 2]);
+		}
+		this.box = new BoundingBox(x0, y0, z0, x1, y1, z1);
+	}
+
+	/**
+	 * get the number of vertices
+	 * 
+	 * @return number of vertices
+	 */
+	public int getVertexCount() {
+		return this.vertices.length / 3;
+	}
+
+	/**
+	 * get the number of faces
+	 * 
+	 * @return number of faces
+	 */
+	public int getFaceCount() {
+		return this.indices.length / 3;
+	}
+
+	/**
+	 * get a vertex
+	 * 
+	 * @param index index of the vertex
+	 * @return the vertex
+	 */
+	public Point3D getVertex(int index) {
+		return new Point3D(this.vertices[3 * index], this.vertices[3 * index + 1], this.vertices[3 * index + 2]);
+	}
+
+	/**
+	 * get the indices of the vertices of a face
+	 * 
+	 * @param face index of the face
+	 * @return the 3 indices
+	 */
+	public int[] getFace(int face) {
+		return Arrays.copyOfRange(this.indices, 3 * face, 3 * face + 3);
+	}
+
+	/**
+	 * get the coordinates of the vertices, the array of the mesh itself and not a
+	 * copy
+	 * 
+	 * @return 3 values per vertex (x,y,z)
+	 */
+	public double[] getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * get the indices of the vertices of the faces, the array of the mesh itself
+	 * and not a copy
+	 * 
+	 * @return 3 values per face
+	 */
+	public int[] getIndices() {
+		return this.indices;
+	}
+
+	/**
+	 * get the number of groups of faces
+	 * 
+	 * @return number of groups
+	 */
+	public int getGroupCount() {
+		return this.groupStarts.length;
+	}
+
+	/**
+	 * get the first face of a group
+	 * 
+	 * @param group index of the group
+	 * @return first face
+	 */
+	public int getGroupStart(int group) {
+		return this.groupStarts[group];
+	}
+
+	/**
+	 * get the emission of a group
+	 * 
+	 * @param group index of the group
+	 * @return emission color
+	 */
+	public Color getGroupEmission(int group) {
+		return this.emissions[group];
+	}
+
+	/**
+	 * get the material of a group
+	 * 
+	 * @param group index of the group
+	 * @return material
+	 */
+	public Material getGroupMaterial(int group) {
+		return this.materials[group];
+	}
+
+	/**
+	 * get the tree over the faces, building it if it was not built yet
+	 * 
+	 * @return the tree
+	 */
+	public BVH getBVH() {
+		return bvh(1);
+	}
+
+	@Override
+	public void buildBVH(int threads) {
+		bvh(threads);
+	}
+
+	/**
+	 * set a tree over the faces that was built before, instead of building it on
+	 * first use
+	 * 
+	 * @param tree the tree
+	 * @return this object
+	 * @throws IllegalArgumentException if the tree is not of the faces of the mesh
+	 */
+	public TriangleMesh setBVH(BVH tree) {
+		// the leaves of a tree hold every index once
+		if (tree.getIndices().length != getFaceCount())
+			throw new IllegalArgumentException("the tree is not of the faces of the mesh");
+		this.bvh = tree;
+		return this;
+	}
+
+	/**
+	 * set the emission of the first group, that is all the faces if no group was
+	 * added
+	 * 
+	 * @param color color
+	 * @return this object
+	 */
+	public TriangleMesh setEmission(Color color) {
+		this.emissions[0] = color;
+		return this;
+	}
+
+	/**
+	 * set the material of the first group, that is all the faces if no group was
+	 * added
+	 * 
+	 * @param mat material
+	 * @return this object
+	 */
+	public TriangleMesh setMaterial(Material mat) {
+		this.materials[0] = mat;
+		return this;
+	}
+
+	/**
+	 * start a new group of faces, the group goes on up to the start of the next
+	 * group or the last face
+	 * 
+	 * @param firstFace first face of the group
+	 * @param color     emission of the group
+	 * @param mat       material of the group
+	 * @return this object
+	 * @throws IllegalArgumentException if the first face is not after the start
+	 *                                  of the last group or is not a face
+	 */
+	public TriangleMesh addGroup(int firstFace, Color color, Material mat) {
+		int groups = this.groupStarts.length;
+		if (firstFace <= this.groupStarts[groups - 1] || firstFace >= getFaceCount())
+			throw new IllegalArgumentException("a group must start after the last group and inside the mesh");
+		this.groupStarts = Arrays.copyOf(this.groupStarts, groups + 1);
+		this.emissions = Arrays.copyOf(this.emissions, groups + 1);
+		this.materials = Arrays.copyOf(this.materials, groups + 1);
+		this.groupStarts[groups] = firstFace;
+		this.emissions[groups] = color;
+		this.materials[groups] = mat;
+		return this;
+	}
+
+	/**
+	 * get the box of the vertices of the faces
+	 * 
+	 * @return the box
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return this.box;
+	}
+
+	/**
+	 * find all the intersection points of the faces
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return list of points of intersection, null if there are none
+	 */
+	@Override
+	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+		List<GeoPoint> result = new ArrayList<>();
+		bvh().traverse(ray, maxDistance, (face, distance) -> {
+			double t = findDistance(face, ray, distance);
+			if (t > 0)
+				result.add(new GeoPoint(new Face(this, face), ray.getPoint(t)));
+			return distance;
+		});
+		return result.isEmpty() ? null : result;
+	}
+
+	/**
+	 * find the closest intersection point, the BVH skips the faces that are
+	 * farther than the best face so far
+	 * 
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return the closest point, null if there is none
+	 */
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		int[] closest = { -1 };
+		double[] closestT = { 0 };
+		bvh().traverse(ray, maxDistance, (face, distance) -> {
+			double t = findDistance(face, ray, distance);
+			if (t <= 0 || t >= distance)
+				return distance;
+			closest[0] = face;
+			closestT[0] = t;
+			return t;
+		});
+		return closest[0] < 0 ? null : new GeoPoint(new Face(this, closest[0]), ray.getPoint(closestT[0]));
+	}
+
+	/**
+	 * find how much light passes through the faces, the search stops at the first
+	 * face that blocks the light
+	 * 
+	 * @param ray         ray towards the light
+	 * @param maxDistance distance of the light
+	 * @param minK        transparency below which the light is blocked
+	 * @return transparency, 0 if the light is blocked
+	 */
+	@Override
+	public double findTransparency(Ray ray, double maxDistance, double minK) {
+		double[] ktr = { 1.0 };
+		bvh().traverse(ray, maxDistance, (face, distance) -> {
+			if (findDistance(face, ray, distance) <= 0)
+				return distance;
+			ktr[0] *= this.materials[group(face)].kT;
+			return ktr[0] < minK ? -1 : distance;
+		});
+		return ktr[0] < minK ? 0.0 : ktr[0];
+	}
+
+	/**
+	 * get the tree over the faces, building it on first use
+	 * 
+	 * @return the tree
+	 */
+	private BVH bvh() {
+		return bvh(1);
+	}
+
+	/**
+	 * get the tree over the faces, building it by several threads if it was not
+	 * built yet
+	 * 
+	 * @param threads number of threads of the build
+	 * @return the tree
+	 */
+	private BVH bvh(int threads) {
+		BVH tree = this.bvh;
+		if (tree != null)
+			return tree;
+		synchronized (this) {
+			if (this.bvh == null) {
+				int faces = getFaceCount();
+				double[] bounds = new double[faces * 6];
+				for (int f = 0; f < faces; ++f) {
+					for (int axis = 0; axis < 3; ++axis) {
+						double a = vertexCoordinate(f, 0, axis);
+						double b = vertexCoordinate(f, 1, axis);
+						double c = vertexCoordinate(f, 2, axis);
+						bounds[6 * f + axis] = Math.min(a, Math.min(b, c));
+						bounds[6 * f + 3 + axis] = Math.max(a, Math.max(b, c));
+					}
+				}
+				this.bvh = BVH.build(bounds, faces, threads);
+			}
+			return this.bvh;
+		}
+	}
+
+	/**
+	 * get a coordinate of a vertex of a face
+	 * 
+	 * @param face   face index
+	 * @param vertex vertex of the face (0, 1 or 2)
+	 * @param axis   axis (0 - x, 1 - y, 2 - z)
+	 * @return the coordinate
+	 */
+	private double vertexCoordinate(int face, int vertex, int axis) {
+		return this.vertices[3 * this.indices[3 * face + vertex] + axis];
+	}
+
+	/**
+	 * find the group of a face
+	 * 
+	 * @param face face index
+	 * @return group index
+	 */
+	private int group(int face) {
+		if (this.groupStarts.length == 1)
+			return 0;
+		int group = Arrays.binarySearch(this.groupStarts, face);
+		return group >= 0 ? group : -group - 2;
+	}
+
+	/**
+	 * find the distance of the intersection point of a ray and a face, with the
+	 * Moller-Trumbore algorithm. Like in Polygon, a point on an edge or a vertex is
+	 * not an intersection
+	 * 
+	 * @param face        face index
+	 * @param ray         ray
+	 * @param maxDistance max distance
+	 * @return t of the point, or 0 if there is no point
+	 */
+	private double findDistance(int face, Ray ray, double maxDistance) {
+		int a = 3 * this.indices[3 * face], b = 3 * this.indices[3 * face + 1], c = 3 * this.indices[3 * face + 2];
+		Point3D p0 = ray.getP0();
+		Point3D dir = ray.getVector().getHead();
+		double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+		// edges from the first vertex
+		double e1x = this.vertices[b] - this.vertices[a];
+		double e1y = this.vertices[b + 1] - this.vertices[a + 1];
+		double e1z = this.vertices[b + 2] - this.vertices[a + 2];
+		double e2x = this.vertices[c] - this.vertices[a];
+		double e2y = this.vertices[c + 1] - this.vertices[a + 1];
+		double e2z = this.vertices[c + 2] - this.vertices[a + 2];
+
+		// p = dir x e2
+		double px = dy * e2z - dz * e2y;
+		double py = dz * e2x - dx * e2z;
+		double pz = dx * e2y - dy * e2x;
+		double det = e1x * px + e1y * py + e1z * pz;
+		// the ray is parallel to the face
+		if (isZero(det))
+			return 0;
+		double inv = 1 / det;
+
+		// s = p0 - first vertex
+		double sx = p0.getX() - this.vertices[a];
+		double sy = p0.getY() - this.vertices[a + 1];
+		double sz = p0.getZ() - this.vertices[a + 2];
+		double u = alignZero((sx * px + sy * py + sz * pz) * inv);
+		if (u <= 0 || alignZero(u - 1) >= 0)
+			return 0;
+
+		// q = s x e1
+		double qx = sy * e1z - sz * e1y;
+		double qy = sz * e1x - sx * e1z;
+		double qz = sx * e1y - sy * e1x;
+		double v = alignZero((dx * qx + dy * qy + dz * qz) * inv);
+		if (v <= 0 || alignZero(u + v - 1) >= 0)
+			return 0;
+
+		double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+		// take only t>0
+		if (t <= 0 || alignZero(t - maxDistance) > 0)
+			return 0;
+		return t;
+	}
+
+	/**
+	 * Face is a light weight geometry of one face of a mesh that is created for
+	 * the intersection points, it keeps only the mesh and the face index. Two
+	 * faces are equal if they are the same face of the same mesh.
+	 */
+	private static class Face extends Geometry {
+		/**
+		 * the mesh of the face
+		 */
+		private final TriangleMesh mesh;
+		/**
+		 * face index
+		 */
+		private final int face;
+
+		/**
+		 * constructor of a face
+		 * 
+		 * @param mesh the mesh
+		 * @param face face index
+		 */
+		Face(TriangleMesh mesh, int face) {
+			this.mesh = mesh;
+			this.face = face;
+		}
+
+		@Override
+		public Color getEmission() {
+			return this.mesh.emissions[this.mesh.group(this.face)];
+		}
+
+		@Override
+		public Material getMaterial() {
+			return this.mesh.materials[this.mesh.group(this.face)];
+		}
+
+		/**
+		 * get the normal of the face, with the same orientation as a Triangle of its
+		 * vertices
+		 * 
+		 * @param point point 3d
+		 * @return the normal
+		 */
+		@Override
+		public Vector getNormal(Point3D point) {
+			double e1x = this.mesh.vertexCoordinate(this.face, 1, 0) - this.mesh.vertexCoordinate(this.face, 0, 0);
+			double e1y = this.mesh.vertexCoordinate(this.face, 1, 1) - this.mesh.vertexCoordinate(this.face, 0, 1);
+			double e1z = this.mesh.vertexCoordinate(this.face, 1, 2) - this.mesh.vertexCoordinate(this.face, 0, 2);
+			double e2x = this.mesh.vertexCoordinate(this.face, 2, 0) - this.mesh.vertexCoordinate(this.face, 0, 0);
+			double e2y = this.mesh.vertexCoordinate(this.face, 2, 1) - this.mesh.vertexCoordinate(this.face, 0, 1);
+			double e2z = this.mesh.vertexCoordinate(this.face, 2, 2) - this.mesh.vertexCoordinate(this.face, 0, 2);
+			return new Vector(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x).normalize();
+		}
+
+		@Override
+		public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+			double t = this.mesh.findDistance(this.face, ray, maxDistance);
+			return t > 0 ? List.of(new GeoPoint(this, ray.getPoint(t))) : null;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Face))
+				return false;
+			Face other = (Face) obj;
+			return this.mesh == other.mesh && this.face == other.face;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.mesh) * 31 + this.face;
+		}
+
+		/**
+		 * get the face index
+		 * 
+		 * @return return a string of the members
+		 */
+		@Override
+		public String toString() {
+			return "Face " + this.face + " of a mesh";
+		}
+	}
+}
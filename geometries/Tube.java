@@ -36,6 +36,24 @@ public class Tube extends Geometry {
 		this.radius = r;
 	}
 
+	/**
+	 * get the axis of the tube
+	 * 
+	 * @return ray of the axis
+	 */
+	public Ray getAxisRay() {
+		return this.axisRay;
+	}
+
+	/**
+	 * get the radius of the tube
+	 * 
+	 * @return radius
+	 */
+	public double getRadius() {
+		return this.radius;
+	}
+
 	/**
 	 * get the normal of a tube
 	 * 
@@ -60,6 +78,16 @@ public class Tube extends Geometry {
 
 	}
 
+	/**
+	 * a tube is infinite so it has no box
+	 * 
+	 * @return null - the tube is unbounded
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		return null;
+	}
+
 	/**
 	 * get the values of the members in tube
 	 * 
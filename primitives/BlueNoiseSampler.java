@@ -0,0 +1,54 @@
+package primitives;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sampler of Sobol points that are shifted by a screen space dither mask, so
+ * the error of neighbor pixels is spread as blue noise instead of white noise
+ * and the image looks less grainy with few samples. The mask is the R2
+ * sequence of Roberts over the pixels, a cheap mask with blue noise
+ * properties that does not need a precomputed texture.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class BlueNoiseSampler extends SobolSampler {
+	/**
+	 * 1 / g and 1 / g^2 where g is the plastic number, the steps of the R2
+	 * sequence
+	 */
+	private static final double A1 = 0.7548776662466927, A2 = 0.5698402909980532;
+	/**
+	 * the fraction of the golden ratio
+	 */
+	private static final double GOLDEN = 0.6180339887498949;
+
+	/**
+	 * constructor of a blue noise sampler
+	 * 
+	 * @param seed the seed
+	 */
+	public BlueNoiseSampler(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void startPixel(int x, int y, int pass) {
+		super.startPixel(x, y, pass);
+		// the same scrambling for all the pixels, only the mask tells them apart
+		SplittableRandom random = new SplittableRandom(this.seed);
+		this.scrambleX = random.nextInt();
+		this.scrambleY = random.nextInt();
+		// every pass moves the mask by the golden ratio, so the passes of a pixel
+		// are spread too
+		double mask = x * A1 + y * A2 + pass * GOLDEN;
+		this.shiftX = mask - Math.floor(mask);
+		mask = 0.5 + x * A2 + y * A1 + pass * GOLDEN;
+		this.shiftY = mask - Math.floor(mask);
+	}
+
+	@Override
+	public Sampler copy() {
+		return new BlueNoiseSampler(this.seed);
+	}
+}
@@ -1,5 +1,7 @@
 package primitives;
 
+import static primitives.Util.*;
+
 /**
  * Point3D (point in space) - a fundamental object in geometry - a point with 3
  * coordinates
@@ -9,11 +11,13 @@ package primitives;
  */
 public class Point3D {
 	/**
-	 * coordinates of a point in 3D space represented by 3 points of the x y z axis
+	 * coordinates of a point in 3D space represented by 3 points of the x y z axis,
+	 * kept as plain doubles (and not Coordinate objects) so that a new point is one
+	 * allocation
 	 */
-	final Coordinate x;
-	final Coordinate y;
-	final Coordinate z;
+	final double x;
+	final double y;
+	final double z;
 
 	/**
 	 * Zero static constant containing a period (0,0,0)
@@ -28,9 +32,9 @@ public class Point3D {
 	 * @param z third coordinate
 	 */
 	public Point3D(Coordinate x, Coordinate y, Coordinate z) {
-		this.x = x;
-		this.y = y;
-		this.z = z;
+		this.x = x.coord;
+		this.y = y.coord;
+		this.z = z.coord;
 	}
 
 	/**
@@ -41,9 +45,10 @@ public class Point3D {
 	 * @param z third coordinate
 	 */
 	public Point3D(double x, double y, double z) {
-		this.x = new Coordinate(x);
-		this.y = new Coordinate(y);
-		this.z = new Coordinate(z);
+		// if it too close to zero make it zero, as Coordinate does
+		this.x = alignZero(x);
+		this.y = alignZero(y);
+		this.z = alignZero(z);
 	}
 
 	/**
@@ -52,7 +57,7 @@ public class Point3D {
 	 * @return x value
 	 */
 	public double getX() {
-		return this.x.coord;
+		return this.x;
 	}
 
 	/**
@@ -61,7 +66,7 @@ public class Point3D {
 	 * @return y value
 	 */
 	public double getY() {
-		return this.y.coord;
+		return this.y;
 	}
 
 	/**
@@ -70,7 +75,7 @@ public class Point3D {
 	 * @return z value
 	 */
 	public double getZ() {
-		return this.z.coord;
+		return this.z;
 	}
 
 	/**
@@ -80,8 +85,8 @@ public class Point3D {
 	 * @return a new point
 	 */
 	public Point3D add(Vector vec) {
-		return new Point3D((this.x.coord + vec.getHead().x.coord), (this.y.coord + vec.getHead().y.coord),
-				(this.z.coord + vec.getHead().z.coord));
+		Point3D head = vec.getHead();
+		return new Point3D((this.x + head.x), (this.y + head.y), (this.z + head.z));
 
 	}
 
@@ -93,8 +98,7 @@ public class Point3D {
 	 *         performed
 	 */
 	public Vector subtract(Point3D point) {
-		return new Vector((this.x.coord - point.x.coord), (this.y.coord - point.y.coord),
-				(this.z.coord - point.z.coord));
+		return new Vector((this.x - point.x), (this.y - point.y), (this.z - point.z));
 
 	}
 
@@ -105,9 +109,10 @@ public class Point3D {
 	 * @return the result
 	 */
 	public double distanceSquared(Point3D point) {
-		return (((this.x.coord - point.x.coord) * (this.x.coord - point.x.coord))
-				+ ((this.y.coord - point.y.coord) * (this.y.coord - point.y.coord))
-				+ ((this.z.coord - point.z.coord) * (this.z.coord - point.z.coord)));
+		double dx = this.x - point.x;
+		double dy = this.y - point.y;
+		double dz = this.z - point.z;
+		return dx * dx + dy * dy + dz * dz;
 
 	}
 
@@ -135,7 +140,7 @@ public class Point3D {
 		if (!(obj instanceof Point3D))
 			return false;
 		Point3D other = (Point3D) obj;
-		return this.x.equals(other.x) && this.y.equals(other.y) && this.z.equals(other.z);
+		return isZero(this.x - other.x) && isZero(this.y - other.y) && isZero(this.z - other.z);
 	}
 
 	/**
@@ -145,7 +150,7 @@ public class Point3D {
 	 */
 	@Override
 	public String toString() {
-		return "(" + this.x.toString() + "," + this.y.toString() + "," + this.z.toString() + ")";
+		return "(" + this.x + "," + this.y + "," + this.z + ")";
 	}
 
 }
@@ -0,0 +1,42 @@
+package primitives;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sampler of independent random numbers, every pixel has its own
+ * SplittableRandom stream
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class RandomSampler extends Sampler {
+	/**
+	 * generator of the current pixel
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * constructor of a random sampler
+	 * 
+	 * @param seed the seed
+	 */
+	public RandomSampler(long seed) {
+		super(seed);
+		this.random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public void startPixel(int x, int y, int pass) {
+		this.random = new SplittableRandom(pixelSeed(x, y, pass));
+	}
+
+	@Override
+	public double next() {
+		return this.random.nextDouble();
+	}
+
+	@Override
+	public Sampler copy() {
+		return new RandomSampler(this.seed);
+	}
+}
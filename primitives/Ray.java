@@ -40,6 +40,20 @@ public class Ray {
 		this.p0 = point;
 	}
 
+	/**
+	 * constructor of a ray whose direction is already normalized, as the
+	 * directions of a camera raster, the direction is used as it is
+	 * 
+	 * @param point point
+	 * @param x     x of the normalized direction
+	 * @param y     y of the normalized direction
+	 * @param z     z of the normalized direction
+	 */
+	public Ray(Point3D point, double x, double y, double z) {
+		this.dir = new Vector(x, y, z);
+		this.p0 = point;
+	}
+
 	/**
 	 * constructor that take in coordinates
 	 * 
@@ -179,15 +193,14 @@ public class Ray {
 	}
 
 	/**
-	 * get random number
+	 * get random number from the sampler of the current thread
 	 * 
 	 * @param min min number
 	 * @param max max number
 	 * @return random number[min, max)
 	 */
 	public static double randomNumber(double min, double max) {
-		double random = Math.random() * (max - min) + min;
-		return random;
+		return Sampler.current().next(min, max);
 	}
 
 	/**
@@ -0,0 +1,127 @@
+package primitives;
+
+/**
+ * Sampler is the source of the random numbers of the ray tracer. Every render
+ * thread owns its own sampler, so the threads do not share a generator, and
+ * the sampler is restarted at every pixel from the seed and the pixel, so a
+ * pixel gets the same numbers whatever thread renders it and whatever the
+ * order of the pixels is. Samplers other than the plain random one spread the
+ * numbers of a pixel evenly: every two numbers are treated as a point of the
+ * unit square, and the points of a pixel cover the square.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public abstract class Sampler {
+	/**
+	 * the sampler of every thread, threads that were not given a sampler get a
+	 * random sampler with seed 0
+	 */
+	private static final ThreadLocal<Sampler> CURRENT = ThreadLocal.withInitial(() -> new RandomSampler(0));
+
+	/**
+	 * the seed of the sampler
+	 */
+	protected final long seed;
+
+	/**
+	 * constructor of a sampler
+	 * 
+	 * @param seed the seed
+	 */
+	protected Sampler(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * get the sampler of the current thread
+	 * 
+	 * @return the sampler
+	 */
+	public static Sampler current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * set the sampler of the current thread
+	 * 
+	 * @param sampler the sampler
+	 */
+	public static void setCurrent(Sampler sampler) {
+		CURRENT.set(sampler);
+	}
+
+	/**
+	 * get the seed of the sampler
+	 * 
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * restart the sampler at a pixel, the numbers that follow depend only on the
+	 * seed and the pixel
+	 * 
+	 * @param x column of the pixel
+	 * @param y row of the pixel
+	 */
+	public void startPixel(int x, int y) {
+		startPixel(x, y, 0);
+	}
+
+	/**
+	 * restart the sampler at a pass of a pixel, for images that are rendered in
+	 * several passes. The numbers that follow depend only on the seed, the pixel
+	 * and the pass.
+	 * 
+	 * @param x    column of the pixel
+	 * @param y    row of the pixel
+	 * @param pass the pass, pass 0 is the same as {@link #startPixel(int, int)}
+	 */
+	public abstract void startPixel(int x, int y, int pass);
+
+	/**
+	 * get the next number of the pixel
+	 * 
+	 * @return number in [0, 1)
+	 */
+	public abstract double next();
+
+	/**
+	 * get the next number of the pixel in a range
+	 * 
+	 * @param min min number
+	 * @param max max number
+	 * @return number in [min, max)
+	 */
+	public double next(double min, double max) {
+		return next() * (max - min) + min;
+	}
+
+	/**
+	 * create a new sampler of the same kind and seed, for another thread
+	 * 
+	 * @return the new sampler
+	 */
+	public abstract Sampler copy();
+
+	/**
+	 * mix the seed and a pass of a pixel into the seed of the generator of the
+	 * pixel
+	 * 
+	 * @param x    column of the pixel
+	 * @param y    row of the pixel
+	 * @param pass the pass
+	 * @return seed of the pixel
+	 */
+	protected long pixelSeed(int x, int y, int pass) {
+		long z = this.seed * 0x9E3779B97F4A7C15L + (((long) y << 32) | (x & 0xFFFFFFFFL))
+				+ pass * 0xD1B54A32D192ED03L;
+		// the finalizer of MurmurHash3
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+}
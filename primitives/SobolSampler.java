@@ -0,0 +1,114 @@
+package primitives;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sampler of the points of the two dimensional Sobol sequence. Any amount of
+ * first points of the sequence that is a power of 2 covers the unit square
+ * evenly. The bits of the points are scrambled per pixel, so neighbor pixels
+ * do not use the same points.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class SobolSampler extends Sampler {
+	/**
+	 * scale of 32 bits to [0, 1)
+	 */
+	private static final double BITS_TO_DOUBLE = 1d / (1L << 32);
+
+	/**
+	 * bits that are flipped in the x of the points
+	 */
+	protected int scrambleX;
+	/**
+	 * bits that are flipped in the y of the points
+	 */
+	protected int scrambleY;
+	/**
+	 * shift of the x of the points, modulo 1
+	 */
+	protected double shiftX;
+	/**
+	 * shift of the y of the points, modulo 1
+	 */
+	protected double shiftY;
+	/**
+	 * index of the next point
+	 */
+	private int point;
+	/**
+	 * y of the current point, if the x of it was already returned
+	 */
+	private double pending = -1;
+
+	/**
+	 * constructor of a Sobol sampler
+	 * 
+	 * @param seed the seed
+	 */
+	public SobolSampler(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void startPixel(int x, int y, int pass) {
+		SplittableRandom random = new SplittableRandom(pixelSeed(x, y, pass));
+		this.scrambleX = random.nextInt();
+		this.scrambleY = random.nextInt();
+		this.point = 0;
+		this.pending = -1;
+	}
+
+	@Override
+	public double next() {
+		if (this.pending >= 0) {
+			double y = this.pending;
+			this.pending = -1;
+			return y;
+		}
+		int index = this.point++;
+		this.pending = wrap(toDouble(sobolY(index) ^ this.scrambleY) + this.shiftY);
+		return wrap(toDouble(Integer.reverse(index) ^ this.scrambleX) + this.shiftX);
+	}
+
+	/**
+	 * get the y of a point of the Sobol sequence, the x is the index with its bits
+	 * reversed
+	 * 
+	 * @param index index of the point
+	 * @return the y as 32 bits fraction
+	 */
+	private static int sobolY(int index) {
+		int result = 0;
+		for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1)
+			if ((index & 1) != 0)
+				result ^= v;
+		return result;
+	}
+
+	/**
+	 * convert a 32 bits fraction to a double
+	 * 
+	 * @param bits the fraction
+	 * @return number in [0, 1)
+	 */
+	private static double toDouble(int bits) {
+		return (bits & 0xFFFFFFFFL) * BITS_TO_DOUBLE;
+	}
+
+	/**
+	 * wrap a number to [0, 1)
+	 * 
+	 * @param number number in [0, 2)
+	 * @return the fraction of the number
+	 */
+	private static double wrap(double number) {
+		return number >= 1 ? number - 1 : number;
+	}
+
+	@Override
+	public Sampler copy() {
+		return new SobolSampler(this.seed);
+	}
+}
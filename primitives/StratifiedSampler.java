@@ -0,0 +1,90 @@
+package primitives;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sampler of jittered points: the unit square is cut into a grid of cells and
+ * every point of a pixel is a random point in the next cell. The cells are
+ * visited in a random order that is shuffled again at every pass over the
+ * grid.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class StratifiedSampler extends Sampler {
+	/**
+	 * cells in a row of the grid
+	 */
+	private final int size;
+	/**
+	 * order of the cells in the current pass
+	 */
+	private final int[] cells;
+	/**
+	 * generator of the current pixel
+	 */
+	private SplittableRandom random;
+	/**
+	 * index of the next point in the pass
+	 */
+	private int point;
+	/**
+	 * y of the current point, if the x of it was already returned
+	 */
+	private double pending = -1;
+
+	/**
+	 * constructor of a stratified sampler
+	 * 
+	 * @param seed    the seed
+	 * @param samples amount of points of a pass, rounded up to a square number
+	 * @throws IllegalArgumentException if the amount is not positive
+	 */
+	public StratifiedSampler(long seed, int samples) {
+		super(seed);
+		if (samples < 1)
+			throw new IllegalArgumentException("amount of samples must be positive");
+		this.size = (int) Math.ceil(Math.sqrt(samples));
+		this.cells = new int[this.size * this.size];
+		this.random = new SplittableRandom(seed);
+		this.point = this.cells.length;
+	}
+
+	@Override
+	public void startPixel(int x, int y, int pass) {
+		this.random = new SplittableRandom(pixelSeed(x, y, pass));
+		this.point = this.cells.length;
+		this.pending = -1;
+	}
+
+	@Override
+	public double next() {
+		if (this.pending >= 0) {
+			double y = this.pending;
+			this.pending = -1;
+			return y;
+		}
+		if (this.point == this.cells.length)
+			shuffle();
+		int cell = this.cells[this.point++];
+		this.pending = (cell / this.size + this.random.nextDouble()) / this.size;
+		return (cell % this.size + this.random.nextDouble()) / this.size;
+	}
+
+	/**
+	 * start a pass over the grid in a new random order
+	 */
+	private void shuffle() {
+		for (int i = 0; i < this.cells.length; ++i) {
+			int j = this.random.nextInt(i + 1);
+			this.cells[i] = this.cells[j];
+			this.cells[j] = i;
+		}
+		this.point = 0;
+	}
+
+	@Override
+	public Sampler copy() {
+		return new StratifiedSampler(this.seed, this.cells.length);
+	}
+}
@@ -59,14 +59,15 @@ public abstract class Util {
     }
 
     /**
-     * Provide a real random number in range between min and max
+     * Provide a real random number in range between min and max, from the sampler
+     * of the current thread
      * 
      * @param min min
      * @param max max
      * @return the random value
      */
     public static double random(double min, double max) {
-        return Math.random() * (max - min) + min;
+        return Sampler.current().next(min, max);
     }
 
 }
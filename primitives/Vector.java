@@ -77,8 +77,7 @@ public class Vector {
 	 * @return new vector
 	 */
 	public Vector add(Vector vec) {
-		return new Vector((this.head.x.coord + vec.head.x.coord), (this.head.y.coord + vec.head.y.coord),
-				(this.head.z.coord + vec.head.z.coord));
+		return new Vector((this.head.x + vec.head.x), (this.head.y + vec.head.y), (this.head.z + vec.head.z));
 
 	}
 
@@ -89,8 +88,7 @@ public class Vector {
 	 * @return new vector
 	 */
 	public Vector subtract(Vector vec) {
-		return new Vector((this.head.x.coord - vec.head.x.coord), (this.head.y.coord - vec.head.y.coord),
-				(this.head.z.coord - vec.head.z.coord));
+		return new Vector((this.head.x - vec.head.x), (this.head.y - vec.head.y), (this.head.z - vec.head.z));
 
 	}
 
@@ -101,7 +99,7 @@ public class Vector {
 	 * @return new vector
 	 */
 	public Vector scale(double d) {
-		return new Vector((this.head.x.coord * d), (this.head.y.coord * d), (this.head.z.coord * d));
+		return new Vector((this.head.x * d), (this.head.y * d), (this.head.z * d));
 
 	}
 
@@ -113,9 +111,9 @@ public class Vector {
 	 */
 	public Vector crossProduct(Vector vec) {
 		double tempX, tempY, tempZ;
-		tempX = ((this.head.y.coord * vec.head.z.coord) - (this.head.z.coord * vec.head.y.coord));
-		tempY = ((this.head.z.coord * vec.head.x.coord) - (this.head.x.coord * vec.head.z.coord));
-		tempZ = ((this.head.x.coord * vec.head.y.coord) - (this.head.y.coord * vec.head.x.coord));
+		tempX = ((this.head.y * vec.head.z) - (this.head.z * vec.head.y));
+		tempY = ((this.head.z * vec.head.x) - (this.head.x * vec.head.z));
+		tempZ = ((this.head.x * vec.head.y) - (this.head.y * vec.head.x));
 		return new Vector(tempX, tempY, tempZ);
 
 	}
@@ -127,8 +125,7 @@ public class Vector {
 	 * @return the result
 	 */
 	public double dotProduct(Vector vec) {
-		return ((this.head.x.coord * vec.head.x.coord) + (this.head.y.coord * vec.head.y.coord)
-				+ (this.head.z.coord * vec.head.z.coord));
+		return ((this.head.x * vec.head.x) + (this.head.y * vec.head.y) + (this.head.z * vec.head.z));
 
 	}
 
@@ -138,8 +135,7 @@ public class Vector {
 	 * @return the result
 	 */
 	public double lengthSquared() {
-		return ((this.head.x.coord * this.head.x.coord) + (this.head.y.coord * this.head.y.coord)
-				+ (this.head.z.coord * this.head.z.coord));
+		return ((this.head.x * this.head.x) + (this.head.y * this.head.y) + (this.head.z * this.head.z));
 	}
 
 	/**
@@ -157,7 +153,8 @@ public class Vector {
 	 * @return the result
 	 */
 	public Vector normalize() {
-		this.head = this.scale(1 / this.length()).head;
+		double d = 1 / this.length();
+		this.head = new Point3D(this.head.x * d, this.head.y * d, this.head.z * d);
 		return this;
 	}
 
@@ -167,10 +164,32 @@ public class Vector {
 	 * @return the result
 	 */
 	public Vector normalized() {
-		Vector vec = new Vector(this.head.x, this.head.y, this.head.z);
+		// the head is immutable, so the new vector can start with it
+		Vector vec = new Vector(this.head);
 		return vec.normalize();
 	}
 
+	/**
+	 * build a vector from its coordinates in an orthonormal basis around this
+	 * vector, this vector is the z axis of the basis
+	 * 
+	 * @param x coordinate across this vector
+	 * @param y second coordinate across this vector
+	 * @param z coordinate along this vector
+	 * @return the vector, a unit vector if this vector and the coordinates are
+	 *         unit
+	 */
+	public Vector fromBasis(double x, double y, double z) {
+		double aX = this.head.x, aY = this.head.y, aZ = this.head.z;
+		// basis of Duff et al. without branches on the smallest coordinate
+		double sign = Math.copySign(1, aZ);
+		double a = -1 / (sign + aZ);
+		double b = aX * aY * a;
+		double tX = 1 + sign * aX * aX * a, tY = sign * b, tZ = -sign * aX;
+		double bX = b, bY = sign + aY * aY * a, bZ = -aY;
+		return new Vector(x * tX + y * bX + z * aX, x * tY + y * bY + z * aY, x * tZ + y * bZ + z * aZ);
+	}
+
 	/**
 	 * get normal to vector
 	 * 
@@ -178,31 +197,31 @@ public class Vector {
 	 */
 	public Vector getNormalToVector() {
 		double coordinate;
-		if (this.head.x.coord > 0) {
-			coordinate = this.head.x.coord;
+		if (this.head.x > 0) {
+			coordinate = this.head.x;
 		} else {
-			coordinate = -this.head.x.coord;
+			coordinate = -this.head.x;
 		}
-		if (Math.abs(this.head.y.coord) < coordinate) {
+		if (Math.abs(this.head.y) < coordinate) {
 			coordinate = 1;
-			if (this.head.y.coord > 0) {
-				coordinate = this.head.y.coord;
+			if (this.head.y > 0) {
+				coordinate = this.head.y;
 			} else {
-				coordinate = -this.head.y.coord;
+				coordinate = -this.head.y;
 			}
 		}
-		if (Math.abs(this.head.z.coord) < coordinate) {
+		if (Math.abs(this.head.z) < coordinate) {
 			coordinate = 2;
 		}
 		// check if x is the smallest
 		if (coordinate == 0) {
-			return new Vector(0, -this.head.z.coord, this.head.y.coord).normalize();
+			return new Vector(0, -this.head.z, this.head.y).normalize();
 			// check if y is the smallest
 		} else if (coordinate == 1)// y is the the smallest
-			return new Vector(-this.head.z.coord, 0, this.head.x.coord).normalize();
+			return new Vector(-this.head.z, 0, this.head.x).normalize();
 		// else z is the smallest
 		else {
-			return new Vector(this.head.y.coord, -this.head.x.coord, 0).normalize();
+			return new Vector(this.head.y, -this.head.x, 0).normalize();
 		}
 	}
 
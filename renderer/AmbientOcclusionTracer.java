@@ -0,0 +1,158 @@
+package renderer;
+
+import java.util.Properties;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Color;
+import primitives.Ray;
+import primitives.Sampler;
+import primitives.Vector;
+import scene.Scene;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Ambient occlusion: the visibility of a point is the part of its hemisphere
+ * that is open up to a short distance. Rays are sent in directions of the
+ * hemisphere of the normal, by cosine, and each ray is an any-hit query of the
+ * geometries up to the distance, so a ray is much cheaper than a ray of the
+ * full lighting and the search stops at the first opaque object. Transparent
+ * objects occlude by 1 - kT, like shadows.<br>
+ * As a ray tracer it renders the ambient occlusion pass: a gray image of the
+ * visibility, white where nothing is near. The Whitted ray tracer uses it to
+ * scale the ambient light of a point.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class AmbientOcclusionTracer extends RayTracerBase {
+	/**
+	 * default amount of occlusion rays of a point
+	 */
+	private static final int SAMPLES = 16;
+	/**
+	 * min transparency of an occlusion ray
+	 */
+	private static final double MIN_TRANSPARENCY = 0.001;
+	/**
+	 * color of a point that nothing occludes
+	 */
+	private static final Color WHITE = new Color(java.awt.Color.WHITE);
+	/**
+	 * amount of occlusion rays of a point
+	 */
+	private volatile int samples = SAMPLES;
+	/**
+	 * max distance of an occluding object
+	 */
+	private double distance;
+
+	/**
+	 * constructor of ambient occlusion up to a distance
+	 * 
+	 * @param scene    scene
+	 * @param distance max distance of an occluding object
+	 */
+	public AmbientOcclusionTracer(Scene scene, double distance) {
+		super(scene);
+		setDistance(distance);
+	}
+
+	/**
+	 * set the amount of occlusion rays of a point
+	 * 
+	 * @param n amount of rays
+	 */
+	public void setSamples(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("need at least one ray");
+		this.samples = n;
+	}
+
+	/**
+	 * get the amount of occlusion rays of a point
+	 * 
+	 * @return amount of rays
+	 */
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * set the max distance of an occluding object
+	 * 
+	 * @param d distance
+	 */
+	public void setDistance(double d) {
+		if (d <= 0)
+			throw new IllegalArgumentException("distance must be positive");
+		this.distance = d;
+	}
+
+	/**
+	 * lower the quality: the occlusion rays are halved down to a single ray
+	 * 
+	 * @return false if the quality is already the lowest
+	 */
+	@Override
+	public boolean degradeQuality() {
+		if (this.samples > 1) {
+			this.samples = (this.samples + 1) / 2;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void addQuality(Properties properties) {
+		properties.setProperty("tracer.aoSamples", Integer.toString(this.samples));
+		properties.setProperty("tracer.aoDistance", Double.toString(this.distance));
+	}
+
+	/**
+	 * get the visibility of the closest point of the ray as a gray color
+	 * 
+	 * @param ray ray
+	 * @return color of the ray
+	 */
+	@Override
+	public Color traceRay(Ray ray) {
+		countRays(1);
+		GeoPoint closestPoint = this.scene.geometries.findClosestGeoIntersection(ray);
+		setPrimaryHit(closestPoint);
+		return closestPoint == null ? Color.BLACK : WHITE.scale(calcVisibility(closestPoint, ray));
+	}
+
+	/**
+	 * calculate the visibility of a point: the average transparency of the
+	 * occlusion rays on the side of the surface that the ray comes from
+	 * 
+	 * @param geoPoint the point
+	 * @param ray      the ray that hit the point
+	 * @return visibility, 1 if nothing is nearer than the distance and 0 if the
+	 *         point is closed
+	 */
+	public double calcVisibility(GeoPoint geoPoint, Ray ray) {
+		Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+		double nv = alignZero(n.dotProduct(ray.getVector()));
+		if (isZero(nv))
+			return 1;
+		// the normal faces the side that the ray comes from
+		if (nv > 0)
+			n = n.scale(-1);
+		Sampler sampler = Sampler.current();
+		int count = this.samples;
+		double visibility = 0;
+		for (int i = 0; i < count; ++i) {
+			// cosine weighted direction
+			double u1 = sampler.next();
+			double phi = 2 * Math.PI * sampler.next();
+			double sin = Math.sqrt(u1);
+			Vector direction = n.fromBasis(sin * Math.cos(phi), sin * Math.sin(phi), Math.sqrt(1 - u1));
+			Ray occlusionRay = new Ray(geoPoint.point, direction, n);
+			visibility += this.scene.geometries.findTransparency(occlusionRay, this.distance, MIN_TRANSPARENCY);
+		}
+		return visibility / count;
+	}
+}
@@ -0,0 +1,40 @@
+package renderer;
+
+/**
+ * Arbitrary output variables: buffers of the image that are written in the
+ * same traversal as the colors of the pixels, for compositing. Every buffer is
+ * written into its own image writer, from the closest point of the ray through
+ * the center of the pixel, and a pixel whose ray misses is black. The values are
+ * kept as floats, so they can be exported exactly by
+ * {@link ImageWriter#writeToPfm()}.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public enum Aov {
+	/**
+	 * distance of the point from the camera, in red, green and blue
+	 */
+	DEPTH,
+	/**
+	 * normal of the geometry at the point, x, y and z from -1..1 to 0..255 in red,
+	 * green and blue
+	 */
+	NORMAL,
+	/**
+	 * emission of the geometry, the base color of the geometry
+	 */
+	ALBEDO,
+	/**
+	 * id of the material as a color: materials with the same coefficients have
+	 * the same color
+	 */
+	MATERIAL_ID,
+	/**
+	 * amount of rays that were traced for the pixel, all the rays of the pixel
+	 * and not only the ray through its center. The pixel with the most rays is
+	 * white
+	 */
+	RAY_COUNT
+}
@@ -2,8 +2,17 @@ package renderer;
 
 import primitives.Color;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,7 +22,10 @@ import javax.imageio.*;
  * Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution<br/>
+ * The pixels are kept in a float array without the upper limit of 255, and they
+ * are converted to 8 bits only when the image is written. Threads that write
+ * different pixels do not lock anything.
  * 
  * @author Dan
  */
@@ -24,7 +36,10 @@ public class ImageWriter {
 	private static final String FOLDER_PATH = System.getProperty("user.home")
 			+ "\\Documents\\GitHub\\ISE-Mini-Project\\Hw9\\images";
 
-	private BufferedImage image;
+	/**
+	 * the pixel color matrix, 3 values (red, green, blue) per pixel, row by row
+	 */
+	private final float[] pixels;
 	private String imageName;
 
 	private Logger logger = Logger.getLogger("ImageWriter");
@@ -42,7 +57,7 @@ public class ImageWriter {
 		this.nX = nX;
 		this.nY = nY;
 
-		image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+		pixels = new float[3 * nX * nY];
 	}
 
 	// ***************** Getters/Setters ********************** //
@@ -71,6 +86,13 @@ public class ImageWriter {
 	 * to pixel color matrix in the directory of the project
 	 */
 	public void writeToImage() {
+		BufferedImage image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < nY; ++y) {
+			for (int x = 0; x < nX; ++x) {
+				int i = 3 * (y * nX + x);
+				image.setRGB(x, y, (toByte(pixels[i]) << 16) | (toByte(pixels[i + 1]) << 8) | toByte(pixels[i + 2]));
+			}
+		}
 		try {
 			File file = new File(FOLDER_PATH + '/' + imageName + ".png");
 			ImageIO.write(image, "png", file);
@@ -79,6 +101,52 @@ public class ImageWriter {
 		}
 	}
 
+	/**
+	 * Function writeToPfm produces a pfm file of the pixel color matrix in the
+	 * directory of the project, the floats of the pixels are written without the
+	 * upper limit of 255, for output variables like the depth
+	 */
+	public void writeToPfm() {
+		try (OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(FOLDER_PATH + '/' + imageName + ".pfm"))) {
+			writePfm(out);
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "I/O error", e);
+		}
+	}
+
+	/**
+	 * write the pixel color matrix in the portable float map format: a header of
+	 * the resolution and a negative scale for little endian floats, and then the
+	 * rows from the bottom row up
+	 * 
+	 * @param out the stream to write to
+	 * @throws IOException if the stream fails
+	 */
+	public void writePfm(OutputStream out) throws IOException {
+		out.write(("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII));
+		ByteBuffer row = ByteBuffer.allocate(12 * nX).order(ByteOrder.LITTLE_ENDIAN);
+		for (int y = nY - 1; y >= 0; --y) {
+			row.clear();
+			row.asFloatBuffer().put(pixels, 3 * y * nX, 3 * nX);
+			out.write(row.array());
+		}
+	}
+
+	/**
+	 * Function writeProperties writes properties of the image, like the quality
+	 * it was rendered in, to a properties file next to the png file
+	 * 
+	 * @param properties the properties
+	 */
+	public void writeProperties(Properties properties) {
+		try (Writer writer = new FileWriter(FOLDER_PATH + '/' + imageName + ".properties")) {
+			properties.store(writer, imageName);
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "I/O error", e);
+		}
+	}
+
 	/**
 	 * The function writePixel writes a color of a specific pixel into pixel color
 	 * matrix
@@ -88,7 +156,64 @@ public class ImageWriter {
 	 * @param color  final color of the pixel
 	 */
 	public void writePixel(int xIndex, int yIndex, Color color) {
-		image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+		int i = 3 * (yIndex * nX + xIndex);
+		pixels[i] = toFloat(color.getRed());
+		pixels[i + 1] = toFloat(color.getGreen());
+		pixels[i + 2] = toFloat(color.getBlue());
+	}
+
+	/**
+	 * The function addPixel adds a color to the color of a specific pixel, it is
+	 * used to accumulate several samples of a pixel. A pixel must not be added by
+	 * two threads at the same time
+	 * 
+	 * @param xIndex X axis index of the pixel
+	 * @param yIndex Y axis index of the pixel
+	 * @param color  color to add
+	 */
+	public void addPixel(int xIndex, int yIndex, Color color) {
+		int i = 3 * (yIndex * nX + xIndex);
+		pixels[i] += (float) color.getRed();
+		pixels[i + 1] += (float) color.getGreen();
+		pixels[i + 2] += (float) color.getBlue();
+	}
+
+	/**
+	 * The function getPixel reads the color of a specific pixel, without the upper
+	 * limit of 255
+	 * 
+	 * @param xIndex X axis index of the pixel
+	 * @param yIndex Y axis index of the pixel
+	 * @return color of the pixel
+	 */
+	public Color getPixel(int xIndex, int yIndex) {
+		int i = 3 * (yIndex * nX + xIndex);
+		return new Color(pixels[i], pixels[i + 1], pixels[i + 2]);
+	}
+
+	/**
+	 * convert a color component to a float, rounded down so that a component just
+	 * below a whole number is not rounded up to it - the 8 bits of the pixel are
+	 * the same as the 8 bits of the color
+	 * 
+	 * @param component color component
+	 * @return the nearest float that is not bigger than the component
+	 */
+	private static float toFloat(double component) {
+		float f = (float) component;
+		return f > component ? Math.nextDown(f) : f;
+	}
+
+	/**
+	 * convert a color component to 8 bits, like Color.getColor does - the fraction
+	 * is dropped and any component bigger than 255 is set to 255
+	 * 
+	 * @param component color component
+	 * @return the component in 0..255
+	 */
+	private static int toByte(float component) {
+		int i = (int) component;
+		return i > 255 ? 255 : i;
 	}
 
 }
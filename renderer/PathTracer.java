@@ -0,0 +1,335 @@
+package renderer;
+
+import java.util.Properties;
+
+import elements.LightSource;
+import geometries.Intersectable.GeoPoint;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Sampler;
+import primitives.Vector;
+import scene.Scene;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Monte Carlo path tracer: every sample of a pixel follows one path of
+ * bounces through the scene, so light that bounces between diffuse surfaces
+ * (indirect light) is found, which the Whitted ray tracer cannot do.<br>
+ * The coefficients of the material are the lobes of the surface: kD is a
+ * Lambertian lobe, kS is an energy normalized Phong lobe of nShininess around
+ * the mirror direction, kR is a perfect mirror and kT lets the ray go straight
+ * through like the refracted ray of the Whitted ray tracer. At every bounce
+ * the light sources are sampled with a shadow ray (next event estimation) and
+ * then one lobe is chosen by its coefficient to continue the path. Diffuse
+ * directions are sampled by cosine and glossy ones by the Phong lobe, the two
+ * are combined by multiple importance sampling with the balance heuristic.
+ * Point, spot and directional lights cannot be hit by a path, so sampling the
+ * lights directly is their only technique and gets the full weight. The
+ * emission of a geometry is added at every hit, so emitting geometries light
+ * the scene too, and the ambient light is added once like the Whitted ray
+ * tracer. A light source gives the same diffuse light as in the Whitted ray
+ * tracer.<br>
+ * Long paths are ended by Russian roulette on the throughput of the path, the
+ * survivors are weighted by 1 / probability so the color stays unbiased.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class PathTracer extends RayTracerBase {
+	/**
+	 * default max amount of bounces of a path
+	 */
+	private static final int MAX_DEPTH = 10;
+	/**
+	 * default bounce from which Russian roulette is played
+	 */
+	private static final int ROULETTE_DEPTH = 3;
+	/**
+	 * lowest survival probability of Russian roulette, so survivors are not
+	 * weighted too much
+	 */
+	private static final double MIN_SURVIVAL = 0.05;
+	/**
+	 * min transparency of a shadow ray
+	 */
+	private static final double MIN_TRANSPARENCY = 0.001;
+	/**
+	 * amount of paths of every traced ray
+	 */
+	private volatile int samples = 1;
+	/**
+	 * max amount of bounces of a path
+	 */
+	private volatile int maxDepth = MAX_DEPTH;
+	/**
+	 * bounce from which Russian roulette is played, 0 for no Russian roulette
+	 */
+	private int rouletteDepth = ROULETTE_DEPTH;
+
+	/**
+	 * constructor that receives a scene
+	 * 
+	 * @param scene scene
+	 */
+	public PathTracer(Scene scene) {
+		super(scene);
+	}
+
+	/**
+	 * set the amount of paths that are averaged for every traced ray, more paths
+	 * per pixel are also given by anti-aliasing or progressive rendering
+	 * 
+	 * @param n amount of paths
+	 */
+	public void setSamples(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("need at least one path");
+		this.samples = n;
+	}
+
+	/**
+	 * get the amount of paths of every traced ray
+	 * 
+	 * @return amount of paths
+	 */
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * set the max amount of bounces of a path, a path of 1 bounce has only the
+	 * direct light
+	 * 
+	 * @param depth max amount of bounces
+	 */
+	public void setMaxDepth(int depth) {
+		if (depth < 1)
+			throw new IllegalArgumentException("need at least one bounce");
+		this.maxDepth = depth;
+	}
+
+	/**
+	 * get the max amount of bounces of a path
+	 * 
+	 * @return max amount of bounces
+	 */
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * set the bounce from which Russian roulette is played: a path survives with
+	 * the probability of its throughput (at least 5%) and a surviving path is
+	 * weighted by 1 / probability
+	 * 
+	 * @param depth first bounce that plays, 0 for no Russian roulette
+	 */
+	public void setRussianRoulette(int depth) {
+		if (depth < 0)
+			throw new IllegalArgumentException("depth cannot be less than zero");
+		this.rouletteDepth = depth;
+	}
+
+	/**
+	 * lower the quality: first the paths are halved down to a single path, then
+	 * the max amount of bounces is lowered down to the direct light only
+	 * 
+	 * @return false if the quality is already the lowest
+	 */
+	@Override
+	public boolean degradeQuality() {
+		if (this.samples > 1) {
+			this.samples = (this.samples + 1) / 2;
+			return true;
+		}
+		if (this.maxDepth > 1) {
+			--this.maxDepth;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void addQuality(Properties properties) {
+		properties.setProperty("tracer.samples", Integer.toString(this.samples));
+		properties.setProperty("tracer.maxDepth", Integer.toString(this.maxDepth));
+		properties.setProperty("tracer.rouletteDepth", Integer.toString(this.rouletteDepth));
+	}
+
+	/**
+	 * get the average color of the paths that start with the ray
+	 * 
+	 * @param ray ray
+	 * @return color of the ray
+	 */
+	@Override
+	public Color traceRay(Ray ray) {
+		int n = this.samples;
+		double[] color = new double[3];
+		for (int i = 0; i < n; ++i)
+			tracePath(ray, color);
+		if (n > 1) {
+			color[0] /= n;
+			color[1] /= n;
+			color[2] /= n;
+		}
+		return new Color(color[0], color[1], color[2]);
+	}
+
+	/**
+	 * follow one path and add its color
+	 * 
+	 * @param ray   first ray of the path
+	 * @param color red, green and blue to add to
+	 */
+	private void tracePath(Ray ray, double[] color) {
+		Sampler sampler = Sampler.current();
+		double throughput = 1;
+		int depth = this.maxDepth;
+		for (int bounce = 1;; ++bounce) {
+			countRays(1);
+			GeoPoint geoPoint = this.scene.geometries.findClosestGeoIntersection(ray);
+			if (bounce == 1)
+				setPrimaryHit(geoPoint);
+			if (geoPoint == null)
+				return;
+			// the ambient light is added once, like the Whitted ray tracer
+			if (bounce == 1)
+				add(color, this.scene.ambientLight.getIntensity(), 1);
+			add(color, geoPoint.geometry.getEmission(), throughput);
+
+			Material material = geoPoint.geometry.getMaterial();
+			Vector v = ray.getVector();
+			Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+			double nv = alignZero(n.dotProduct(v));
+			if (isZero(nv))
+				return;
+			// the normal faces the side that the ray comes from
+			if (nv > 0) {
+				n = n.scale(-1);
+				nv = -nv;
+			}
+			// mirror direction of the ray
+			Vector r = v.subtract(n.scale(2 * nv));
+			double kD = material.kD, kS = material.kS;
+			if (kD + kS > 0)
+				addLights(geoPoint.point, n, r, material, throughput, color);
+			if (bounce >= depth)
+				return;
+
+			// choose a lobe by its coefficient
+			double sum = kD + kS + material.kR + material.kT;
+			if (sum <= 0)
+				return;
+			double u = sampler.next() * sum;
+			Vector direction;
+			if (u < material.kR) {
+				direction = r;
+				throughput *= sum;
+			} else if (u < material.kR + material.kT) {
+				direction = v;
+				throughput *= sum;
+			} else {
+				direction = sampleDirection(n, r, material, sampler);
+				double cos = alignZero(direction.dotProduct(n));
+				if (cos <= 0)
+					return;
+				double cosR = Math.max(0, direction.dotProduct(r));
+				double phong = Math.pow(cosR, material.nShininess);
+				// the BSDF times cos over the pdf of both techniques, the choice of the
+				// technique among them and the choice of the lobe
+				double f = kD / Math.PI + kS * (material.nShininess + 2) / (2 * Math.PI) * phong;
+				double pdf = (kD * cos / Math.PI + kS * (material.nShininess + 1) / (2 * Math.PI) * phong) / sum;
+				if (pdf <= 0)
+					return;
+				throughput *= f * cos / pdf;
+			}
+
+			if (this.rouletteDepth > 0 && bounce >= this.rouletteDepth) {
+				double probability = Math.max(MIN_SURVIVAL, Math.min(1, throughput));
+				if (sampler.next() >= probability)
+					return;
+				throughput /= probability;
+			}
+			ray = new Ray(geoPoint.point, direction, n);
+		}
+	}
+
+	/**
+	 * add the light of all the light sources to a point, each light source is
+	 * sampled by a shadow ray
+	 * 
+	 * @param point      the point
+	 * @param n          normal of the point, it faces the incoming ray
+	 * @param r          mirror direction of the incoming ray
+	 * @param material   material of the point
+	 * @param throughput throughput of the path
+	 * @param color      red, green and blue to add to
+	 */
+	private void addLights(Point3D point, Vector n, Vector r, Material material, double throughput,
+			double[] color) {
+		for (LightSource light : this.scene.lights) {
+			Vector l = light.getL(point);
+			if (l == null)
+				continue;
+			double cos = -alignZero(l.dotProduct(n));
+			if (cos <= 0)
+				continue;
+			double cosR = Math.max(0, -l.dotProduct(r));
+			// diffuse light like the Whitted ray tracer, the glossy lobe is normalized
+			double f = material.kD
+					+ material.kS * (material.nShininess + 2) / 2 * Math.pow(cosR, material.nShininess);
+			Ray lightRay = new Ray(point, l.scale(-1), n);
+			double ktr = this.scene.geometries.findTransparency(lightRay, light.getDistance(lightRay.getP0()),
+					MIN_TRANSPARENCY);
+			if (ktr > 0)
+				add(color, light.getIntensity(point), throughput * f * cos * ktr);
+		}
+	}
+
+	/**
+	 * sample a direction of the diffuse or the glossy lobe, the technique is
+	 * chosen by kD and kS
+	 * 
+	 * @param n        normal of the point
+	 * @param r        mirror direction of the incoming ray
+	 * @param material material of the point
+	 * @param sampler  sampler of the random numbers
+	 * @return the direction
+	 */
+	private static Vector sampleDirection(Vector n, Vector r, Material material, Sampler sampler) {
+		double u1 = sampler.next();
+		double u2 = sampler.next();
+		double cos;
+		Vector axis;
+		if (sampler.next() * (material.kD + material.kS) < material.kD) {
+			// cosine weighted around the normal
+			cos = Math.sqrt(1 - u1);
+			axis = n;
+		} else {
+			// Phong lobe around the mirror direction
+			cos = Math.pow(1 - u1, 1d / (material.nShininess + 1));
+			axis = r;
+		}
+		double sin = Math.sqrt(Math.max(0, 1 - cos * cos));
+		double phi = 2 * Math.PI * u2;
+		return axis.fromBasis(sin * Math.cos(phi), sin * Math.sin(phi), cos);
+	}
+
+	/**
+	 * add a scaled color
+	 * 
+	 * @param color red, green and blue to add to
+	 * @param add   the color to add
+	 * @param scale scale of the added color
+	 */
+	private static void add(double[] color, Color add, double scale) {
+		color[0] += add.getRed() * scale;
+		color[1] += add.getGreen() * scale;
+		color[2] += add.getBlue() * scale;
+	}
+}
@@ -1,5 +1,8 @@
 package renderer;
 
+import java.util.Properties;
+
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
 import primitives.Ray;
 import scene.Scene;
@@ -16,6 +19,15 @@ public abstract class RayTracerBase {
 	 * protected scene
 	 */
 	protected Scene scene;
+	/**
+	 * amount of rays that every thread traced, for debug output
+	 */
+	private final ThreadLocal<long[]> rayCount = ThreadLocal.withInitial(() -> new long[1]);
+	/**
+	 * closest point of the last ray that every thread traced, for the arbitrary
+	 * output variables of the render
+	 */
+	private final ThreadLocal<GeoPoint[]> primaryHit = ThreadLocal.withInitial(() -> new GeoPoint[1]);
 
 	/**
 	 * constructor that receives a scene
@@ -34,4 +46,62 @@ public abstract class RayTracerBase {
 	 * @return color
 	 */
 	public abstract Color traceRay(Ray ray);
+
+	/**
+	 * lower the quality of the tracing one step so rays are traced faster, it is
+	 * called while threads are tracing. The base ray tracer has no quality knobs.
+	 * 
+	 * @return false if the quality is already the lowest
+	 */
+	public boolean degradeQuality() {
+		return false;
+	}
+
+	/**
+	 * add the quality knobs of the tracing to the properties that are written
+	 * with an image
+	 * 
+	 * @param properties the properties
+	 */
+	public void addQuality(Properties properties) {
+	}
+
+	/**
+	 * get the amount of rays that the current thread traced, the render reads it
+	 * before and after a pixel to find the rays of the pixel
+	 * 
+	 * @return amount of rays
+	 */
+	public long getRayCount() {
+		return this.rayCount.get()[0];
+	}
+
+	/**
+	 * add traced rays to the count of the current thread
+	 * 
+	 * @param rays amount of rays
+	 */
+	protected void countRays(int rays) {
+		this.rayCount.get()[0] += rays;
+	}
+
+	/**
+	 * get the closest point of the last ray that the current thread traced, the
+	 * render reads it after the ray of a pixel for the arbitrary output variables
+	 * 
+	 * @return the point, null if the ray missed or the ray tracer does not keep
+	 *         it
+	 */
+	public GeoPoint getPrimaryHit() {
+		return this.primaryHit.get()[0];
+	}
+
+	/**
+	 * keep the closest point of the ray that the current thread is tracing
+	 * 
+	 * @param hit the point, null if the ray missed
+	 */
+	protected void setPrimaryHit(GeoPoint hit) {
+		this.primaryHit.get()[0] = hit;
+	}
 }
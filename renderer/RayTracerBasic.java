@@ -1,7 +1,8 @@
 package renderer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 
 import elements.LightSource;
 import geometries.Intersectable.GeoPoint;
@@ -9,6 +10,7 @@ import primitives.Color;
 import primitives.Material;
 import primitives.Point3D;
 import primitives.Ray;
+import primitives.Sampler;
 import primitives.Vector;
 import scene.Scene;
 import static primitives.Util.alignZero;
@@ -24,9 +26,14 @@ import static primitives.Util.isZero;
 public class RayTracerBasic extends RayTracerBase {
 
 	/**
-	 * max color level
+	 * default max color level
 	 */
 	private static final int MAX_CALC_COLOR_LEVEL = 10;
+	/**
+	 * lowest max color level that degrading the quality leaves, a reflection or
+	 * refraction
+	 */
+	private static final int MIN_CALC_COLOR_LEVEL = 2;
 	/**
 	 * min color value
 	 */
@@ -35,14 +42,53 @@ public class RayTracerBasic extends RayTracerBase {
 	 * initial k
 	 */
 	private static final double INITIAL_K = 1.0;
+	/**
+	 * z value of the 95% confidence interval of adaptive beams
+	 */
+	private static final double CONFIDENCE_Z = 1.96;
+	/**
+	 * lowest survival probability of Russian roulette, so survivors are not
+	 * weighted too much
+	 */
+	private static final double MIN_SURVIVAL = 0.05;
+	/**
+	 * work stack of the ray trees of every thread
+	 */
+	private static final ThreadLocal<WorkStack> WORK_STACK = ThreadLocal.withInitial(WorkStack::new);
+	/**
+	 * max color level, the amount of rays in a path of reflections and
+	 * refractions
+	 */
+	private volatile int maxLevel = MAX_CALC_COLOR_LEVEL;
 	/**
 	 * number of rays
 	 */
-	private int numOfRays;
+	private volatile int numOfRays;
 	/**
 	 * distance of sampling
 	 */
 	private double rayDistance;
+	/**
+	 * rays of a batch of an adaptive beam, 0 when beams are not adaptive
+	 */
+	private int beamBatch;
+	/**
+	 * error of the color of a beam at which an adaptive beam stops
+	 */
+	private double beamTolerance;
+	/**
+	 * level of reflections and refractions from which Russian roulette is played,
+	 * 0 for no Russian roulette
+	 */
+	private int rouletteDepth;
+	/**
+	 * weight of a ray below which Russian roulette may kill it
+	 */
+	private double rouletteThreshold;
+	/**
+	 * ambient occlusion of the ambient light, null for no ambient occlusion
+	 */
+	private AmbientOcclusionTracer occlusion;
 
 	/**
 	 * set number of rays
@@ -55,6 +101,35 @@ public class RayTracerBasic extends RayTracerBase {
 		this.numOfRays = n;
 	}
 
+	/**
+	 * get number of rays
+	 * 
+	 * @return number of rays
+	 */
+	public int getNumOfRays() {
+		return this.numOfRays;
+	}
+
+	/**
+	 * set the max color level
+	 * 
+	 * @param level amount of rays in a path of reflections and refractions
+	 */
+	public void setMaxLevel(int level) {
+		if (level < 1)
+			throw new IllegalArgumentException("level must be at least one");
+		this.maxLevel = level;
+	}
+
+	/**
+	 * get the max color level
+	 * 
+	 * @return amount of rays in a path of reflections and refractions
+	 */
+	public int getMaxLevel() {
+		return this.maxLevel;
+	}
+
 	/**
 	 * set the the distance of sampling
 	 * 
@@ -66,6 +141,60 @@ public class RayTracerBasic extends RayTracerBase {
 		this.rayDistance = d;
 	}
 
+	/**
+	 * set adaptive beams: the rays of a beam are traced in batches and the beam
+	 * stops when the 95% confidence interval of its color is within the
+	 * tolerance, or when the number of rays is reached. The color is the mean of
+	 * the rays scaled to the whole beam, so it is as bright as the full beam.
+	 * 
+	 * @param batch     rays of a batch, 0 to trace the whole beam
+	 * @param tolerance half the width of the confidence interval of the color of
+	 *                  a beam (0-255), as seen in the pixel
+	 */
+	public void setAdaptiveBeam(int batch, double tolerance) {
+		if (batch < 0)
+			throw new IllegalArgumentException("batch cannot be less than zero");
+		if (tolerance < 0)
+			throw new IllegalArgumentException("tolerance cannot be less than zero");
+		this.beamBatch = batch;
+		this.beamTolerance = tolerance;
+	}
+
+	/**
+	 * set Russian roulette: from the given level of reflections and refractions,
+	 * a ray whose weight is below the threshold survives with the probability of
+	 * its weight divided by the threshold (at least 5%), and a surviving ray is
+	 * weighted by 1 / probability so the expected color stays the same. The
+	 * weight of a ray is the product of kR and kT on its path, and of the weights
+	 * of the roulettes it survived.
+	 * 
+	 * @param depth     first level that plays, the first reflection is level 1, 0
+	 *                  for no Russian roulette
+	 * @param threshold weight below which rays may be killed
+	 */
+	public void setRussianRoulette(int depth, double threshold) {
+		if (depth < 0)
+			throw new IllegalArgumentException("depth cannot be less than zero");
+		if (threshold <= 0)
+			throw new IllegalArgumentException("threshold must be positive");
+		this.rouletteDepth = depth;
+		this.rouletteThreshold = threshold;
+	}
+
+	/**
+	 * set ambient occlusion: the ambient light of a point is scaled by the part
+	 * of its hemisphere that is open up to the distance
+	 * 
+	 * @param samples  amount of occlusion rays of a point
+	 * @param distance max distance of an occluding object
+	 * @see AmbientOcclusionTracer
+	 */
+	public void setAmbientOcclusion(int samples, double distance) {
+		AmbientOcclusionTracer ao = new AmbientOcclusionTracer(this.scene, distance);
+		ao.setSamples(samples);
+		this.occlusion = ao;
+	}
+
 	/**
 	 * super constructor
 	 * 
@@ -75,6 +204,38 @@ public class RayTracerBasic extends RayTracerBase {
 		super(scene);
 	}
 
+	/**
+	 * lower the quality: first the beams are halved down to a single ray, then
+	 * the ambient occlusion samples down to a single ray, and then the max color
+	 * level is lowered down to a single reflection or refraction
+	 * 
+	 * @return false if the quality is already the lowest
+	 */
+	@Override
+	public boolean degradeQuality() {
+		if (this.numOfRays > 1) {
+			this.numOfRays = (this.numOfRays + 1) / 2;
+			return true;
+		}
+		if (this.occlusion != null && this.occlusion.degradeQuality())
+			return true;
+		if (this.maxLevel > MIN_CALC_COLOR_LEVEL) {
+			--this.maxLevel;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void addQuality(Properties properties) {
+		properties.setProperty("tracer.numOfRays", Integer.toString(this.numOfRays));
+		properties.setProperty("tracer.maxLevel", Integer.toString(this.maxLevel));
+		properties.setProperty("tracer.beamBatch", Integer.toString(this.beamBatch));
+		properties.setProperty("tracer.rouletteDepth", Integer.toString(this.rouletteDepth));
+		if (this.occlusion != null)
+			this.occlusion.addQuality(properties);
+	}
+
 	/**
 	 * get the color of the intersected geometries
 	 * 
@@ -83,8 +244,10 @@ public class RayTracerBasic extends RayTracerBase {
 	 */
 	@Override
 	public Color traceRay(Ray ray) {
+		countRays(1);
 		// search intersections between the ray and the 3DModel of the scene
 		GeoPoint closestPoint = findClosestIntersection(ray);
+		setPrimaryHit(closestPoint);
 		return closestPoint == null ? Color.BLACK : calcColor(closestPoint, ray);
 	}
 
@@ -107,91 +270,213 @@ public class RayTracerBasic extends RayTracerBase {
 	 * @return color
 	 */
 	public Color calcColor(GeoPoint intersection, Ray ray) {
-		return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).add(scene.ambientLight.getIntensity());
+		Color ambient = this.scene.ambientLight.getIntensity();
+		if (this.occlusion != null)
+			ambient = ambient.scale(this.occlusion.calcVisibility(intersection, ray));
+		return calcColor(intersection, ray, this.maxLevel, INITIAL_K).add(ambient);
 	}
 
 	/**
-	 * Calculate the color
+	 * Calculate the color of the tree of reflected and refracted rays of an
+	 * intersection. The tree is walked depth first with the per-thread work stack
+	 * instead of recursion: every frame is an intersection in the tree with its
+	 * own local color, and it hands out the rays of its reflected and refracted
+	 * beams one by one. The color of a finished frame is added, scaled by kR or
+	 * kT, to the frame under it. The colors are summed in the same order as
+	 * calculating every branch recursively, so the images are the same.
 	 * 
-	 * @param intersection intersection points
+	 * @param intersection intersection point
 	 * @param ray          ray
 	 * @param level        level
 	 * @param k            k level
 	 * @return Color
 	 */
 	private Color calcColor(GeoPoint intersection, Ray ray, int level, double k) {
+		WorkStack stack = WORK_STACK.get();
+		int bottom = stack.size;
+		try {
+			startFrame(stack.push(), intersection, ray, level, k, 0, INITIAL_K);
+			while (true) {
+				Frame frame = stack.frames[stack.size - 1];
+				if (nextRay(frame)) {
+					startFrame(stack.push(), frame.point, frame.ray2, frame.level - 1, frame.k * frame.kx,
+							frame.depth + 1, frame.beta * frame.weight);
+					continue;
+				}
+				// the frame is done, its color is the local color and the global effects
+				double r = frame.r + frame.globalR, g = frame.g + frame.globalG, b = frame.b + frame.globalB;
+				frame.clear();
+				if (--stack.size == bottom)
+					return new Color(r, g, b);
+				stack.frames[stack.size - 1].add(r, g, b);
+			}
+		} finally {
+			stack.size = bottom;
+		}
+	}
+
+	/**
+	 * start a frame of an intersection, with its local color
+	 * 
+	 * @param frame        the frame
+	 * @param intersection intersection point
+	 * @param ray          ray
+	 * @param level        level
+	 * @param k            k level
+	 * @param depth        amount of reflections and refractions from the root
+	 * @param beta         weight of the ray for Russian roulette
+	 */
+	private void startFrame(Frame frame, GeoPoint intersection, Ray ray, int level, double k, int depth,
+			double beta) {
+		frame.geoPoint = intersection;
+		frame.incoming = ray;
+		frame.level = level;
+		frame.k = k;
+		frame.depth = depth;
+		frame.beta = beta;
+		frame.stage = Frame.REFLECTION;
+		frame.endBeam();
 		Color color = intersection.geometry.getEmission();
 		color = color.add(calcLocalEffects(intersection, ray, k));
-		return 1 == level ? color : color.add(calcGlobalEffects(intersection, ray, level, k));
+		frame.r = color.getRed();
+		frame.g = color.getGreen();
+		frame.b = color.getBlue();
+		frame.globalR = frame.globalG = frame.globalB = 0;
 	}
 
 	/**
-	 * Calculate the global effects
+	 * find the next ray of the beams of a frame that hits a geometry, the frame
+	 * goes through the reflected beam and then the refracted beam. A beam is
+	 * created only when the rays of the former beam are done, so the random
+	 * numbers are drawn in the order of a recursive calculation.
 	 * 
-	 * @param geoPoint intersection point
-	 * @param ray      ray of light
-	 * @param level    level
-	 * @param k        k level
-	 * @return color
+	 * @param frame the frame
+	 * @return true if there is a ray, its intersection is in frame.point and the
+	 *         ray in frame.ray2, false if the frame is done
 	 */
-	private Color calcGlobalEffects(GeoPoint geoPoint, Ray ray, int level, double k) {
-		Color color = Color.BLACK;
-		List<Ray> beam = new ArrayList<>();
-
-		Material material = geoPoint.geometry.getMaterial();
-		double kr = material.kR;
-		double kkr = k * kr;
-		Vector n = geoPoint.geometry.getNormal(geoPoint.point);
-		if (kkr > MIN_CALC_COLOR_K) {
-			Ray reflectedRay = constructReflectedRay(n, geoPoint.point, ray);
-			if (this.numOfRays == 0) {
-				GeoPoint reflectedPoint = findClosestIntersection(ray);
-				if (reflectedPoint != null) {
-					color = color.add(calcColor(reflectedPoint, ray, level - 1, kkr).scale(kr));
+	private boolean nextRay(Frame frame) {
+		while (true) {
+			if (frame.beam != null) {
+				if (frame.next < frame.length) {
+					int i = frame.next++;
+					if (i < frame.beam.size()) {
+						frame.ray2 = frame.beam.get(i);
+						frame.point = findClosestIntersection(frame.ray2);
+						if (frame.point != null && survives(frame))
+							return true;
+					}
+					// a ray that was not shot, hits nothing or was killed
+					if (frame.max > 0)
+						frame.addSample(0, 0, 0);
+					continue;
 				}
-			} else {
-				if (isZero(this.numOfRays) || this.rayDistance < 0) {
-					beam.add(reflectedRay);
-				} else {
-					beam = reflectedRay.beamOfRays(geoPoint.geometry.getNormal(geoPoint.point), this.rayDistance,
-							this.numOfRays);
+				if (frame.max > 0 && frame.count < frame.max && !converged(frame)) {
+					nextBatch(frame);
+					continue;
 				}
-				for (Ray ray2 : beam) {
-					GeoPoint reflectedPoint = findClosestIntersection(ray2);
-					if (reflectedPoint != null) {
-						color = color.add(calcColor(reflectedPoint, ray2, level - 1, kkr).scale(kr));
-					}
+				frame.endBeam();
+			}
+			switch (frame.stage) {
+			case Frame.REFLECTION:
+				// the last level has no global effects
+				if (frame.level == 1) {
+					frame.stage = Frame.DONE;
+					break;
 				}
+				frame.stage = Frame.REFRACTION;
+				Material material = frame.geoPoint.geometry.getMaterial();
+				frame.n = frame.geoPoint.geometry.getNormal(frame.geoPoint.point);
+				if (frame.k * material.kR > MIN_CALC_COLOR_K)
+					startBeam(frame, constructReflectedRay(frame.n, frame.geoPoint.point, frame.incoming), material.kR);
+				break;
+			case Frame.REFRACTION:
+				frame.stage = Frame.DONE;
+				material = frame.geoPoint.geometry.getMaterial();
+				if (frame.k * material.kT > MIN_CALC_COLOR_K)
+					startBeam(frame, constructRefractedRay(frame.n, frame.geoPoint.point, frame.incoming), material.kT);
+				break;
+			default:
+				return false;
 			}
-
 		}
-		double kt = material.kT;
-		double kkt = k * kt;
-		if (kkt > MIN_CALC_COLOR_K) {
-			Ray refractedRay = constructRefractedRay(n, geoPoint.point, ray);
-			if (this.numOfRays == 0) {
-				GeoPoint refractedPoint = findClosestIntersection(ray);
-				if (refractedPoint != null) {
-					color = color.add(calcColor(refractedPoint, ray, level - 1, kkt).scale(kt));
-				}
-			} else {
-				if (isZero(this.numOfRays) || this.rayDistance < 0) {
-					beam.add(refractedRay);
-				} else {
-					beam = refractedRay.beamOfRays(geoPoint.geometry.getNormal(geoPoint.point), this.rayDistance,
-							this.numOfRays);
-				}
-				for (Ray ray2 : beam) {
-					GeoPoint refractedPoint = findClosestIntersection(ray2);
-					if (refractedPoint != null) {
-						color = color.add(calcColor(refractedPoint, ray2, level - 1, kkt).scale(kt));
-					}
+	}
 
-				}
-			}
+	/**
+	 * play Russian roulette for the ray that a frame hands out, and set the weight
+	 * of its color
+	 * 
+	 * @param frame the frame
+	 * @return false if the ray was killed
+	 */
+	private boolean survives(Frame frame) {
+		frame.weight = frame.kx;
+		if (this.rouletteDepth == 0 || frame.depth + 1 < this.rouletteDepth)
+			return true;
+		double probability = frame.beta * frame.kx / this.rouletteThreshold;
+		if (probability >= 1)
+			return true;
+		probability = Math.max(probability, MIN_SURVIVAL);
+		if (Sampler.current().next() >= probability)
+			return false;
+		frame.weight = frame.kx / probability;
+		return true;
+	}
 
+	/**
+	 * start the reflected or refracted beam of a frame
+	 * 
+	 * @param frame the frame
+	 * @param ray   the reflected or refracted ray
+	 * @param kx    kR or kT of the material
+	 */
+	private void startBeam(Frame frame, Ray ray, double kx) {
+		frame.kx = kx;
+		frame.central = ray;
+		frame.next = 0;
+		int rays = this.numOfRays;
+		if (rays == 0) {
+			// without beams the incoming ray is traced again
+			countRays(1);
+			frame.direct = true;
+			frame.beam = List.of(frame.incoming);
+			frame.length = 1;
+		} else if (this.beamBatch > 0 && rays > 2) {
+			// a beam of numOfRays rays has numOfRays - 1 random rays
+			frame.max = rays - 1;
+			nextBatch(frame);
+		} else {
+			frame.beam = isZero(rays) || this.rayDistance < 0 ? List.of(ray)
+					: ray.beamOfRays(frame.n, this.rayDistance, rays);
+			countRays(frame.beam.size());
+			frame.length = frame.beam.size();
 		}
-		return color;
+	}
+
+	/**
+	 * start the next batch of rays of an adaptive beam
+	 * 
+	 * @param frame the frame
+	 */
+	private void nextBatch(Frame frame) {
+		int batch = Math.min(this.beamBatch, frame.max - frame.count);
+		frame.beam = frame.central.beamOfRays(frame.n, this.rayDistance, batch + 1);
+		countRays(frame.beam.size());
+		frame.length = batch;
+		frame.next = 0;
+	}
+
+	/**
+	 * check whether the 95% confidence interval of the color of an adaptive beam,
+	 * as seen in the pixel, is within the tolerance
+	 * 
+	 * @param frame the frame
+	 * @return true if the beam can stop
+	 */
+	private boolean converged(Frame frame) {
+		if (frame.count < 2)
+			return false;
+		double scale = CONFIDENCE_Z * frame.k * frame.max / Math.sqrt(frame.count * (frame.count - 1d));
+		return Math.sqrt(Math.max(frame.m2R, Math.max(frame.m2G, frame.m2B))) * scale <= this.beamTolerance;
 	}
 
 	/**
@@ -237,14 +522,9 @@ public class RayTracerBasic extends RayTracerBase {
 	 * @return geo point
 	 */
 	private GeoPoint findClosestIntersection(Ray ray) {
-		// search intersections between the ray and the 3DModel of the scene
-		List<GeoPoint> geo = this.scene.geometries.findGeoIntersections(ray);
-		if (geo == null) {
-			// search intersections between the ray and the 3DModel of the scene
-			return null;
-		}
-		// find the closest point to the ray’s head and find the color of the point
-		return ray.findClosestGeoPoint(geo);
+		// search the closest intersection between the ray and the 3DModel of the
+		// scene, farther points are not gathered at all
+		return this.scene.geometries.findClosestGeoIntersection(ray);
 	}
 
 	/**
@@ -326,32 +606,230 @@ public class RayTracerBasic extends RayTracerBase {
 	}
 
 	/**
-	 * old javaDoc (needs to be replaced) check un-shadowing between a point and the
-	 * light source
+	 * check how much of the light reaches a point through the objects between the
+	 * point and the light source
 	 * 
 	 * @param light    light source
 	 * @param l        vector
 	 * @param n        vector
 	 * @param geoPoint geo point
-	 * @return false if light is block and true otherwise
+	 * @return transparency, 0 if the light is blocked
 	 */
 	private double transparency(LightSource light, Vector l, Vector n, GeoPoint geoPoint) {
 		Vector lightDirection = l.scale(-1); // from point to light source
 		Ray lightRay = new Ray(geoPoint.point, lightDirection, n); // refactored ray head move
-		double lightDistance = light.getDistance((geoPoint.point));
-		var intersection = scene.geometries.findGeoIntersections(lightRay, light.getDistance(lightRay.getP0()));
-		if (intersection == null) {
-			return 1.0;
+		// the search stops at the first opaque object, only transparent objects are
+		// multiplied
+		return scene.geometries.findTransparency(lightRay, light.getDistance(lightRay.getP0()), MIN_CALC_COLOR_K);
+	}
+
+	/**
+	 * Work stack of the frames of the ray trees of a thread, the frames are
+	 * reused by all the trees the thread traces
+	 */
+	private static class WorkStack {
+		/**
+		 * the frames, from the root of the tree
+		 */
+		Frame[] frames = new Frame[MAX_CALC_COLOR_LEVEL];
+		/**
+		 * amount of frames in use
+		 */
+		int size;
+
+		/**
+		 * get a free frame on top of the stack
+		 * 
+		 * @return the frame
+		 */
+		Frame push() {
+			if (this.size == this.frames.length)
+				this.frames = Arrays.copyOf(this.frames, 2 * this.size);
+			Frame frame = this.frames[this.size];
+			if (frame == null)
+				frame = this.frames[this.size] = new Frame();
+			++this.size;
+			return frame;
 		}
-		double ktr = 1.0;
-		for (GeoPoint gp : intersection) {
-			if (alignZero(gp.point.distance(geoPoint.point) - lightDistance) <= 0) {
-				ktr *= gp.geometry.getMaterial().kT;
-				if (ktr < MIN_CALC_COLOR_K) {
-					return 0.0;
-				}
+	}
+
+	/**
+	 * Frame of the work stack - an intersection in a tree of reflected and
+	 * refracted rays, with the colors that were calculated for it so far and the
+	 * beam of rays it is tracing
+	 */
+	private static class Frame {
+		/**
+		 * stages of a frame
+		 */
+		static final int REFLECTION = 0, REFRACTION = 1, DONE = 2;
+
+		/**
+		 * the intersection
+		 */
+		GeoPoint geoPoint;
+		/**
+		 * the ray that hit the intersection
+		 */
+		Ray incoming;
+		/**
+		 * normal at the intersection
+		 */
+		Vector n;
+		/**
+		 * level
+		 */
+		int level;
+		/**
+		 * k level
+		 */
+		double k;
+		/**
+		 * amount of reflections and refractions from the root of the tree
+		 */
+		int depth;
+		/**
+		 * weight of the ray of the frame for Russian roulette
+		 */
+		double beta;
+		/**
+		 * beam the frame starts next
+		 */
+		int stage;
+		/**
+		 * emission and local effects
+		 */
+		double r, g, b;
+		/**
+		 * the global effects of the beams that are done
+		 */
+		double globalR, globalG, globalB;
+
+		/**
+		 * rays of the current beam, null between beams
+		 */
+		List<Ray> beam;
+		/**
+		 * the reflected or refracted ray of the current beam
+		 */
+		Ray central;
+		/**
+		 * kR or kT of the current beam
+		 */
+		double kx;
+		/**
+		 * scale of the color of the ray the frame handed out, kx divided by its
+		 * survival probability
+		 */
+		double weight;
+		/**
+		 * index of the next ray of the beam and amount of rays of the beam, rays
+		 * after the end of the list were not shot
+		 */
+		int next, length;
+		/**
+		 * the colors of the rays are added to the global effects without a beam sum
+		 */
+		boolean direct;
+		/**
+		 * sum of the colors of the rays of the beam
+		 */
+		double beamR, beamG, beamB;
+		/**
+		 * rays of a whole adaptive beam, 0 if the beam is not adaptive
+		 */
+		int max;
+		/**
+		 * amount of samples of the adaptive beam
+		 */
+		int count;
+		/**
+		 * mean and sum of squared differences of the samples of the adaptive beam
+		 */
+		double meanR, meanG, meanB, m2R, m2G, m2B;
+		/**
+		 * the ray the frame handed out and its intersection
+		 */
+		Ray ray2;
+		/**
+		 * the intersection of the ray the frame handed out
+		 */
+		GeoPoint point;
+
+		/**
+		 * add the color of the ray the frame handed out
+		 * 
+		 * @param red   red
+		 * @param green green
+		 * @param blue  blue
+		 */
+		void add(double red, double green, double blue) {
+			if (this.direct) {
+				this.globalR += red * this.weight;
+				this.globalG += green * this.weight;
+				this.globalB += blue * this.weight;
+			} else if (this.max > 0) {
+				addSample(red * this.weight, green * this.weight, blue * this.weight);
+			} else {
+				this.beamR += red * this.weight;
+				this.beamG += green * this.weight;
+				this.beamB += blue * this.weight;
+			}
+		}
+
+		/**
+		 * add a sample to the mean and variance of an adaptive beam with the
+		 * algorithm of Welford
+		 * 
+		 * @param red   red
+		 * @param green green
+		 * @param blue  blue
+		 */
+		void addSample(double red, double green, double blue) {
+			++this.count;
+			double delta = red - this.meanR;
+			this.meanR += delta / this.count;
+			this.m2R += delta * (red - this.meanR);
+			delta = green - this.meanG;
+			this.meanG += delta / this.count;
+			this.m2G += delta * (green - this.meanG);
+			delta = blue - this.meanB;
+			this.meanB += delta / this.count;
+			this.m2B += delta * (blue - this.meanB);
+		}
+
+		/**
+		 * add the color of the beam to the global effects and clear the beam
+		 */
+		void endBeam() {
+			if (this.max > 0) {
+				// the mean scaled to the whole beam
+				this.globalR += this.meanR * this.max;
+				this.globalG += this.meanG * this.max;
+				this.globalB += this.meanB * this.max;
+			} else if (!this.direct) {
+				// the beam is summed on its own and then added, as the recursive tracer did
+				this.globalR += this.beamR;
+				this.globalG += this.beamG;
+				this.globalB += this.beamB;
 			}
+			this.beam = null;
+			this.central = null;
+			this.direct = false;
+			this.beamR = this.beamG = this.beamB = 0;
+			this.max = this.count = 0;
+			this.meanR = this.meanG = this.meanB = this.m2R = this.m2G = this.m2B = 0;
+		}
+
+		/**
+		 * drop the references of a finished frame
+		 */
+		void clear() {
+			this.geoPoint = null;
+			this.incoming = null;
+			this.n = null;
+			this.ray2 = null;
+			this.point = null;
 		}
-		return ktr;
 	}
 }
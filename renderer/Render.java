@@ -1,10 +1,22 @@
 package renderer;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
 
 import elements.*;
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
 import primitives.Ray;
+import primitives.RandomSampler;
+import primitives.Sampler;
 
 /**
  * create an image from the scene
@@ -17,6 +29,26 @@ public class Render {
 	private int threadsCount = 0;
 	private static final int SPARE_THREADS = 2; // Spare threads if trying to use all the cores
 	private boolean print = false; // printing progress percentage
+	private static final long PRINT_INTERVAL = 100; // milliseconds between progress prints
+	private int tileSize = 16; // width and height of the tiles handed to the threads
+	private volatile int adaptiveDepth = 0; // subdivisions of adaptive super sampling, 0 for a ray per pixel
+	private double adaptiveThreshold = 0; // color difference that makes a pixel subdivide
+	private int passBudget = 64; // max passes of progressive rendering
+	private long timeBudget = 0; // milliseconds of progressive rendering, 0 for no limit
+	private double convergence = 0; // mean change of a pass that ends progressive rendering
+	private int snapshotPasses = 0; // passes between progressive snapshots, 0 for none
+	private long snapshotInterval = 0; // milliseconds between progressive snapshots, 0 for none
+	private int renderedPasses = 0; // passes of the last progressive rendering
+	private long renderBudget = 0; // milliseconds of renderImage, 0 for no limit
+	private Properties quality; // quality of the last rendering with a budget
+	private long buildMillis, traceMillis; // milliseconds of the BVH build and of the tracing of the last rendering
+
+	/**
+	 * state of rendering with a render budget, the throughput is measured from the
+	 * last change of the quality
+	 */
+	private long budgetEnd, budgetChange, budgetPixels;
+	private int budgetSteps;
 
 	/**
 	 * camera
@@ -30,6 +62,24 @@ public class Render {
 	 * abstract ray tracer
 	 */
 	private RayTracerBase rayTracer;
+	/**
+	 * image writer of the amount of rays of every pixel, for debugging
+	 */
+	private ImageWriter rayCountWriter;
+	/**
+	 * amount of rays of every pixel, row by row, while rendering with a ray count
+	 * image writer
+	 */
+	private long[] rayCounts;
+	/**
+	 * image writers of the arbitrary output variables, the ray count is in the
+	 * ray count image writer
+	 */
+	private final Map<Aov, ImageWriter> aovWriters = new EnumMap<>(Aov.class);
+	/**
+	 * sampler of the random numbers, every thread renders with a copy of it
+	 */
+	private Sampler sampler = new RandomSampler(0);
 
 	/**
 	 * set the camera
@@ -64,6 +114,53 @@ public class Render {
 		return this;
 	}
 
+	/**
+	 * set an image writer for the amount of rays that were traced for every pixel
+	 * (primary, reflected and refracted rays). The pixel with the most rays is
+	 * white and a pixel without rays is black.
+	 * 
+	 * @param i image writer with the resolution of the image
+	 * @return this object
+	 */
+	public Render setRayCountImage(ImageWriter i) {
+		this.rayCountWriter = i;
+		return this;
+	}
+
+	/**
+	 * set an image writer for an arbitrary output variable, it is written in the
+	 * same traversal as the image from the ray through the center of every pixel
+	 * (the first pass of progressive rendering). Adaptive super sampling does not
+	 * trace the centers of the pixels, so it cannot render output variables.
+	 * 
+	 * @param aov the output variable
+	 * @param i   image writer with the resolution of the image, null to remove
+	 *            the output variable
+	 * @return this object
+	 */
+	public Render setAov(Aov aov, ImageWriter i) {
+		if (aov == Aov.RAY_COUNT)
+			return setRayCountImage(i);
+		if (i == null)
+			this.aovWriters.remove(aov);
+		else
+			this.aovWriters.put(aov, i);
+		return this;
+	}
+
+	/**
+	 * set the sampler of the random numbers of the rendering. Every pixel
+	 * restarts the sampler from its seed, so renders with the same sampler and
+	 * seed are the same whatever the amount of threads is
+	 * 
+	 * @param s sampler
+	 * @return this object
+	 */
+	public Render setSampler(Sampler s) {
+		this.sampler = s;
+		return this;
+	}
+
 	/**
 	 * For each pixel it will construct a ray and for each ray it will receive a
 	 * color.
@@ -71,6 +168,174 @@ public class Render {
 	 * @throws MissingResourceException check if resources are missing
 	 */
 	public void renderImage() {
+		checkResources();
+		// loop over all the ViewPlane’s pixels
+		int nY = this.imageWriter.getNy();
+		int nX = this.imageWriter.getNx();
+		long start = System.nanoTime();
+		buildBVH();
+		long traceStart = System.nanoTime();
+		this.quality = null;
+		if (this.renderBudget > 0) {
+			this.budgetEnd = start + this.renderBudget * 1000000;
+			this.budgetChange = traceStart;
+			this.budgetPixels = 0;
+			this.budgetSteps = 0;
+		}
+		if (threadsCount == 0) {
+			Sampler previous = Sampler.current();
+			Sampler.setCurrent(this.sampler.copy());
+			// adaptive sampling shares the corners of the pixels of bands of rows
+			int rows = this.adaptiveDepth == 0 ? 1 : this.tileSize;
+			for (int i = 0; i < nY; i += rows) {
+				System.out.print(i + "\r\n");
+				castTile(nX, nY, 0, i, nX, Math.min(i + rows, nY));
+				if (this.renderBudget > 0)
+					checkBudget((long) Math.min(i + rows, nY) * nX, (long) nX * nY);
+			}
+			Sampler.setCurrent(previous);
+		} else {
+			this.renderImageThreaded((col0, row0, col1, row1) -> castTile(nX, nY, col0, row0, col1, row1), print);
+		}
+		this.traceMillis = (System.nanoTime() - traceStart) / 1000000;
+		if (this.rayCounts != null) {
+			writeRayCounts();
+			this.rayCounts = null;
+		}
+		if (this.renderBudget > 0) {
+			this.quality = new Properties();
+			this.quality.setProperty("render.budget.millis", Long.toString(this.renderBudget));
+			this.quality.setProperty("render.millis", Long.toString((System.nanoTime() - start) / 1000000));
+			this.quality.setProperty("render.build.millis", Long.toString(this.buildMillis));
+			this.quality.setProperty("render.trace.millis", Long.toString(this.traceMillis));
+			this.quality.setProperty("render.degradeSteps", Integer.toString(this.budgetSteps));
+			this.quality.setProperty("render.adaptiveDepth", Integer.toString(this.adaptiveDepth));
+			this.rayTracer.addQuality(this.quality);
+		}
+	}
+
+	/**
+	 * check the throughput against the render budget, and lower the quality if the
+	 * rest of the image would not be done in time at the throughput since the
+	 * last change of the quality
+	 * 
+	 * @param done  amount of rendered pixels
+	 * @param total amount of pixels
+	 */
+	private void checkBudget(long done, long total) {
+		long now = System.nanoTime();
+		long pixels = done - this.budgetPixels;
+		long time = now - this.budgetChange;
+		// measure at least 1% of the image at the current quality
+		if (done >= total || pixels < Math.max(1, total / 100) || time <= 0)
+			return;
+		double needed = (double) time / pixels * (total - done);
+		if (needed > this.budgetEnd - now && degradeQuality()) {
+			this.budgetChange = now;
+			this.budgetPixels = done;
+		}
+	}
+
+	/**
+	 * lower the quality one step: the knobs of the ray tracer first and then the
+	 * depth of adaptive super sampling
+	 * 
+	 * @return false if the quality is already the lowest
+	 */
+	private boolean degradeQuality() {
+		if (!this.rayTracer.degradeQuality()) {
+			if (this.adaptiveDepth == 0)
+				return false;
+			--this.adaptiveDepth;
+		}
+		++this.budgetSteps;
+		if (print)
+			System.out.printf("%n quality lowered, step %d%n", this.budgetSteps);
+		return true;
+	}
+
+	/**
+	 * get the quality of the last rendering with a render budget
+	 * 
+	 * @return the knobs of the quality that the image was rendered in, the time
+	 *         budget and the time it took, or null
+	 */
+	public Properties getQuality() {
+		return this.quality;
+	}
+
+	/**
+	 * Render the image progressively: every pass adds a sample to every pixel,
+	 * the first through the center of the pixel and the others through random
+	 * points of the pixel, and the image is the mean of the samples. The
+	 * rendering stops after the pass budget, after the pass that used up the time
+	 * budget, or when the mean change of the pixels in a pass is below the
+	 * convergence. Snapshots of the image are written while rendering.
+	 * 
+	 * @throws MissingResourceException check if resources are missing
+	 */
+	public void renderProgressive() {
+		checkResources();
+		int nY = this.imageWriter.getNy();
+		int nX = this.imageWriter.getNx();
+		CameraRaster raster = camera.getRaster(nX, nY);
+		// sums of the samples of the pixels
+		ImageWriter sums = new ImageWriter("progressive sums", nX, nY);
+		buildBVH();
+		long start = System.currentTimeMillis();
+		long snapshot = start;
+		int pass = 0;
+		boolean done = false;
+		while (!done) {
+			final int current = ++pass;
+			DoubleAdder change = new DoubleAdder();
+			TileCaster caster = (col0, row0, col1, row1) -> {
+				double tileChange = 0;
+				for (int row = row0; row < row1; ++row)
+					for (int col = col0; col < col1; ++col)
+						tileChange += castSample(raster, sums, col, row, current);
+				change.add(tileChange);
+			};
+			if (threadsCount == 0) {
+				Sampler previous = Sampler.current();
+				Sampler.setCurrent(this.sampler.copy());
+				caster.cast(0, 0, nX, nY);
+				Sampler.setCurrent(previous);
+			} else
+				this.renderImageThreaded(caster, false);
+
+			long now = System.currentTimeMillis();
+			done = pass >= this.passBudget || this.timeBudget > 0 && now - start >= this.timeBudget
+					|| pass > 1 && change.sum() / ((long) nX * nY) < this.convergence;
+			if (print)
+				System.out.printf("\r pass %d", pass);
+			if (done || this.snapshotPasses > 0 && pass % this.snapshotPasses == 0
+					|| this.snapshotInterval > 0 && now - snapshot >= this.snapshotInterval) {
+				for (int i = 0; i < nY; ++i)
+					for (int j = 0; j < nX; ++j)
+						this.imageWriter.writePixel(j, i, sums.getPixel(j, i).reduce(pass));
+				if (!done) {
+					this.imageWriter.writeToImage();
+					snapshot = now;
+				}
+			}
+		}
+		this.renderedPasses = pass;
+		this.traceMillis = System.currentTimeMillis() - start;
+		if (this.rayCounts != null) {
+			writeRayCounts();
+			this.rayCounts = null;
+		}
+	}
+
+	/**
+	 * check that the camera, image writer and ray tracer are set and the images
+	 * of the output variables fit, and prepare the ray counts if there is a ray
+	 * count image
+	 * 
+	 * @throws MissingResourceException if a resource is missing
+	 */
+	private void checkResources() {
 		// check that all the fields are not null.
 		if (this.imageWriter == null) {
 			throw new MissingResourceException("image Writer cant be null", "Render", "imageWriter");
@@ -79,73 +344,334 @@ public class Render {
 		} else if (this.rayTracer == null) {
 			throw new MissingResourceException("ray tracer cant be null", "Render", "rayTracer");
 		}
-		// loop over all the ViewPlane’s pixels
 		int nY = this.imageWriter.getNy();
 		int nX = this.imageWriter.getNx();
-		if (threadsCount == 0) {
-			for (int i = 0; i < nY; i++) {
-				System.out.print(i + "\r\n");
-				for (int j = 0; j < nX; j++) {
-					castRay(nX, nY, j, i);
-				}
+		if (this.rayCountWriter != null) {
+			if (this.rayCountWriter.getNx() != nX || this.rayCountWriter.getNy() != nY)
+				throw new IllegalArgumentException("ray count image must have the resolution of the image");
+			this.rayCounts = new long[nX * nY];
+		}
+		for (ImageWriter aov : this.aovWriters.values())
+			if (aov.getNx() != nX || aov.getNy() != nY)
+				throw new IllegalArgumentException("output variable image must have the resolution of the image");
+		if (!this.aovWriters.isEmpty() && this.adaptiveDepth > 0)
+			throw new IllegalArgumentException("output variables need a ray through the center of every pixel");
+	}
 
-			}
-		} else {
-			this.renderImageThreaded();
+	/**
+	 * get the amount of passes of the last progressive rendering
+	 * 
+	 * @return amount of passes
+	 */
+	public int getRenderedPasses() {
+		return this.renderedPasses;
+	}
+
+	/**
+	 * build the BVH trees of the scene before the first ray, by as many threads
+	 * as render the image, so the threads do not wait for a tree that the first
+	 * ray to reach it builds
+	 */
+	private void buildBVH() {
+		long start = System.nanoTime();
+		this.rayTracer.scene.geometries.buildBVH(Math.max(1, this.threadsCount));
+		this.buildMillis = (System.nanoTime() - start) / 1000000;
+		if (print)
+			System.out.printf(" BVH built in %d ms%n", this.buildMillis);
+	}
+
+	/**
+	 * get the time it took to build the BVH trees of the scene in the last
+	 * rendering, the trees that were built before are not built again
+	 * 
+	 * @return milliseconds of the build
+	 */
+	public long getBuildMillis() {
+		return this.buildMillis;
+	}
+
+	/**
+	 * get the time it took to trace the rays of the last rendering, without the
+	 * build of the BVH trees
+	 * 
+	 * @return milliseconds of the tracing
+	 */
+	public long getTraceMillis() {
+		return this.traceMillis;
+	}
+
+	/**
+	 * write the amounts of rays of the pixels into the ray count image
+	 */
+	private void writeRayCounts() {
+		long max = 1;
+		for (long count : this.rayCounts)
+			max = Math.max(max, count);
+		int nX = this.rayCountWriter.getNx();
+		for (int k = 0; k < this.rayCounts.length; ++k) {
+			double level = 255d * this.rayCounts[k] / max;
+			this.rayCountWriter.writePixel(k % nX, k / nX, new Color(level, level, level));
 		}
+	}
 
+	/**
+	 * add the rays that the current thread traced since a given count to the
+	 * count of a pixel
+	 * 
+	 * @param col    pixel's column number
+	 * @param row    pixel's row number
+	 * @param before the ray count of the thread before the rays of the pixel
+	 */
+	private void countRays(int col, int row, long before) {
+		if (this.rayCounts != null)
+			this.rayCounts[row * this.imageWriter.getNx() + col] += this.rayTracer.getRayCount() - before;
 	}
 
 	/**
 	 * This function renders image's pixel color map from the scene included with
-	 * the Renderer object - with multi-threading
+	 * the Renderer object - with multi-threading. The image is cut into square
+	 * tiles that the threads claim through an atomic counter, the main thread
+	 * only reads the progress
+	 * 
+	 * @param caster   renders a tile
+	 * @param progress whether to print the progress
 	 */
-	private void renderImageThreaded() {
+	private void renderImageThreaded(TileCaster caster, boolean progress) {
 		final int nX = imageWriter.getNx();
 		final int nY = imageWriter.getNy();
-		final Pixel thePixel = new Pixel(nY, nX);
+		final Tiles tiles = new Tiles(nX, nY, this.tileSize);
 		// Generate threads
 		Thread[] threads = new Thread[threadsCount];
 		for (int i = threadsCount - 1; i >= 0; --i) {
 			threads[i] = new Thread(() -> {
-				Pixel pixel = new Pixel();
-				while (thePixel.nextPixel(pixel))
-					castRay(nX, nY, pixel.col, pixel.row);
+				Sampler.setCurrent(this.sampler.copy());
+				int[] tile = new int[4];
+				while (tiles.next(tile)) {
+					caster.cast(tile[0], tile[1], tile[2], tile[3]);
+					tiles.done((tile[2] - tile[0]) * (tile[3] - tile[1]));
+				}
 			});
 		}
 		// Start threads
 		for (Thread thread : threads)
 			thread.start();
 
-		// Print percents on the console
-		thePixel.print();
-
-		// Ensure all threads have finished
+		// Print percents on the console while waiting for the threads to finish
+		int percents = -1;
 		for (Thread thread : threads)
 			try {
-				thread.join();
+				while (thread.isAlive()) {
+					thread.join(PRINT_INTERVAL);
+					if (this.renderBudget > 0)
+						checkBudget(tiles.donePixels(), (long) nX * nY);
+					if (progress && tiles.percents() != percents) {
+						percents = tiles.percents();
+						System.out.printf("\r %02d%%", percents);
+						System.out.flush();
+					}
+				}
 			} catch (Exception e) {
 			}
 
-		if (print)
+		if (progress)
 			System.out.print("\r done 100%");
 	}
 
+	/**
+	 * Color the pixels of a tile, with a ray per pixel or with adaptive super
+	 * sampling. Adaptive super sampling first traces the corners of all the
+	 * pixels of the tile, so neighbor pixels share their corners, and only the
+	 * pixels whose corners differ are subdivided.
+	 * 
+	 * @param nX   resolution on X axis (number of pixels in row)
+	 * @param nY   resolution on Y axis (number of pixels in column)
+	 * @param col0 first column of the tile
+	 * @param row0 first row of the tile
+	 * @param col1 end column of the tile
+	 * @param row1 end row of the tile
+	 */
+	private void castTile(int nX, int nY, int col0, int row0, int col1, int row1) {
+		CameraRaster raster = camera.getRaster(nX, nY);
+		if (this.adaptiveDepth == 0) {
+			// the directions of a row of the tile at once, a ray per pixel
+			Point3D p0 = raster.getP0();
+			double[] directions = new double[3 * (col1 - col0)];
+			for (int row = row0; row < row1; ++row) {
+				raster.fillTile(col0, row, col1 - col0, 1, directions);
+				for (int col = col0, k = 0; col < col1; ++col, k += 3)
+					castRay(col, row, new Ray(p0, directions[k], directions[k + 1], directions[k + 2]));
+			}
+			return;
+		}
+		int cols = col1 - col0 + 1;
+		// corner (j, i) is the top left corner of pixel (j, i)
+		Color[] corners = new Color[cols * (row1 - row0 + 1)];
+		for (int i = row0, k = 0; i <= row1; ++i)
+			for (int j = col0; j <= col1; ++j, ++k) {
+				long before = rayTracer.getRayCount();
+				Sampler.current().startPixel(j, i);
+				corners[k] = rayTracer.traceRay(raster.constructRay(j - 0.5, i - 0.5));
+				// the rays of the corners after the last column and row go to the last pixels
+				countRays(Math.min(j, col1 - 1), Math.min(i, row1 - 1), before);
+			}
+		for (int row = row0; row < row1; ++row)
+			for (int col = col0; col < col1; ++col) {
+				int k = (row - row0) * cols + col - col0;
+				long before = rayTracer.getRayCount();
+				Sampler.current().startPixel(col, row);
+				imageWriter.writePixel(col, row, castSquare(raster, col - 0.5, row - 0.5, 1, corners[k],
+						corners[k + 1], corners[k + cols], corners[k + cols + 1], this.adaptiveDepth));
+				countRays(col, row, before);
+			}
+	}
+
+	/**
+	 * Color a square of the view plane from the colors of its corners. If the
+	 * corners differ by more than the threshold the square is cut into 4 squares
+	 * that share the 5 new samples between them.
+	 * 
+	 * @param raster      rays of the view plane
+	 * @param x           column of the top left corner
+	 * @param y           row of the top left corner
+	 * @param size        size of the square in pixels
+	 * @param topLeft     color of the top left corner
+	 * @param topRight    color of the top right corner
+	 * @param bottomLeft  color of the bottom left corner
+	 * @param bottomRight color of the bottom right corner
+	 * @param depth       amount of subdivisions left
+	 * @return the color of the square
+	 */
+	private Color castSquare(CameraRaster raster, double x, double y, double size, Color topLeft, Color topRight,
+			Color bottomLeft, Color bottomRight, int depth) {
+		if (depth == 0 || !contrast(topLeft, topRight, bottomLeft, bottomRight))
+			return topLeft.add(topRight, bottomLeft, bottomRight).reduce(4);
+		double half = size / 2;
+		Color top = rayTracer.traceRay(raster.constructRay(x + half, y));
+		Color left = rayTracer.traceRay(raster.constructRay(x, y + half));
+		Color center = rayTracer.traceRay(raster.constructRay(x + half, y + half));
+		Color right = rayTracer.traceRay(raster.constructRay(x + size, y + half));
+		Color bottom = rayTracer.traceRay(raster.constructRay(x + half, y + size));
+		return castSquare(raster, x, y, half, topLeft, top, left, center, depth - 1) //
+				.add(castSquare(raster, x + half, y, half, top, topRight, center, right, depth - 1), //
+						castSquare(raster, x, y + half, half, left, center, bottomLeft, bottom, depth - 1), //
+						castSquare(raster, x + half, y + half, half, center, right, bottom, bottomRight, depth - 1)) //
+				.reduce(4);
+	}
+
+	/**
+	 * check whether the colors of a square differ by more than the threshold in
+	 * any of red, green or blue
+	 * 
+	 * @param colors the colors
+	 * @return true if the square should be subdivided
+	 */
+	private boolean contrast(Color... colors) {
+		double minR = Double.MAX_VALUE, minG = Double.MAX_VALUE, minB = Double.MAX_VALUE;
+		double maxR = -Double.MAX_VALUE, maxG = -Double.MAX_VALUE, maxB = -Double.MAX_VALUE;
+		for (Color c : colors) {
+			minR = Math.min(minR, c.getRed());
+			maxR = Math.max(maxR, c.getRed());
+			minG = Math.min(minG, c.getGreen());
+			maxG = Math.max(maxG, c.getGreen());
+			minB = Math.min(minB, c.getBlue());
+			maxB = Math.max(maxB, c.getBlue());
+		}
+		return maxR - minR > this.adaptiveThreshold || maxG - minG > this.adaptiveThreshold
+				|| maxB - minB > this.adaptiveThreshold;
+	}
+
 	/**
 	 * Cast ray from camera in order to color a pixel
 	 * 
-	 * @param nX  resolution on X axis (number of pixels in row)
-	 * @param nY  resolution on Y axis (number of pixels in column)
 	 * @param col pixel's column number (pixel index in row)
 	 * @param row pixel's row number (pixel index in column)
+	 * @param ray ray through the center of the pixel
 	 */
-	private void castRay(int nX, int nY, int col, int row) {
-		// construct a ray
-		Ray ray = camera.constructRayThroughPixel(nX, nY, col, row);
+	private void castRay(int col, int row, Ray ray) {
+		long before = rayTracer.getRayCount();
+		// the random numbers of the pixel depend only on the seed and the pixel
+		Sampler.current().startPixel(col, row);
 		// for each ray it will receive a color
 		// The color will be written in the appropriate pixel in the image using the
 		// writePixel method
 		imageWriter.writePixel(col, row, rayTracer.traceRay(ray));
+		countRays(col, row, before);
+		if (!this.aovWriters.isEmpty())
+			writeAovs(col, row, ray);
+	}
+
+	/**
+	 * Cast a ray of a pass of progressive rendering and add its color to the sum
+	 * of the pixel
+	 * 
+	 * @param raster rays of the view plane
+	 * @param sums   sums of the colors of the pixels
+	 * @param col    pixel's column number
+	 * @param row    pixel's row number
+	 * @param pass   the pass, from 1
+	 * @return the change of the mean of the pixel, in the biggest of red, green
+	 *         and blue
+	 */
+	private double castSample(CameraRaster raster, ImageWriter sums, int col, int row, int pass) {
+		long before = rayTracer.getRayCount();
+		Sampler sampler = Sampler.current();
+		sampler.startPixel(col, row, pass - 1);
+		Ray ray = pass == 1 ? raster.constructRay(col, row)
+				: raster.constructRay(col + sampler.next(-0.5, 0.5), row + sampler.next(-0.5, 0.5));
+		Color color = rayTracer.traceRay(ray);
+		Color sum = sums.getPixel(col, row);
+		sums.addPixel(col, row, color);
+		countRays(col, row, before);
+		if (pass == 1) {
+			if (!this.aovWriters.isEmpty())
+				writeAovs(col, row, ray);
+			return 0;
+		}
+		// new mean - old mean = (color - old mean) / pass
+		Color mean = sum.reduce(pass - 1);
+		return Math.max(Math.abs(color.getRed() - mean.getRed()), Math.max(
+				Math.abs(color.getGreen() - mean.getGreen()), Math.abs(color.getBlue() - mean.getBlue()))) / pass;
+	}
+
+	/**
+	 * write the output variables of a pixel from the closest point of its ray,
+	 * that the ray tracer kept
+	 * 
+	 * @param col pixel's column number
+	 * @param row pixel's row number
+	 * @param ray the ray through the center of the pixel
+	 */
+	private void writeAovs(int col, int row, Ray ray) {
+		GeoPoint hit = this.rayTracer.getPrimaryHit();
+		for (Map.Entry<Aov, ImageWriter> aov : this.aovWriters.entrySet())
+			aov.getValue().writePixel(col, row, hit == null ? Color.BLACK : aovColor(aov.getKey(), hit, ray));
+	}
+
+	/**
+	 * get the value of an output variable at a point as a color
+	 * 
+	 * @param aov the output variable
+	 * @param hit the closest point of the ray
+	 * @param ray the ray
+	 * @return the value
+	 */
+	private static Color aovColor(Aov aov, GeoPoint hit, Ray ray) {
+		switch (aov) {
+		case DEPTH:
+			double distance = ray.getP0().distance(hit.point);
+			return new Color(distance, distance, distance);
+		case NORMAL:
+			Point3D n = hit.geometry.getNormal(hit.point).getHead();
+			return new Color((n.getX() + 1) * 127.5, (n.getY() + 1) * 127.5, (n.getZ() + 1) * 127.5);
+		case ALBEDO:
+			return hit.geometry.getEmission();
+		case MATERIAL_ID:
+			Material m = hit.geometry.getMaterial();
+			int id = Objects.hash(m.kD, m.kS, m.nShininess, m.kR, m.kT);
+			return new Color((id >>> 16) & 255, (id >>> 8) & 255, id & 255);
+		default:
+			throw new IllegalArgumentException("the ray count is not an output variable of a point");
+		}
 	}
 
 	/**
@@ -192,6 +718,95 @@ public class Render {
 		return this;
 	}
 
+	/**
+	 * Set the size of the square tiles that the threads render, small tiles
+	 * balance the work better and big tiles claim work less often
+	 * 
+	 * @param size width and height of a tile in pixels
+	 * @return the Render object itself
+	 */
+	public Render setTileSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Tile size must be positive");
+		this.tileSize = size;
+		return this;
+	}
+
+	/**
+	 * Set adaptive super sampling: the corners of every pixel are traced and a
+	 * pixel whose corners differ by more than the threshold is cut into 4 squares,
+	 * again and again up to the depth. Depth 2 gives edges like 4x4 super sampling
+	 * while flat pixels cost about a ray.
+	 * 
+	 * @param depth     max amount of subdivisions, 0 for a ray through the center
+	 *                  of every pixel
+	 * @param threshold the difference of red, green or blue (0-255) of the
+	 *                  corners that makes a square subdivide
+	 * @return the Render object itself
+	 */
+	public Render setAdaptiveSuperSampling(int depth, double threshold) {
+		if (depth < 0)
+			throw new IllegalArgumentException("Adaptive depth must be 0 or higher");
+		if (threshold < 0)
+			throw new IllegalArgumentException("Adaptive threshold must be 0 or higher");
+		this.adaptiveDepth = depth;
+		this.adaptiveThreshold = threshold;
+		return this;
+	}
+
+	/**
+	 * Set the stop conditions of progressive rendering
+	 * 
+	 * @param passes      max amount of passes
+	 * @param millis      milliseconds after which no pass starts, 0 for no limit
+	 * @param convergence mean change of the pixels in a pass (0-255) below which
+	 *                    the image is good enough, 0 to render all the passes
+	 * @return the Render object itself
+	 */
+	public Render setProgressiveBudget(int passes, long millis, double convergence) {
+		if (passes < 1)
+			throw new IllegalArgumentException("Progressive rendering needs at least one pass");
+		if (millis < 0 || convergence < 0)
+			throw new IllegalArgumentException("Time budget and convergence must be 0 or higher");
+		this.passBudget = passes;
+		this.timeBudget = millis;
+		this.convergence = convergence;
+		return this;
+	}
+
+	/**
+	 * Set a wall clock budget for renderImage. While rendering, the throughput is
+	 * measured and when the rest of the image would not be done in time the
+	 * quality is lowered one step - the beams and the recursion depth of the ray
+	 * tracer and then the adaptive super sampling. The knobs stay lowered after
+	 * the rendering, and the quality that was reached is written next to the
+	 * image.
+	 * 
+	 * @param millis milliseconds, 0 for no budget
+	 * @return the Render object itself
+	 */
+	public Render setRenderBudget(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Render budget must be 0 or higher");
+		this.renderBudget = millis;
+		return this;
+	}
+
+	/**
+	 * Set how often progressive rendering writes the image while rendering
+	 * 
+	 * @param passes passes between snapshots, 0 for no snapshots by passes
+	 * @param millis milliseconds between snapshots, 0 for no snapshots by time
+	 * @return the Render object itself
+	 */
+	public Render setSnapshots(int passes, long millis) {
+		if (passes < 0 || millis < 0)
+			throw new IllegalArgumentException("Snapshot intervals must be 0 or higher");
+		this.snapshotPasses = passes;
+		this.snapshotInterval = millis;
+		return this;
+	}
+
 	/**
 	 * Set debug printing on
 	 * 
@@ -214,126 +829,124 @@ public class Render {
 			throw new MissingResourceException("Image writer can not be empty", "Render", "imageWriter");
 		}
 		this.imageWriter.writeToImage();
+		if (this.rayCountWriter != null)
+			this.rayCountWriter.writeToImage();
+		for (ImageWriter aov : this.aovWriters.values())
+			aov.writeToImage();
+		if (this.quality != null)
+			this.imageWriter.writeProperties(this.quality);
 	}
 
 	/**
-	 * Pixel is an internal helper class whose objects are associated with a Render
-	 * object that they are generated in scope of. It is used for multiThreading in
-	 * the Renderer and for follow up its progress.<br/>
-	 * There is a main follow up object and several secondary objects - one in each
-	 * thread.
-	 * 
-	 * @author Dan
-	 *
+	 * Renders the pixels of a tile
 	 */
-	private class Pixel {
-		private long maxRows = 0;
-		private long maxCols = 0;
-		private long pixels = 0;
-		public volatile int row = 0;
-		public volatile int col = -1;
-		private long counter = 0;
-		private int percents = 0;
-		private long nextCounter = 0;
+	@FunctionalInterface
+	private interface TileCaster {
+		/**
+		 * render the pixels of a tile
+		 * 
+		 * @param col0 first column of the tile
+		 * @param row0 first row of the tile
+		 * @param col1 end column of the tile
+		 * @param row1 end row of the tile
+		 */
+		void cast(int col0, int row0, int col1, int row1);
+	}
 
+	/**
+	 * Tiles is an internal helper class that hands out the tiles of the image to
+	 * the threads without locking. A thread claims the next tile by incrementing an
+	 * atomic counter, and adds the pixels it finished to a second counter that is
+	 * only used for the progress percentage.
+	 */
+	private static class Tiles {
 		/**
-		 * The constructor for initializing the main follow up Pixel object
+		 * amount of pixel columns
+		 */
+		private final int maxCols;
+		/**
+		 * amount of pixel rows
+		 */
+		private final int maxRows;
+		/**
+		 * width and height of a tile
+		 */
+		private final int size;
+		/**
+		 * amount of tiles in a row of tiles
+		 */
+		private final int tilesInRow;
+		/**
+		 * amount of tiles in the image
+		 */
+		private final int tilesCount;
+		/**
+		 * index of the next tile to render
+		 */
+		private final AtomicInteger nextTile = new AtomicInteger();
+		/**
+		 * amount of pixels that were rendered
+		 */
+		private final AtomicLong donePixels = new AtomicLong();
+
+		/**
+		 * constructor of the tiles of an image
 		 * 
-		 * @param maxRows the amount of pixel rows
 		 * @param maxCols the amount of pixel columns
+		 * @param maxRows the amount of pixel rows
+		 * @param size    width and height of a tile
 		 */
-		public Pixel(int maxRows, int maxCols) {
-			this.maxRows = maxRows;
+		Tiles(int maxCols, int maxRows, int size) {
 			this.maxCols = maxCols;
-			this.pixels = (long) maxRows * maxCols;
-			this.nextCounter = this.pixels / 100;
-			if (Render.this.print)
-				System.out.printf("\r %02d%%", this.percents);
+			this.maxRows = maxRows;
+			this.size = size;
+			this.tilesInRow = (maxCols + size - 1) / size;
+			this.tilesCount = this.tilesInRow * ((maxRows + size - 1) / size);
 		}
 
 		/**
-		 * Default constructor for secondary Pixel objects
+		 * claim the next tile, the tiles at the right and bottom edges may be smaller
+		 * 
+		 * @param target array to copy the first column, first row, end column and end
+		 *               row of the tile into
+		 * @return true if a tile was claimed, false if the image is done
 		 */
-		public Pixel() {
+		boolean next(int[] target) {
+			int tile = this.nextTile.getAndIncrement();
+			if (tile >= this.tilesCount)
+				return false;
+			target[0] = tile % this.tilesInRow * this.size;
+			target[1] = tile / this.tilesInRow * this.size;
+			target[2] = Math.min(target[0] + this.size, this.maxCols);
+			target[3] = Math.min(target[1] + this.size, this.maxRows);
+			return true;
 		}
 
 		/**
-		 * Internal function for thread-safe manipulating of main follow up Pixel object
-		 * - this function is critical section for all the threads, and main Pixel
-		 * object data is the shared data of this critical section.<br/>
-		 * The function provides next pixel number each call.
+		 * report rendered pixels for the progress
 		 * 
-		 * @param target target secondary Pixel object to copy the row/column of the
-		 *               next pixel
-		 * @return the progress percentage for follow up: if it is 0 - nothing to print,
-		 *         if it is -1 - the task is finished, any other value - the progress
-		 *         percentage (only when it changes)
+		 * @param pixels amount of pixels
 		 */
-		private synchronized int nextP(Pixel target) {
-			++col;
-			++this.counter;
-			if (col < this.maxCols) {
-				target.row = this.row;
-				target.col = this.col;
-				if (Render.this.print && this.counter == this.nextCounter) {
-					++this.percents;
-					this.nextCounter = this.pixels * (this.percents + 1) / 100;
-					return this.percents;
-				}
-				return 0;
-			}
-			++row;
-			if (row < this.maxRows) {
-				col = 0;
-				target.row = this.row;
-				target.col = this.col;
-				if (Render.this.print && this.counter == this.nextCounter) {
-					++this.percents;
-					this.nextCounter = this.pixels * (this.percents + 1) / 100;
-					return this.percents;
-				}
-				return 0;
-			}
-			return -1;
+		void done(int pixels) {
+			this.donePixels.addAndGet(pixels);
 		}
 
 		/**
-		 * Public function for getting next pixel number into secondary Pixel object.
-		 * The function prints also progress percentage in the console window.
+		 * get the amount of pixels that were rendered
 		 * 
-		 * @param target target secondary Pixel object to copy the row/column of the
-		 *               next pixel
-		 * @return true if the work still in progress, -1 if it's done
+		 * @return amount of pixels
 		 */
-		public boolean nextPixel(Pixel target) {
-			int percent = nextP(target);
-			if (Render.this.print && percent > 0)
-				synchronized (this) {
-					notifyAll();
-				}
-			if (percent >= 0)
-				return true;
-			if (Render.this.print)
-				synchronized (this) {
-					notifyAll();
-				}
-			return false;
+		long donePixels() {
+			return this.donePixels.get();
 		}
 
 		/**
-		 * Debug print of progress percentage - must be run from the main thread
+		 * get the progress
+		 * 
+		 * @return percentage of the pixels that were rendered
 		 */
-		public void print() {
-			if (Render.this.print)
-				while (this.percents < 100)
-					try {
-						synchronized (this) {
-							wait();
-						}
-						System.out.printf("\r %02d%%", this.percents);
-						System.out.flush();
-					} catch (Exception e) {
-					}
+		int percents() {
+			return (int) (this.donePixels.get() * 100 / ((long) this.maxCols * this.maxRows));
 		}
 	}
 
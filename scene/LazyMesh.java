@@ -0,0 +1,157 @@
+package scene;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import geometries.BoundingBox;
+import geometries.Intersectable;
+import geometries.TriangleMesh;
+import primitives.Color;
+import primitives.Material;
+import primitives.Ray;
+
+/**
+ * Proxy of a triangle mesh in an OBJ or PLY file, the file is loaded on the
+ * first use of the mesh and not when the scene is loaded. A mesh whose box is
+ * known is loaded only when a ray reaches its box. The meshes of a scene whose
+ * boxes are not known are loaded together, by parallel threads, the first
+ * time that the box of one of them is asked, that is when the BVH of the
+ * scene is built.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public class LazyMesh implements Intersectable {
+	/**
+	 * the file, OBJ or PLY by its extension
+	 */
+	private final Path path;
+	/**
+	 * emission of the mesh
+	 */
+	private final Color emission;
+	/**
+	 * material of the mesh
+	 */
+	private final Material material;
+	/**
+	 * box of the mesh, null if it is not known before loading
+	 */
+	private final BoundingBox box;
+	/**
+	 * meshes that are loaded together when the box of one of them is asked, null
+	 * if the box is known
+	 */
+	private final List<LazyMesh> batch;
+	/**
+	 * the mesh, null until it is loaded
+	 */
+	private volatile TriangleMesh mesh;
+
+	/**
+	 * constructor of a proxy of a mesh file
+	 * 
+	 * @param path     the file, OBJ or PLY by its extension
+	 * @param emission emission of the mesh
+	 * @param material material of the mesh
+	 * @param box      box of the mesh, null if it is not known
+	 * @param batch    meshes of the scene that are loaded together when the box
+	 *                 of one of them is asked, it is used only if the box is not
+	 *                 known
+	 */
+	public LazyMesh(Path path, Color emission, Material material, BoundingBox box, List<LazyMesh> batch) {
+		this.path = path;
+		this.emission = emission;
+		this.material = material;
+		this.box = box;
+		this.batch = box == null ? batch : null;
+	}
+
+	/**
+	 * get the file of the mesh
+	 * 
+	 * @return the file
+	 */
+	public Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * check if the mesh was loaded
+	 * 
+	 * @return true if the file was loaded
+	 */
+	public boolean isLoaded() {
+		return this.mesh != null;
+	}
+
+	/**
+	 * get the mesh, loading the file if it was not loaded yet
+	 * 
+	 * @return the mesh
+	 * @throws UncheckedIOException if the file cannot be loaded
+	 */
+	public TriangleMesh getMesh() {
+		TriangleMesh m = this.mesh;
+		if (m != null)
+			return m;
+		synchronized (this) {
+			if (this.mesh == null) {
+				try {
+					String name = this.path.getFileName().toString().toLowerCase();
+					m = name.endsWith(".ply") ? PlyLoader.load(this.path) : ObjLoader.load(this.path);
+				} catch (IOException e) {
+					throw new UncheckedIOException("cannot load the mesh " + this.path, e);
+				}
+				this.mesh = m.setEmission(this.emission).setMaterial(this.material);
+			}
+			return this.mesh;
+		}
+	}
+
+	/**
+	 * get the box of the mesh, the meshes of the batch are loaded in parallel if
+	 * the box is not known
+	 * 
+	 * @return the box
+	 */
+	@Override
+	public BoundingBox getBoundingBox() {
+		if (this.box != null)
+			return this.box;
+		if (this.mesh == null && this.batch != null)
+			this.batch.parallelStream().forEach(LazyMesh::getMesh);
+		return getMesh().getBoundingBox();
+	}
+
+	/**
+	 * build the tree of the mesh if it was loaded or its box is not known, the
+	 * meshes of the batch are loaded together; a mesh whose box is known is
+	 * loaded and builds its tree when a ray reaches it
+	 */
+	@Override
+	public void buildBVH(int threads) {
+		if (this.box == null)
+			getBoundingBox();
+		TriangleMesh m = this.mesh;
+		if (m != null)
+			m.buildBVH(threads);
+	}
+
+	@Override
+	public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+		return getMesh().findGeoIntersections(ray, maxDistance);
+	}
+
+	@Override
+	public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+		return getMesh().findClosestGeoIntersection(ray, maxDistance);
+	}
+
+	@Override
+	public double findTransparency(Ray ray, double maxDistance, double minK) {
+		return getMesh().findTransparency(ray, maxDistance, minK);
+	}
+}
@@ -0,0 +1,476 @@
+package scene;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import geometries.TriangleMesh;
+
+/**
+ * Loader of Wavefront OBJ files into a triangle mesh. The file is memory
+ * mapped and the numbers are parsed straight from the mapped bytes into
+ * primitive arrays, without a String or an object per token. A big file is cut
+ * into chunks at line ends and the chunks are parsed by parallel threads, then
+ * the arrays of the chunks are joined.<br/>
+ * Only the vertices ("v") and the faces ("f") are read, a face of more than 3
+ * vertices is cut into a fan of triangles. Texture coordinates and normals of
+ * the face vertices ("v/vt/vn") are skipped, and negative (relative) indices
+ * are supported. All the other lines - normals, texture coordinates, groups,
+ * materials and comments - are ignored.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public final class ObjLoader {
+	/**
+	 * smallest chunk that is worth a thread of its own
+	 */
+	private static final long MIN_CHUNK = 4 << 20;
+	/**
+	 * biggest chunk, a mapping is limited to 2GB
+	 */
+	private static final long MAX_CHUNK = 1 << 30;
+	/**
+	 * powers of ten that are exact doubles
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * the loader has only static methods
+	 */
+	private ObjLoader() {
+	}
+
+	/**
+	 * load a mesh from an OBJ file, with a thread per chunk of at least 4MB up to
+	 * the amount of the processors
+	 * 
+	 * @param path the file
+	 * @return the mesh
+	 * @throws IOException              if the file cannot be read or a number is
+	 *                                  wrong
+	 * @throws IllegalArgumentException if the file has no faces or a face has a
+	 *                                  wrong index
+	 */
+	public static TriangleMesh load(Path path) throws IOException {
+		long size = path.toFile().length();
+		int processors = Runtime.getRuntime().availableProcessors();
+		return load(path, (int) Math.max(1, Math.min(processors, size / MIN_CHUNK)));
+	}
+
+	/**
+	 * load a mesh from an OBJ file in a given amount of chunks that are parsed in
+	 * parallel
+	 * 
+	 * @param path   the file
+	 * @param chunks amount of chunks, more chunks are used if a chunk would be
+	 *               bigger than 1GB
+	 * @return the mesh
+	 * @throws IOException              if the file cannot be read or a number is
+	 *                                  wrong
+	 * @throws IllegalArgumentException if the file has no faces or a face has a
+	 *                                  wrong index
+	 */
+	public static TriangleMesh load(Path path, int chunks) throws IOException {
+		if (chunks < 1)
+			throw new IllegalArgumentException("need at least one chunk");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			chunks = (int) Math.max(chunks, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+			long[] starts = lineStarts(channel, size, chunks);
+			Chunk[] parsed = new Chunk[starts.length - 1];
+			for (int k = 0; k < parsed.length; ++k)
+				parsed[k] = new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, starts[k], starts[k + 1] - starts[k]),
+						starts[k]);
+			parse(parsed);
+			return join(parsed);
+		}
+	}
+
+	/**
+	 * find where the chunks start: the first chunk starts at the start of the
+	 * file and every other chunk at the first line after its share of the file
+	 * 
+	 * @param channel the file
+	 * @param size    size of the file
+	 * @param chunks  amount of chunks
+	 * @return the starts of the chunks that are not empty, and the size of the
+	 *         file at the end
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long[] lineStarts(FileChannel channel, long size, int chunks) throws IOException {
+		long[] starts = new long[chunks + 1];
+		int count = 1;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (int k = 1; k < chunks; ++k) {
+			long position = Math.max(size * k / chunks, starts[count - 1]);
+			// the chunk starts after the next line end
+			boolean found = false;
+			while (!found && position < size) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				for (int i = 0; i < read && !found; ++i, ++position)
+					found = buffer.get(i) == '\n';
+			}
+			if (position >= size)
+				break;
+			if (position > starts[count - 1])
+				starts[count++] = position;
+		}
+		starts[count++] = size;
+		return Arrays.copyOf(starts, count);
+	}
+
+	/**
+	 * parse the chunks, each chunk in its own thread
+	 * 
+	 * @param chunks the chunks
+	 * @throws IOException if a number is wrong
+	 */
+	private static void parse(Chunk[] chunks) throws IOException {
+		if (chunks.length == 1) {
+			chunks[0].parse();
+			return;
+		}
+		IOException[] errors = new IOException[chunks.length];
+		Thread[] threads = new Thread[chunks.length];
+		for (int k = 0; k < chunks.length; ++k) {
+			final int chunk = k;
+			threads[k] = new Thread(() -> {
+				try {
+					chunks[chunk].parse();
+				} catch (IOException e) {
+					errors[chunk] = e;
+				}
+			});
+			threads[k].start();
+		}
+		for (Thread thread : threads)
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("loading was interrupted", e);
+			}
+		for (IOException error : errors)
+			if (error != null)
+				throw error;
+	}
+
+	/**
+	 * join the vertices and faces of the chunks into a mesh, the relative indices
+	 * of a chunk are moved by the vertices of the chunks before it
+	 * 
+	 * @param chunks the parsed chunks
+	 * @return the mesh
+	 */
+	private static TriangleMesh join(Chunk[] chunks) {
+		int vertexValues = 0, faceValues = 0;
+		for (Chunk chunk : chunks) {
+			vertexValues += chunk.vertexValues;
+			faceValues += chunk.faceValues;
+		}
+		double[] vertices = new double[vertexValues];
+		int[] faces = new int[faceValues];
+		vertexValues = 0;
+		faceValues = 0;
+		for (Chunk chunk : chunks) {
+			System.arraycopy(chunk.vertices, 0, vertices, vertexValues, chunk.vertexValues);
+			System.arraycopy(chunk.faces, 0, faces, faceValues, chunk.faceValues);
+			int offset = vertexValues / 3;
+			for (int i = 0; i < chunk.relativeCount; ++i)
+				faces[faceValues + chunk.relative[i]] += offset;
+			vertexValues += chunk.vertexValues;
+			faceValues += chunk.faceValues;
+		}
+		return new TriangleMesh(vertices, faces);
+	}
+
+	/**
+	 * A chunk of whole lines of the file and the vertices and faces that were
+	 * parsed from it
+	 */
+	private static class Chunk {
+		/**
+		 * the mapped bytes of the chunk
+		 */
+		private final MappedByteBuffer bytes;
+		/**
+		 * position of the chunk in the file, for the errors
+		 */
+		private final long start;
+		/**
+		 * position of the parser in the chunk
+		 */
+		private int pos;
+		/**
+		 * coordinates of the vertices, 3 values per vertex
+		 */
+		private double[] vertices = new double[3 * 1024];
+		/**
+		 * used values of the vertices
+		 */
+		private int vertexValues;
+		/**
+		 * indices of the vertices of the triangles, 3 values per triangle
+		 */
+		private int[] faces = new int[3 * 1024];
+		/**
+		 * used values of the faces
+		 */
+		private int faceValues;
+		/**
+		 * positions in the faces of relative indices, they are indices in the
+		 * vertices of the chunk and may be negative when they are in a chunk before
+		 */
+		private int[] relative = new int[16];
+		/**
+		 * used positions of relative indices
+		 */
+		private int relativeCount;
+
+		/**
+		 * constructor of a chunk
+		 * 
+		 * @param bytes the mapped bytes of the chunk
+		 * @param start position of the chunk in the file
+		 */
+		Chunk(MappedByteBuffer bytes, long start) {
+			this.bytes = bytes;
+			this.start = start;
+		}
+
+		/**
+		 * parse the lines of the chunk
+		 * 
+		 * @throws IOException if a number is wrong
+		 */
+		void parse() throws IOException {
+			int limit = this.bytes.limit();
+			while (this.pos < limit) {
+				skipSpaces();
+				if (this.pos + 1 < limit && isSpace(this.bytes.get(this.pos + 1))) {
+					byte c = this.bytes.get(this.pos);
+					if (c == 'v') {
+						++this.pos;
+						parseVertex();
+					} else if (c == 'f') {
+						++this.pos;
+						parseFace();
+					}
+				}
+				// skip the rest of the line
+				while (this.pos < limit && this.bytes.get(this.pos++) != '\n')
+					;
+			}
+		}
+
+		/**
+		 * parse the coordinates of a vertex, the weight and colors after them are
+		 * ignored
+		 * 
+		 * @throws IOException if a number is wrong
+		 */
+		private void parseVertex() throws IOException {
+			if (this.vertexValues + 3 > this.vertices.length)
+				this.vertices = Arrays.copyOf(this.vertices, 2 * this.vertices.length);
+			this.vertices[this.vertexValues] = parseDouble();
+			this.vertices[this.vertexValues + 1] = parseDouble();
+			this.vertices[this.vertexValues + 2] = parseDouble();
+			this.vertexValues += 3;
+		}
+
+		/**
+		 * parse the vertices of a face into a fan of triangles
+		 * 
+		 * @throws IOException if an index is wrong
+		 */
+		private void parseFace() throws IOException {
+			int first = parseIndex();
+			int previous = parseIndex();
+			for (;;) {
+				skipSpaces();
+				if (isEndOfLine())
+					break;
+				int current = parseIndex();
+				if (this.faceValues + 3 > this.faces.length)
+					this.faces = Arrays.copyOf(this.faces, 2 * this.faces.length);
+				addIndex(first);
+				addIndex(previous);
+				addIndex(current);
+				previous = current;
+			}
+		}
+
+		/**
+		 * add an index to the faces, a relative index is remembered so it is moved
+		 * when the chunks are joined
+		 * 
+		 * @param index the index, negative for a relative index as given by
+		 *              parseIndex
+		 */
+		private void addIndex(int index) {
+			if (index < 0) {
+				if (this.relativeCount == this.relative.length)
+					this.relative = Arrays.copyOf(this.relative, 2 * this.relative.length);
+				this.relative[this.relativeCount++] = this.faceValues;
+				// index in the vertices of the chunk
+				index += this.vertexValues / 3;
+			}
+			this.faces[this.faceValues++] = index;
+		}
+
+		/**
+		 * parse the vertex index of a face vertex, skipping its texture and normal
+		 * indices
+		 * 
+		 * @return the index from 0, or -k for the k'th vertex back from the last
+		 *         vertex that was parsed so far
+		 * @throws IOException if the index is wrong
+		 */
+		private int parseIndex() throws IOException {
+			skipSpaces();
+			int position = this.pos;
+			int limit = this.bytes.limit();
+			boolean negative = this.pos < limit && this.bytes.get(this.pos) == '-';
+			if (negative)
+				++this.pos;
+			long index = 0;
+			int digits = 0;
+			while (this.pos < limit && isDigit(this.bytes.get(this.pos))) {
+				index = index * 10 + this.bytes.get(this.pos++) - '0';
+				if (index > Integer.MAX_VALUE)
+					throw error("index is too big", position);
+				++digits;
+			}
+			if (digits == 0 || index == 0)
+				throw error("wrong index", position);
+			// skip the texture and normal indices
+			while (this.pos < limit && !isSpace(this.bytes.get(this.pos)))
+				++this.pos;
+			return negative ? (int) -index : (int) index - 1;
+		}
+
+		/**
+		 * parse a decimal number. Numbers of up to 15 digits and with a power of
+		 * ten up to 22 are computed from a long with a single rounding, like
+		 * Double.parseDouble, and the rare other numbers are given to
+		 * Double.parseDouble
+		 * 
+		 * @return the number
+		 * @throws IOException if the number is wrong
+		 */
+		private double parseDouble() throws IOException {
+			skipSpaces();
+			int position = this.pos;
+			int limit = this.bytes.limit();
+			boolean negative = false;
+			if (this.pos < limit && (this.bytes.get(this.pos) == '-' || this.bytes.get(this.pos) == '+'))
+				negative = this.bytes.get(this.pos++) == '-';
+			long mantissa = 0;
+			int significant = 0, digits = 0, exponent = 0;
+			boolean fraction = false;
+			for (; this.pos < limit; ++this.pos) {
+				byte c = this.bytes.get(this.pos);
+				if (c == '.' && !fraction) {
+					fraction = true;
+					continue;
+				}
+				if (!isDigit(c))
+					break;
+				++digits;
+				if (mantissa == 0 && c == '0') {
+					// leading zeros are not significant
+					if (fraction)
+						--exponent;
+					continue;
+				}
+				if (++significant <= 18)
+					mantissa = mantissa * 10 + c - '0';
+				if (fraction)
+					--exponent;
+			}
+			if (digits == 0)
+				throw error("wrong number", position);
+			if (this.pos < limit && (this.bytes.get(this.pos) | 0x20) == 'e') {
+				++this.pos;
+				boolean negativeExponent = false;
+				if (this.pos < limit && (this.bytes.get(this.pos) == '-' || this.bytes.get(this.pos) == '+'))
+					negativeExponent = this.bytes.get(this.pos++) == '-';
+				int e = 0, exponentDigits = 0;
+				while (this.pos < limit && isDigit(this.bytes.get(this.pos))) {
+					e = Math.min(e * 10 + this.bytes.get(this.pos++) - '0', 100000);
+					++exponentDigits;
+				}
+				if (exponentDigits == 0)
+					throw error("wrong exponent", position);
+				exponent += negativeExponent ? -e : e;
+			}
+			double value;
+			if (significant > 15 || exponent < -22 || exponent > 22) {
+				// the rare numbers that a single rounding cannot give
+				byte[] text = new byte[this.pos - position];
+				this.bytes.get(position, text);
+				value = Math.abs(Double.parseDouble(new String(text, StandardCharsets.US_ASCII)));
+			} else
+				value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+
+		/**
+		 * skip spaces and tabs
+		 */
+		private void skipSpaces() {
+			int limit = this.bytes.limit();
+			while (this.pos < limit && (this.bytes.get(this.pos) == ' ' || this.bytes.get(this.pos) == '\t'))
+				++this.pos;
+		}
+
+		/**
+		 * check whether the parser is at the end of the line
+		 * 
+		 * @return true at the end of the line or of the chunk
+		 */
+		private boolean isEndOfLine() {
+			return this.pos >= this.bytes.limit() || this.bytes.get(this.pos) == '\n'
+					|| this.bytes.get(this.pos) == '\r' || this.bytes.get(this.pos) == '#';
+		}
+
+		/**
+		 * build the error of a wrong token
+		 * 
+		 * @param message  what is wrong
+		 * @param position position of the token in the chunk
+		 * @return the error
+		 */
+		private IOException error(String message, int position) {
+			return new IOException(message + " at byte " + (this.start + position));
+		}
+	}
+
+	/**
+	 * check whether a byte is a digit
+	 * 
+	 * @param c the byte
+	 * @return true for 0..9
+	 */
+	private static boolean isDigit(byte c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * check whether a byte ends a token
+	 * 
+	 * @param c the byte
+	 * @return true for a space, a tab or a line end
+	 */
+	private static boolean isSpace(byte c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+	}
+}
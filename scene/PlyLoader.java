@@ -0,0 +1,408 @@
+package scene;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import geometries.TriangleMesh;
+
+/**
+ * Loader of binary little endian PLY files into a triangle mesh. The text
+ * header is parsed into the elements and their properties, then the file is
+ * memory mapped and the values are read straight from the mapped bytes by
+ * their offsets into primitive arrays, without an object per vertex or face.<br/>
+ * Only x, y and z of the "vertex" element and the "vertex_indices" (or
+ * "vertex_index") list of the "face" element are read, a face of more than 3
+ * vertices is cut into a fan of triangles. All the other properties and
+ * elements - normals, colors, edges - are skipped by their sizes.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public final class PlyLoader {
+	/**
+	 * biggest file, a mapping is limited to 2GB
+	 */
+	private static final long MAX_SIZE = Integer.MAX_VALUE;
+	/**
+	 * biggest header that is searched for its end
+	 */
+	private static final int MAX_HEADER = 1 << 16;
+
+	/**
+	 * types of the values of the properties
+	 */
+	private enum Type {
+		/**
+		 * signed byte
+		 */
+		CHAR(1, "char", "int8"),
+		/**
+		 * unsigned byte
+		 */
+		UCHAR(1, "uchar", "uint8"),
+		/**
+		 * signed 16 bit
+		 */
+		SHORT(2, "short", "int16"),
+		/**
+		 * unsigned 16 bit
+		 */
+		USHORT(2, "ushort", "uint16"),
+		/**
+		 * signed 32 bit
+		 */
+		INT(4, "int", "int32"),
+		/**
+		 * unsigned 32 bit
+		 */
+		UINT(4, "uint", "uint32"),
+		/**
+		 * 32 bit floating point
+		 */
+		FLOAT(4, "float", "float32"),
+		/**
+		 * 64 bit floating point
+		 */
+		DOUBLE(8, "double", "float64");
+
+		/**
+		 * size in bytes
+		 */
+		final int size;
+		/**
+		 * names of the type in a header
+		 */
+		private final String[] names;
+
+		/**
+		 * constructor of a type
+		 * 
+		 * @param size  size in bytes
+		 * @param names names of the type in a header
+		 */
+		Type(int size, String... names) {
+			this.size = size;
+			this.names = names;
+		}
+
+		/**
+		 * find a type by its name
+		 * 
+		 * @param name name in the header
+		 * @return the type
+		 * @throws IOException if there is no such type
+		 */
+		static Type of(String name) throws IOException {
+			for (Type type : values())
+				for (String n : type.names)
+					if (n.equals(name))
+						return type;
+			throw new IOException("unknown PLY type " + name);
+		}
+
+		/**
+		 * read a value as a double
+		 * 
+		 * @param bytes    the bytes, little endian
+		 * @param position position of the value
+		 * @return the value
+		 */
+		double get(ByteBuffer bytes, int position) {
+			switch (this) {
+			case CHAR:
+				return bytes.get(position);
+			case UCHAR:
+				return bytes.get(position) & 0xff;
+			case SHORT:
+				return bytes.getShort(position);
+			case USHORT:
+				return bytes.getShort(position) & 0xffff;
+			case INT:
+				return bytes.getInt(position);
+			case UINT:
+				return bytes.getInt(position) & 0xffffffffL;
+			case FLOAT:
+				return bytes.getFloat(position);
+			default:
+				return bytes.getDouble(position);
+			}
+		}
+
+		/**
+		 * read a value as a whole number, for counts and indices
+		 * 
+		 * @param bytes    the bytes, little endian
+		 * @param position position of the value
+		 * @return the value
+		 * @throws IOException if the value is not a whole number of an int
+		 */
+		int getInt(ByteBuffer bytes, int position) throws IOException {
+			double value = get(bytes, position);
+			if (value != (int) value)
+				throw new IOException("value " + value + " is not an index");
+			return (int) value;
+		}
+	}
+
+	/**
+	 * property of an element
+	 */
+	private static class Property {
+		/**
+		 * name of the property
+		 */
+		final String name;
+		/**
+		 * type of the value, or of the items of a list
+		 */
+		final Type type;
+		/**
+		 * type of the count of a list, null if the property is not a list
+		 */
+		final Type countType;
+
+		/**
+		 * constructor of a property
+		 * 
+		 * @param name      name
+		 * @param type      type of the value or the items
+		 * @param countType type of the count of a list, null if it is not a list
+		 */
+		Property(String name, Type type, Type countType) {
+			this.name = name;
+			this.type = type;
+			this.countType = countType;
+		}
+	}
+
+	/**
+	 * element of the header: a name, an amount of items and the properties of an
+	 * item
+	 */
+	private static class Element {
+		/**
+		 * name of the element
+		 */
+		final String name;
+		/**
+		 * amount of items
+		 */
+		final int count;
+		/**
+		 * properties of an item, in their order in the file
+		 */
+		final List<Property> properties = new ArrayList<>();
+
+		/**
+		 * constructor of an element
+		 * 
+		 * @param name  name
+		 * @param count amount of items
+		 */
+		Element(String name, int count) {
+			this.name = name;
+			this.count = count;
+		}
+
+		/**
+		 * get the least amount of bytes of an item, the lists being empty
+		 * 
+		 * @return the bytes
+		 */
+		int minSize() {
+			int size = 0;
+			for (Property property : this.properties)
+				size += property.countType == null ? property.type.size : property.countType.size;
+			return size;
+		}
+
+		/**
+		 * find a property by its name
+		 * 
+		 * @param names names of the property
+		 * @return index of the property, -1 if there is none
+		 */
+		int find(String... names) {
+			for (int i = 0; i < this.properties.size(); ++i)
+				for (String n : names)
+					if (this.properties.get(i).name.equals(n))
+						return i;
+			return -1;
+		}
+	}
+
+	/**
+	 * the loader has only static methods
+	 */
+	private PlyLoader() {
+	}
+
+	/**
+	 * load a mesh from a binary little endian PLY file
+	 * 
+	 * @param path the file
+	 * @return the mesh
+	 * @throws IOException              if the file cannot be read, is not a
+	 *                                  binary little endian PLY or is shorter
+	 *                                  than its header says
+	 * @throws IllegalArgumentException if the file has no faces or a face has a
+	 *                                  wrong index
+	 */
+	public static TriangleMesh load(Path path) throws IOException {
+		ByteBuffer bytes;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > MAX_SIZE)
+				throw new IOException("a PLY file is limited to 2GB");
+			bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		List<Element> elements = new ArrayList<>();
+		int position = parseHeader(bytes, elements);
+
+		double[] vertices = null;
+		int[] faces = new int[0];
+		int faceValues = 0;
+		try {
+			for (Element element : elements) {
+				int x = element.find("x"), y = element.find("y"), z = element.find("z");
+				int list = element.find("vertex_indices", "vertex_index");
+				boolean isVertex = element.name.equals("vertex") && vertices == null;
+				boolean isFace = element.name.equals("face") && list >= 0
+						&& element.properties.get(list).countType != null;
+				// a broken count must not allocate arrays, even of a negative size
+				if ((long) element.count * element.minSize() > bytes.limit() - position
+						|| isFace && faceValues + 3L * element.count > Integer.MAX_VALUE - 8)
+					throw new IOException("the file is shorter than its header");
+				if (isVertex) {
+					if (x < 0 || y < 0 || z < 0)
+						throw new IOException("the vertices have no x, y and z");
+					vertices = new double[3 * element.count];
+				}
+				if (isFace)
+					faces = Arrays.copyOf(faces, faceValues + 3 * element.count);
+
+				int[] values = { x, y, z };
+				for (int item = 0; item < element.count; ++item) {
+					for (int p = 0; p < element.properties.size(); ++p) {
+						Property property = element.properties.get(p);
+						if (property.countType == null) {
+							if (isVertex)
+								for (int axis = 0; axis < 3; ++axis)
+									if (values[axis] == p)
+										vertices[3 * item + axis] = property.type.get(bytes, position);
+							position += property.type.size;
+							continue;
+						}
+						int count = property.countType.getInt(bytes, position);
+						position += property.countType.size;
+						if (count < 0 || (long) count * property.type.size > bytes.limit() - position)
+							throw new IOException("wrong size of a list " + count);
+						if (isFace && p == list) {
+							if (count < 3)
+								throw new IOException("a face needs at least 3 vertices");
+							// fan of triangles from the first vertex
+							int needed = faceValues + 3 * (count - 2);
+							if (needed > faces.length)
+								faces = Arrays.copyOf(faces, Math.max(needed, 2 * faces.length));
+							int first = property.type.getInt(bytes, position);
+							int previous = property.type.getInt(bytes, position + property.type.size);
+							for (int k = 2; k < count; ++k) {
+								int current = property.type.getInt(bytes, position + k * property.type.size);
+								faces[faceValues++] = first;
+								faces[faceValues++] = previous;
+								faces[faceValues++] = current;
+								previous = current;
+							}
+						}
+						position += count * property.type.size;
+					}
+				}
+			}
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("the file is shorter than its header", e);
+		}
+		if (vertices == null)
+			throw new IOException("the file has no vertices");
+		return new TriangleMesh(vertices, Arrays.copyOf(faces, faceValues));
+	}
+
+	/**
+	 * parse the text header into its elements
+	 * 
+	 * @param bytes    the file
+	 * @param elements list that the elements are added to
+	 * @return position of the data after the header
+	 * @throws IOException if the header is wrong or is not of a binary little
+	 *                     endian file
+	 */
+	private static int parseHeader(ByteBuffer bytes, List<Element> elements) throws IOException {
+		int limit = Math.min(bytes.limit(), MAX_HEADER);
+		int position = 0;
+		int lineNumber = 0;
+		boolean format = false;
+		while (true) {
+			int end = position;
+			while (end < limit && bytes.get(end) != '\n')
+				++end;
+			if (end == limit)
+				throw new IOException("the PLY header has no end");
+			byte[] line = new byte[end - position];
+			bytes.get(position, line);
+			String[] words = new String(line, StandardCharsets.US_ASCII).trim().split("\\s+");
+			position = end + 1;
+			++lineNumber;
+
+			if (lineNumber == 1) {
+				if (!words[0].equals("ply"))
+					throw new IOException("the file is not a PLY file");
+				continue;
+			}
+			switch (words[0]) {
+			case "format":
+				if (words.length < 2 || !words[1].equals("binary_little_endian"))
+					throw new IOException("only binary little endian PLY is supported");
+				format = true;
+				break;
+			case "element":
+				if (words.length != 3)
+					throw new IOException("wrong element in line " + lineNumber);
+				int count;
+				try {
+					count = Integer.parseInt(words[2]);
+				} catch (NumberFormatException e) {
+					throw new IOException("wrong element size in line " + lineNumber, e);
+				}
+				if (count < 0)
+					throw new IOException("wrong element size in line " + lineNumber);
+				elements.add(new Element(words[1], count));
+				break;
+			case "property":
+				if (elements.isEmpty())
+					throw new IOException("property without an element in line " + lineNumber);
+				List<Property> properties = elements.get(elements.size() - 1).properties;
+				if (words.length == 5 && words[1].equals("list"))
+					properties.add(new Property(words[4], Type.of(words[3]), Type.of(words[2])));
+				else if (words.length == 3)
+					properties.add(new Property(words[2], Type.of(words[1]), null));
+				else
+					throw new IOException("wrong property in line " + lineNumber);
+				break;
+			case "end_header":
+				if (!format)
+					throw new IOException("the PLY header has no format");
+				return position;
+			default:
+				// comments, obj_info and empty lines
+				break;
+			}
+		}
+	}
+}
@@ -36,6 +36,10 @@ public class Scene {
 	 * list of lights sources
 	 */
 	public List<LightSource> lights;
+	/**
+	 * camera of the scene, null if the scene has no camera of its own
+	 */
+	public Camera camera;
 
 	/**
 	 * constructor
@@ -93,4 +97,15 @@ public class Scene {
 		this.lights = source;
 		return this;
 	}
+
+	/**
+	 * set the camera
+	 * 
+	 * @param c camera
+	 * @return object of the scene
+	 */
+	public Scene setCamera(Camera c) {
+		this.camera = c;
+		return this;
+	}
 }
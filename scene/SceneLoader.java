@@ -0,0 +1,443 @@
+package scene;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+
+/**
+ * Loader of a scene from an XML description, so a scene can be changed or
+ * generated without compiling Java code. The root element is
+ * {@code <scene name="..." background="r g b">} and its children are:
+ * <ul>
+ * <li>{@code <ambient-light color="r g b" k="..."/>}</li>
+ * <li>{@code <camera position="x y z" to="x y z" up="x y z" width="..."
+ * height="..." distance="..."/>}, the view plane is optional</li>
+ * <li>{@code <material id="..." kd="..." ks="..." shininess="..." kr="..."
+ * kt="..."/>}, every coefficient is optional and 0 by default</li>
+ * <li>{@code <point-light color="r g b" position="x y z" kc="..." kl="..."
+ * kq="..."/>}, {@code <spot-light>} with a direction="x y z" too and
+ * {@code <directional-light color="r g b" direction="x y z"/>}</li>
+ * <li>{@code <geometries>} of {@code <sphere center="x y z" radius="..."/>},
+ * {@code <plane point="x y z" normal="x y z"/>},
+ * {@code <triangle points="x y z x y z x y z"/>},
+ * {@code <polygon points="x y z ..."/>},
+ * {@code <tube origin="x y z" direction="x y z" radius="..."/>},
+ * {@code <cylinder>} with a height="..." too,
+ * {@code <mesh vertices="x y z ..." faces="i j k ..."/>} and nested
+ * {@code <geometries>}</li>
+ * </ul>
+ * Every geometry may have an emission="r g b" and a material="id" of a
+ * material that was defined before it, geometries with the same id share the
+ * material. A big mesh is referenced by a file instead,
+ * {@code <mesh file="model.obj"/>} (OBJ or PLY by the extension, relative to
+ * the scene file), and becomes a {@link LazyMesh} that is loaded on its first
+ * use. A box="x0 y0 z0 x1 y1 z1" of the mesh delays the loading until a ray
+ * reaches the box.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public final class SceneLoader {
+	/**
+	 * the loader has only static methods
+	 */
+	private SceneLoader() {
+	}
+
+	/**
+	 * state of loading one scene
+	 */
+	private static class Context {
+		/**
+		 * directory that the mesh files are relative to
+		 */
+		final Path directory;
+		/**
+		 * materials by their id
+		 */
+		final Map<String, Material> materials = new HashMap<>();
+		/**
+		 * meshes without a box, that are loaded together
+		 */
+		final List<LazyMesh> batch = new ArrayList<>();
+
+		/**
+		 * constructor of the state
+		 * 
+		 * @param directory directory that the mesh files are relative to
+		 */
+		Context(Path directory) {
+			this.directory = directory;
+		}
+	}
+
+	/**
+	 * load a scene from an XML file, the meshes of the files are not loaded yet
+	 * 
+	 * @param path the file
+	 * @return the scene
+	 * @throws IOException              if the file cannot be read or its content
+	 *                                  is wrong
+	 * @throws IllegalArgumentException if a geometry, a light or the camera is
+	 *                                  wrong
+	 */
+	public static Scene load(Path path) throws IOException {
+		Path directory = path.toAbsolutePath().getParent();
+		try (InputStream in = Files.newInputStream(path)) {
+			return load(in, directory);
+		}
+	}
+
+	/**
+	 * load a scene from an XML stream, the meshes of the files are not loaded yet
+	 * 
+	 * @param in        the stream
+	 * @param directory directory that the mesh files are relative to
+	 * @return the scene
+	 * @throws IOException              if the stream cannot be read or its
+	 *                                  content is wrong
+	 * @throws IllegalArgumentException if a geometry, a light or the camera is
+	 *                                  wrong
+	 */
+	public static Scene load(InputStream in, Path directory) throws IOException {
+		Element root;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			// a scene has no DTD, so no entity of another file is read
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			// errors are thrown and not printed, recoverable errors too
+			builder.setErrorHandler(new DefaultHandler() {
+				@Override
+				public void error(SAXParseException e) throws SAXException {
+					throw e;
+				}
+			});
+			root = builder.parse(in).getDocumentElement();
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("wrong XML: " + e.getMessage(), e);
+		}
+		if (!root.getTagName().equals("scene"))
+			throw new IOException("the root is not a scene");
+
+		Context context = new Context(directory);
+		Scene scene = new Scene(root.getAttribute("name"));
+		if (root.hasAttribute("background"))
+			scene.setBackground(color(root, "background"));
+		for (Element child : children(root)) {
+			switch (child.getTagName()) {
+			case "ambient-light":
+				scene.setAmbientLight(new AmbientLight(color(child, "color"), number(child, "k", 1)));
+				break;
+			case "camera":
+				scene.setCamera(camera(child));
+				break;
+			case "material":
+				String id = child.getAttribute("id");
+				if (id.isEmpty())
+					throw new IOException("a material has no id");
+				context.materials.put(id, material(child));
+				break;
+			case "point-light":
+			case "spot-light":
+			case "directional-light":
+				scene.lights.add(light(child));
+				break;
+			case "geometries":
+				geometries(child, context, scene.geometries);
+				break;
+			default:
+				throw new IOException("unknown element " + child.getTagName() + " in the scene");
+			}
+		}
+		return scene;
+	}
+
+	/**
+	 * build a camera
+	 * 
+	 * @param element the camera element
+	 * @return the camera
+	 * @throws IOException if a value is wrong
+	 */
+	private static Camera camera(Element element) throws IOException {
+		Camera camera = new Camera(point(element, "position"), new Vector(point(element, "to")),
+				new Vector(point(element, "up")));
+		if (element.hasAttribute("width") || element.hasAttribute("height"))
+			camera.setViewPlaneSize(number(element, "width"), number(element, "height"));
+		if (element.hasAttribute("distance"))
+			camera.setDistance(number(element, "distance"));
+		return camera;
+	}
+
+	/**
+	 * build a material
+	 * 
+	 * @param element the material element
+	 * @return the material
+	 * @throws IOException if a value is wrong
+	 */
+	private static Material material(Element element) throws IOException {
+		return new Material().setKd(number(element, "kd", 0)).setKs(number(element, "ks", 0))
+				.setShininess((int) number(element, "shininess", 0)).setKr(number(element, "kr", 0))
+				.setKt(number(element, "kt", 0));
+	}
+
+	/**
+	 * build a light
+	 * 
+	 * @param element the light element
+	 * @return the light
+	 * @throws IOException if a value is wrong
+	 */
+	private static LightSource light(Element element) throws IOException {
+		Color color = color(element, "color");
+		if (element.getTagName().equals("directional-light"))
+			return new DirectionalLight(color, new Vector(point(element, "direction")));
+		Point3D position = point(element, "position");
+		double kC = number(element, "kc", 1), kL = number(element, "kl", 0), kQ = number(element, "kq", 0);
+		if (element.getTagName().equals("spot-light"))
+			return new SpotLight(color, position, kC, kL, kQ, new Vector(point(element, "direction")));
+		return new PointLight(color, position, kC, kL, kQ);
+	}
+
+	/**
+	 * add the geometries of an element to a collection, a nested geometries
+	 * element is a nested collection
+	 * 
+	 * @param element    the geometries element
+	 * @param context    state of the scene
+	 * @param geometries the collection
+	 * @throws IOException if an element or a value is wrong
+	 */
+	private static void geometries(Element element, Context context, Geometries geometries) throws IOException {
+		for (Element child : children(element)) {
+			if (child.getTagName().equals("geometries")) {
+				Geometries nested = new Geometries();
+				geometries(child, context, nested);
+				geometries.add(nested);
+			} else
+				geometries.add(geometry(child, context));
+		}
+	}
+
+	/**
+	 * build a geometry or a mesh
+	 * 
+	 * @param element the geometry element
+	 * @param context state of the scene
+	 * @return the geometry
+	 * @throws IOException if an element or a value is wrong
+	 */
+	private static Intersectable geometry(Element element, Context context) throws IOException {
+		Color emission = element.hasAttribute("emission") ? color(element, "emission") : Color.BLACK;
+		Material material = new Material();
+		if (element.hasAttribute("material")) {
+			material = context.materials.get(element.getAttribute("material"));
+			if (material == null)
+				throw new IOException("unknown material " + element.getAttribute("material"));
+		}
+
+		Geometry geometry;
+		switch (element.getTagName()) {
+		case "sphere":
+			geometry = new Sphere(number(element, "radius"), point(element, "center"));
+			break;
+		case "plane":
+			geometry = new Plane(point(element, "point"), new Vector(point(element, "normal")));
+			break;
+		case "triangle":
+			Point3D[] points = points(element, "points");
+			if (points.length != 3)
+				throw new IOException("a triangle must have 3 points");
+			geometry = new Triangle(points[0], points[1], points[2]);
+			break;
+		case "polygon":
+			geometry = new Polygon(points(element, "points"));
+			break;
+		case "tube":
+		case "cylinder":
+			Ray axis = new Ray(point(element, "origin"), new Vector(point(element, "direction")));
+			double radius = number(element, "radius");
+			geometry = element.getTagName().equals("tube") ? new Tube(axis, radius)
+					: new Cylinder(axis, radius, number(element, "height"));
+			break;
+		case "mesh":
+			return mesh(element, context, emission, material);
+		default:
+			throw new IOException("unknown geometry " + element.getTagName());
+		}
+		return geometry.setEmission(emission).setMaterial(material);
+	}
+
+	/**
+	 * build a mesh of its vertices and faces, or a proxy of its file
+	 * 
+	 * @param element  the mesh element
+	 * @param context  state of the scene
+	 * @param emission emission of the mesh
+	 * @param material material of the mesh
+	 * @return the mesh or its proxy
+	 * @throws IOException if a value is wrong
+	 */
+	private static Intersectable mesh(Element element, Context context, Color emission, Material material)
+			throws IOException {
+		if (element.hasAttribute("file")) {
+			Path path = context.directory.resolve(element.getAttribute("file"));
+			if (!element.hasAttribute("box")) {
+				LazyMesh mesh = new LazyMesh(path, emission, material, null, context.batch);
+				context.batch.add(mesh);
+				return mesh;
+			}
+			double[] box = numbers(element, "box");
+			if (box.length != 6)
+				throw new IOException("a box must have 6 numbers");
+			return new LazyMesh(path, emission, material,
+					new BoundingBox(box[0], box[1], box[2], box[3], box[4], box[5]), null);
+		}
+		double[] faces = numbers(element, "faces");
+		int[] indices = new int[faces.length];
+		for (int i = 0; i < faces.length; ++i) {
+			indices[i] = (int) faces[i];
+			if (indices[i] != faces[i])
+				throw new IOException("wrong index " + faces[i]);
+		}
+		return new TriangleMesh(numbers(element, "vertices"), indices).setEmission(emission).setMaterial(material);
+	}
+
+	/**
+	 * get the child elements of an element
+	 * 
+	 * @param element the element
+	 * @return the children, without text and comments
+	 */
+	private static List<Element> children(Element element) {
+		List<Element> children = new ArrayList<>();
+		for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling())
+			if (node instanceof Element)
+				children.add((Element) node);
+		return children;
+	}
+
+	/**
+	 * read the numbers of an attribute
+	 * 
+	 * @param element the element
+	 * @param name    name of the attribute
+	 * @return the numbers, separated by white space or commas
+	 * @throws IOException if the attribute is missing or a number is wrong
+	 */
+	private static double[] numbers(Element element, String name) throws IOException {
+		if (!element.hasAttribute(name))
+			throw new IOException(element.getTagName() + " has no " + name);
+		String value = element.getAttribute(name).trim();
+		if (value.isEmpty())
+			return new double[0];
+		String[] words = value.split("[\\s,]+");
+		double[] numbers = new double[words.length];
+		try {
+			for (int i = 0; i < words.length; ++i)
+				numbers[i] = Double.parseDouble(words[i]);
+		} catch (NumberFormatException e) {
+			throw new IOException("wrong number in " + name + " of " + element.getTagName(), e);
+		}
+		return numbers;
+	}
+
+	/**
+	 * read a number of an attribute
+	 * 
+	 * @param element the element
+	 * @param name    name of the attribute
+	 * @return the number
+	 * @throws IOException if the attribute is missing or is not one number
+	 */
+	private static double number(Element element, String name) throws IOException {
+		double[] numbers = numbers(element, name);
+		if (numbers.length != 1)
+			throw new IOException(name + " of " + element.getTagName() + " must be one number");
+		return numbers[0];
+	}
+
+	/**
+	 * read an optional number of an attribute
+	 * 
+	 * @param element      the element
+	 * @param name         name of the attribute
+	 * @param defaultValue value if the attribute is missing
+	 * @return the number
+	 * @throws IOException if the attribute is not one number
+	 */
+	private static double number(Element element, String name, double defaultValue) throws IOException {
+		return element.hasAttribute(name) ? number(element, name) : defaultValue;
+	}
+
+	/**
+	 * read the points of an attribute of triples
+	 * 
+	 * @param element the element
+	 * @param name    name of the attribute
+	 * @return the points
+	 * @throws IOException if the attribute is missing or is not of triples
+	 */
+	private static Point3D[] points(Element element, String name) throws IOException {
+		double[] numbers = numbers(element, name);
+		if (numbers.length % 3 != 0)
+			throw new IOException(name + " of " + element.getTagName() + " must be of triples");
+		Point3D[] points = new Point3D[numbers.length / 3];
+		for (int i = 0; i < points.length; ++i)
+			points[i] = new Point3D(numbers[3 * i], numbers[3 * i + 1], numbers[3 * i + 2]);
+		return points;
+	}
+
+	/**
+	 * read a point of an attribute
+	 * 
+	 * @param element the element
+	 * @param name    name of the attribute
+	 * @return the point
+	 * @throws IOException if the attribute is missing or is not a triple
+	 */
+	private static Point3D point(Element element, String name) throws IOException {
+		Point3D[] points = points(element, name);
+		if (points.length != 1)
+			throw new IOException(name + " of " + element.getTagName() + " must be 3 numbers");
+		return points[0];
+	}
+
+	/**
+	 * read a color of an attribute
+	 * 
+	 * @param element the element
+	 * @param name    name of the attribute
+	 * @return the color
+	 * @throws IOException if the attribute is missing or is not a triple
+	 */
+	private static Color color(Element element, String name) throws IOException {
+		double[] rgb = numbers(element, name);
+		if (rgb.length != 3)
+			throw new IOException(name + " of " + element.getTagName() + " must be 3 numbers");
+		return new Color(rgb[0], rgb[1], rgb[2]);
+	}
+}
@@ -0,0 +1,834 @@
+package scene;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+
+/**
+ * Native binary snapshot of a scene that is fully built: the geometries with
+ * the arrays of the meshes, the materials, the lights, the camera and the BVH
+ * trees of the geometries and the meshes, so a snapshot is loaded without
+ * parsing and without building the trees again.<br/>
+ * The file is little endian and starts with a magic number and a version, a
+ * file of another version is not loaded. The arrays of the meshes and the
+ * trees are written as blocks on 8 byte boundaries, and a snapshot is loaded by
+ * mapping the file and copying every block in bulk from the mapped bytes into
+ * its array, without an object or a conversion per value. Materials that are
+ * shared by several geometries stay shared.<br/>
+ * The geometries of the repository and the point, spot and directional lights
+ * are supported, a scene with another kind of object is not written. A
+ * {@link LazyMesh} is loaded and written as its mesh.
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ */
+public final class SceneSnapshot {
+	/**
+	 * version of the format, a snapshot of another version is not loaded
+	 */
+	public static final int VERSION = 2;
+	/**
+	 * first 4 bytes of a snapshot, "RTSN" in little endian
+	 */
+	private static final int MAGIC = 0x4e535452;
+	/**
+	 * size of the buffer that the snapshot is written through
+	 */
+	private static final int BUFFER = 1 << 20;
+	/**
+	 * biggest snapshot, a mapping is limited to 2GB
+	 */
+	private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * tag of a collection of geometries
+	 */
+	private static final int GEOMETRIES = 0;
+	/**
+	 * tag of a sphere
+	 */
+	private static final int SPHERE = 1;
+	/**
+	 * tag of a plane
+	 */
+	private static final int PLANE = 2;
+	/**
+	 * tag of a triangle
+	 */
+	private static final int TRIANGLE = 3;
+	/**
+	 * tag of a polygon
+	 */
+	private static final int POLYGON = 4;
+	/**
+	 * tag of a tube
+	 */
+	private static final int TUBE = 5;
+	/**
+	 * tag of a cylinder
+	 */
+	private static final int CYLINDER = 6;
+	/**
+	 * tag of a triangle mesh
+	 */
+	private static final int MESH = 7;
+
+	/**
+	 * tag of a point light
+	 */
+	private static final int POINT_LIGHT = 0;
+	/**
+	 * tag of a spot light
+	 */
+	private static final int SPOT_LIGHT = 1;
+	/**
+	 * tag of a directional light
+	 */
+	private static final int DIRECTIONAL_LIGHT = 2;
+
+	/**
+	 * the snapshot has only static methods
+	 */
+	private SceneSnapshot() {
+	}
+
+	/**
+	 * write a snapshot of a scene, the trees of the geometries and the meshes are
+	 * built if they were not built yet
+	 * 
+	 * @param scene the scene
+	 * @param path  the file
+	 * @throws IOException              if the file cannot be written
+	 * @throws IllegalArgumentException if the scene has a geometry or a light
+	 *                                  that a snapshot does not support
+	 */
+	public static void write(Scene scene, Path path) throws IOException {
+		// the materials are written first, so the geometries refer to them by index
+		Map<Material, Integer> materials = new IdentityHashMap<>();
+		List<Material> materialList = new ArrayList<>();
+		collectMaterials(scene.geometries, materials, materialList);
+		for (LightSource light : scene.lights)
+			lightTag(light);
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Output out = new Output(channel);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putString(scene.name);
+			out.putColor(scene.background);
+			out.putColor(scene.ambientLight.getIntensity());
+
+			Camera camera = scene.camera;
+			out.putInt(camera == null ? 0 : 1);
+			if (camera != null) {
+				out.putPoint(camera.getP0());
+				out.putPoint(camera.getVTo().getHead());
+				out.putPoint(camera.getVUo().getHead());
+				out.putDouble(camera.getWidth());
+				out.putDouble(camera.getHeight());
+				out.putDouble(camera.getDistance());
+			}
+
+			out.putInt(materialList.size());
+			for (Material material : materialList) {
+				out.putDouble(material.kD);
+				out.putDouble(material.kS);
+				out.putInt(material.nShininess);
+				out.putDouble(material.kR);
+				out.putDouble(material.kT);
+			}
+
+			out.putInt(scene.lights.size());
+			for (LightSource light : scene.lights)
+				writeLight(out, light);
+
+			writeIntersectable(out, scene.geometries, materials);
+			out.flush();
+		}
+	}
+
+	/**
+	 * load a snapshot of a scene
+	 * 
+	 * @param path the file
+	 * @return the scene, with the trees that were written
+	 * @throws IOException if the file cannot be read, is not a snapshot, is of
+	 *                     another version or is broken
+	 */
+	public static Scene read(Path path) throws IOException {
+		ByteBuffer bytes;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > MAX_SIZE)
+				throw new IOException("a snapshot is limited to 2GB");
+			bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		try {
+			if (bytes.remaining() < 8 || bytes.getInt() != MAGIC)
+				throw new IOException("the file is not a scene snapshot");
+			int version = bytes.getInt();
+			if (version != VERSION)
+				throw new IOException("snapshot version " + version + " is not supported");
+			Input in = new Input(bytes);
+
+			Scene scene = new Scene(in.getString());
+			scene.setBackground(in.getColor());
+			scene.setAmbientLight(new AmbientLight(in.getColor(), 1));
+
+			if (in.getInt() != 0) {
+				Camera camera = new Camera(in.getPoint(), new Vector(in.getPoint()), new Vector(in.getPoint()));
+				double width = in.getDouble(), height = in.getDouble(), distance = in.getDouble();
+				if (width > 0 && height > 0)
+					camera.setViewPlaneSize(width, height);
+				if (!Util.isZero(distance))
+					camera.setDistance(distance);
+				scene.setCamera(camera);
+			}
+
+			Material[] materials = new Material[in.getCount(1)];
+			for (int i = 0; i < materials.length; ++i)
+				materials[i] = new Material().setKd(in.getDouble()).setKs(in.getDouble())
+						.setShininess(in.getInt()).setKr(in.getDouble()).setKt(in.getDouble());
+
+			int lightCount = in.getCount(1);
+			List<LightSource> lights = new LinkedList<>();
+			for (int i = 0; i < lightCount; ++i)
+				lights.add(readLight(in));
+			scene.setLights(lights);
+
+			Intersectable geometries = readIntersectable(in, materials);
+			if (!(geometries instanceof Geometries))
+				throw new IOException("the snapshot has no geometries");
+			scene.setGeometries((Geometries) geometries);
+			return scene;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("the snapshot is broken", e);
+		}
+	}
+
+	/**
+	 * collect the materials of the geometries, every material once
+	 * 
+	 * @param intersectable geometry, mesh or collection
+	 * @param materials     index of every material
+	 * @param materialList  the materials by their index
+	 * @throws IllegalArgumentException if a geometry is not supported
+	 */
+	private static void collectMaterials(Intersectable intersectable, Map<Material, Integer> materials,
+			List<Material> materialList) {
+		if (intersectable instanceof LazyMesh)
+			intersectable = ((LazyMesh) intersectable).getMesh();
+		int tag = geometryTag(intersectable);
+		if (tag == GEOMETRIES) {
+			for (Intersectable child : ((Geometries) intersectable).getList())
+				collectMaterials(child, materials, materialList);
+			return;
+		}
+		if (tag == MESH) {
+			TriangleMesh mesh = (TriangleMesh) intersectable;
+			for (int group = 0; group < mesh.getGroupCount(); ++group)
+				addMaterial(mesh.getGroupMaterial(group), materials, materialList);
+		} else
+			addMaterial(((Geometry) intersectable).getMaterial(), materials, materialList);
+	}
+
+	/**
+	 * add a material to the materials if it is not there yet
+	 * 
+	 * @param material     the material
+	 * @param materials    index of every material
+	 * @param materialList the materials by their index
+	 */
+	private static void addMaterial(Material material, Map<Material, Integer> materials,
+			List<Material> materialList) {
+		if (!materials.containsKey(material)) {
+			materials.put(material, materialList.size());
+			materialList.add(material);
+		}
+	}
+
+	/**
+	 * get the tag of a geometry, by its exact class
+	 * 
+	 * @param intersectable the geometry
+	 * @return the tag
+	 * @throws IllegalArgumentException if the geometry is not supported
+	 */
+	private static int geometryTag(Intersectable intersectable) {
+		Class<?> type = intersectable.getClass();
+		if (type == Geometries.class)
+			return GEOMETRIES;
+		if (type == Sphere.class)
+			return SPHERE;
+		if (type == Plane.class)
+			return PLANE;
+		if (type == Triangle.class)
+			return TRIANGLE;
+		if (type == Polygon.class)
+			return POLYGON;
+		if (type == Tube.class)
+			return TUBE;
+		if (type == Cylinder.class)
+			return CYLINDER;
+		if (type == TriangleMesh.class)
+			return MESH;
+		throw new IllegalArgumentException("a snapshot does not support " + type.getName());
+	}
+
+	/**
+	 * get the tag of a light, by its exact class
+	 * 
+	 * @param light the light
+	 * @return the tag
+	 * @throws IllegalArgumentException if the light is not supported
+	 */
+	private static int lightTag(LightSource light) {
+		Class<?> type = light.getClass();
+		if (type == PointLight.class)
+			return POINT_LIGHT;
+		if (type == SpotLight.class)
+			return SPOT_LIGHT;
+		if (type == DirectionalLight.class)
+			return DIRECTIONAL_LIGHT;
+		throw new IllegalArgumentException("a snapshot does not support " + type.getName());
+	}
+
+	/**
+	 * write a light
+	 * 
+	 * @param out   the output
+	 * @param light the light
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeLight(Output out, LightSource light) throws IOException {
+		int tag = lightTag(light);
+		out.putInt(tag);
+		out.putColor(((Light) light).getIntensity());
+		if (tag == DIRECTIONAL_LIGHT) {
+			out.putPoint(((DirectionalLight) light).getDirection().getHead());
+			return;
+		}
+		PointLight point = (PointLight) light;
+		out.putPoint(point.getPosition());
+		out.putDouble(point.getKc());
+		out.putDouble(point.getKl());
+		out.putDouble(point.getKq());
+		if (tag == SPOT_LIGHT)
+			out.putPoint(((SpotLight) light).getDirection().getHead());
+	}
+
+	/**
+	 * read a light
+	 * 
+	 * @param in the input
+	 * @return the light
+	 * @throws IOException if the light is broken
+	 */
+	private static LightSource readLight(Input in) throws IOException {
+		int tag = in.getInt();
+		Color intensity = in.getColor();
+		switch (tag) {
+		case DIRECTIONAL_LIGHT:
+			return new DirectionalLight(intensity, new Vector(in.getPoint()));
+		case POINT_LIGHT:
+			return new PointLight(intensity, in.getPoint(), in.getDouble(), in.getDouble(), in.getDouble());
+		case SPOT_LIGHT:
+			Point3D position = in.getPoint();
+			double kC = in.getDouble(), kL = in.getDouble(), kQ = in.getDouble();
+			return new SpotLight(intensity, position, kC, kL, kQ, new Vector(in.getPoint()));
+		default:
+			throw new IOException("unknown light " + tag);
+		}
+	}
+
+	/**
+	 * write a geometry, a mesh or a collection with its children
+	 * 
+	 * @param out           the output
+	 * @param intersectable the geometry
+	 * @param materials     index of every material
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeIntersectable(Output out, Intersectable intersectable,
+			Map<Material, Integer> materials) throws IOException {
+		if (intersectable instanceof LazyMesh)
+			intersectable = ((LazyMesh) intersectable).getMesh();
+		int tag = geometryTag(intersectable);
+		out.putInt(tag);
+		switch (tag) {
+		case GEOMETRIES:
+			Geometries geometries = (Geometries) intersectable;
+			out.putInt(geometries.getList().size());
+			for (Intersectable child : geometries.getList())
+				writeIntersectable(out, child, materials);
+			out.putInt(geometries.isBVHEnabled() ? 1 : 0);
+			writeBVH(out, geometries.getBVH());
+			return;
+		case MESH:
+			TriangleMesh mesh = (TriangleMesh) intersectable;
+			out.putDoubles(mesh.getVertices());
+			out.putInts(mesh.getIndices());
+			out.putInt(mesh.getGroupCount());
+			for (int group = 0; group < mesh.getGroupCount(); ++group) {
+				out.putInt(mesh.getGroupStart(group));
+				out.putInt(materials.get(mesh.getGroupMaterial(group)));
+				out.putColor(mesh.getGroupEmission(group));
+			}
+			writeBVH(out, mesh.getBVH());
+			return;
+		default:
+			break;
+		}
+
+		Geometry geometry = (Geometry) intersectable;
+		out.putInt(materials.get(geometry.getMaterial()));
+		out.putColor(geometry.getEmission());
+		switch (tag) {
+		case SPHERE:
+			Sphere sphere = (Sphere) geometry;
+			out.putPoint(sphere.getCenter());
+			out.putDouble(sphere.getRadius());
+			break;
+		case PLANE:
+			Plane plane = (Plane) geometry;
+			out.putPoint(plane.getPoint());
+			out.putPoint(plane.getNormal().getHead());
+			break;
+		case TRIANGLE:
+		case POLYGON:
+			List<Point3D> vertices = ((Polygon) geometry).getVertices();
+			out.putInt(vertices.size());
+			for (Point3D vertex : vertices)
+				out.putPoint(vertex);
+			break;
+		default:
+			Tube tube = (Tube) geometry;
+			out.putPoint(tube.getAxisRay().getP0());
+			out.putPoint(tube.getAxisRay().getVector().getHead());
+			out.putDouble(tube.getRadius());
+			if (tag == CYLINDER)
+				out.putDouble(((Cylinder) tube).getHeight());
+			break;
+		}
+	}
+
+	/**
+	 * read a geometry, a mesh or a collection with its children
+	 * 
+	 * @param in        the input
+	 * @param materials the materials by their index
+	 * @return the geometry
+	 * @throws IOException if the geometry is broken
+	 */
+	private static Intersectable readIntersectable(Input in, Material[] materials) throws IOException {
+		int tag = in.getInt();
+		switch (tag) {
+		case GEOMETRIES:
+			int count = in.getCount(4);
+			Geometries geometries = new Geometries();
+			for (int i = 0; i < count; ++i)
+				geometries.add(readIntersectable(in, materials));
+			boolean enabled = in.getInt() != 0;
+			BVH tree = readBVH(in);
+			if (tree == null)
+				geometries.setBVH(enabled);
+			else if (enabled)
+				geometries.setBVH(tree);
+			else
+				throw new IOException("a group without a BVH has a tree");
+			return geometries;
+		case MESH:
+			TriangleMesh mesh = new TriangleMesh(in.getDoubles(), in.getInts());
+			int groups = in.getCount(4);
+			for (int group = 0; group < groups; ++group) {
+				int start = in.getInt();
+				Material material = materials[in.getInt()];
+				Color emission = in.getColor();
+				if (group == 0)
+					mesh.setMaterial(material).setEmission(emission);
+				else
+					mesh.addGroup(start, emission, material);
+			}
+			BVH faces = readBVH(in);
+			if (faces != null)
+				mesh.setBVH(faces);
+			return mesh;
+		default:
+			break;
+		}
+
+		Material material = materials[in.getInt()];
+		Color emission = in.getColor();
+		Geometry geometry;
+		switch (tag) {
+		case SPHERE:
+			Point3D center = in.getPoint();
+			geometry = new Sphere(in.getDouble(), center);
+			break;
+		case PLANE:
+			geometry = new Plane(in.getPoint(), new Vector(in.getPoint()));
+			break;
+		case TRIANGLE:
+			if (in.getInt() != 3)
+				throw new IOException("a triangle must have 3 vertices");
+			geometry = new Triangle(in.getPoint(), in.getPoint(), in.getPoint());
+			break;
+		case POLYGON:
+			Point3D[] vertices = new Point3D[in.getCount(24)];
+			for (int i = 0; i < vertices.length; ++i)
+				vertices[i] = in.getPoint();
+			geometry = new Polygon(vertices);
+			break;
+		case TUBE:
+		case CYLINDER:
+			Ray axis = new Ray(in.getPoint(), new Vector(in.getPoint()));
+			double radius = in.getDouble();
+			geometry = tag == TUBE ? new Tube(axis, radius) : new Cylinder(axis, radius, in.getDouble());
+			break;
+		default:
+			throw new IOException("unknown geometry " + tag);
+		}
+		return geometry.setMaterial(material).setEmission(emission);
+	}
+
+	/**
+	 * write a tree
+	 * 
+	 * @param out  the output
+	 * @param tree the tree, null if there is none
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeBVH(Output out, BVH tree) throws IOException {
+		out.putInt(tree == null ? 0 : 1);
+		if (tree != null) {
+			out.putDoubles(tree.getNodeBounds());
+			out.putInts(tree.getNodeData());
+			out.putInts(tree.getIndices());
+		}
+	}
+
+	/**
+	 * read a tree
+	 * 
+	 * @param in the input
+	 * @return the tree, null if there is none
+	 * @throws IOException if the tree is broken
+	 */
+	private static BVH readBVH(Input in) throws IOException {
+		if (in.getInt() == 0)
+			return null;
+		return BVH.of(in.getDoubles(), in.getInts(), in.getInts());
+	}
+
+	/**
+	 * output of a snapshot through a buffer of little endian values, the blocks
+	 * of the arrays start on 8 byte boundaries of the file
+	 */
+	private static class Output {
+		/**
+		 * the file
+		 */
+		private final FileChannel channel;
+		/**
+		 * values that were not written to the file yet
+		 */
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+		/**
+		 * position in the file of the next value
+		 */
+		private long position;
+
+		/**
+		 * constructor of an output
+		 * 
+		 * @param channel the file
+		 */
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * write the buffer to the file
+		 * 
+		 * @throws IOException if the file cannot be written
+		 */
+		void flush() throws IOException {
+			this.buffer.flip();
+			while (this.buffer.hasRemaining())
+				this.channel.write(this.buffer);
+			this.buffer.clear();
+		}
+
+		/**
+		 * make room in the buffer
+		 * 
+		 * @param size bytes that are needed
+		 * @throws IOException if the file cannot be written
+		 */
+		private void ensure(int size) throws IOException {
+			if (this.buffer.remaining() < size)
+				flush();
+		}
+
+		/**
+		 * write an int
+		 * 
+		 * @param value the value
+		 * @throws IOException if the file cannot be written
+		 */
+		void putInt(int value) throws IOException {
+			ensure(4);
+			this.buffer.putInt(value);
+			this.position += 4;
+		}
+
+		/**
+		 * write a double
+		 * 
+		 * @param value the value
+		 * @throws IOException if the file cannot be written
+		 */
+		void putDouble(double value) throws IOException {
+			ensure(8);
+			this.buffer.putDouble(value);
+			this.position += 8;
+		}
+
+		/**
+		 * write a point as 3 doubles
+		 * 
+		 * @param point the point
+		 * @throws IOException if the file cannot be written
+		 */
+		void putPoint(Point3D point) throws IOException {
+			putDouble(point.getX());
+			putDouble(point.getY());
+			putDouble(point.getZ());
+		}
+
+		/**
+		 * write a color as 3 doubles
+		 * 
+		 * @param color the color
+		 * @throws IOException if the file cannot be written
+		 */
+		void putColor(Color color) throws IOException {
+			putDouble(color.getRed());
+			putDouble(color.getGreen());
+			putDouble(color.getBlue());
+		}
+
+		/**
+		 * write a string as its length and its UTF-8 bytes, -1 for null
+		 * 
+		 * @param value the string
+		 * @throws IOException if the file cannot be written
+		 */
+		void putString(String value) throws IOException {
+			if (value == null) {
+				putInt(-1);
+				return;
+			}
+			byte[] utf = value.getBytes(StandardCharsets.UTF_8);
+			putInt(utf.length);
+			for (byte b : utf) {
+				ensure(1);
+				this.buffer.put(b);
+			}
+			this.position += utf.length;
+		}
+
+		/**
+		 * pad the file up to an 8 byte boundary
+		 * 
+		 * @throws IOException if the file cannot be written
+		 */
+		private void align() throws IOException {
+			while (this.position % 8 != 0) {
+				ensure(1);
+				this.buffer.put((byte) 0);
+				++this.position;
+			}
+		}
+
+		/**
+		 * write an array as its length and a block of doubles
+		 * 
+		 * @param values the array
+		 * @throws IOException if the file cannot be written
+		 */
+		void putDoubles(double[] values) throws IOException {
+			putInt(values.length);
+			align();
+			for (int i = 0; i < values.length;) {
+				ensure(8);
+				int n = Math.min(values.length - i, this.buffer.remaining() / 8);
+				this.buffer.asDoubleBuffer().put(values, i, n);
+				this.buffer.position(this.buffer.position() + 8 * n);
+				this.position += 8L * n;
+				i += n;
+			}
+		}
+
+		/**
+		 * write an array as its length and a block of ints
+		 * 
+		 * @param values the array
+		 * @throws IOException if the file cannot be written
+		 */
+		void putInts(int[] values) throws IOException {
+			putInt(values.length);
+			align();
+			for (int i = 0; i < values.length;) {
+				ensure(4);
+				int n = Math.min(values.length - i, this.buffer.remaining() / 4);
+				this.buffer.asIntBuffer().put(values, i, n);
+				this.buffer.position(this.buffer.position() + 4 * n);
+				this.position += 4L * n;
+				i += n;
+			}
+		}
+	}
+
+	/**
+	 * input of a snapshot from the mapped bytes of the file
+	 */
+	private static class Input {
+		/**
+		 * the mapped file, little endian, its position is the position in the file
+		 */
+		private final ByteBuffer bytes;
+
+		/**
+		 * constructor of an input
+		 * 
+		 * @param bytes the mapped file
+		 */
+		Input(ByteBuffer bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * read an int
+		 * 
+		 * @return the value
+		 */
+		int getInt() {
+			return this.bytes.getInt();
+		}
+
+		/**
+		 * read an amount of items, that must fit in the rest of the file
+		 * 
+		 * @param itemSize smallest size of an item in bytes
+		 * @return the amount
+		 * @throws IOException if the amount is wrong
+		 */
+		int getCount(int itemSize) throws IOException {
+			int count = this.bytes.getInt();
+			if (count < 0 || (long) count * itemSize > this.bytes.remaining())
+				throw new IOException("wrong size " + count);
+			return count;
+		}
+
+		/**
+		 * read a double
+		 * 
+		 * @return the value
+		 */
+		double getDouble() {
+			return this.bytes.getDouble();
+		}
+
+		/**
+		 * read a point of 3 doubles
+		 * 
+		 * @return the point
+		 */
+		Point3D getPoint() {
+			return new Point3D(getDouble(), getDouble(), getDouble());
+		}
+
+		/**
+		 * read a color of 3 doubles
+		 * 
+		 * @return the color
+		 */
+		Color getColor() {
+			return new Color(getDouble(), getDouble(), getDouble());
+		}
+
+		/**
+		 * read a string of its length and its UTF-8 bytes
+		 * 
+		 * @return the string, null if the length is -1
+		 * @throws IOException if the length is wrong
+		 */
+		String getString() throws IOException {
+			if (this.bytes.getInt(this.bytes.position()) == -1) {
+				this.bytes.getInt();
+				return null;
+			}
+			byte[] utf = new byte[getCount(1)];
+			this.bytes.get(utf);
+			return new String(utf, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * skip the padding up to an 8 byte boundary
+		 */
+		private void align() {
+			int position = this.bytes.position();
+			this.bytes.position(Math.min(this.bytes.limit(), (position + 7) & ~7));
+		}
+
+		/**
+		 * read an array of its length and a block of doubles
+		 * 
+		 * @return the array
+		 * @throws IOException if the length is wrong
+		 */
+		double[] getDoubles() throws IOException {
+			int length = this.bytes.getInt();
+			align();
+			if (length < 0 || (long) length * 8 > this.bytes.remaining())
+				throw new IOException("wrong size " + length);
+			double[] values = new double[length];
+			this.bytes.asDoubleBuffer().get(values);
+			this.bytes.position(this.bytes.position() + 8 * length);
+			return values;
+		}
+
+		/**
+		 * read an array of its length and a block of ints
+		 * 
+		 * @return the array
+		 * @throws IOException if the length is wrong
+		 */
+		int[] getInts() throws IOException {
+			int length = this.bytes.getInt();
+			align();
+			if (length < 0 || (long) length * 4 > this.bytes.remaining())
+				throw new IOException("wrong size " + length);
+			int[] values = new int[length];
+			this.bytes.asIntBuffer().get(values);
+			this.bytes.position(this.bytes.position() + 4 * length);
+			return values;
+		}
+	}
+}
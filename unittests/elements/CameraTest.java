@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 
 import elements.Camera;
+import elements.CameraRaster;
 import primitives.*;
 
 /**
@@ -55,4 +56,41 @@ public class CameraTest {
 
 	}
 
+	/**
+	 * Test method for
+	 * {@link elements.CameraRaster#fillTile(int, int, int, int, double[])}.
+	 */
+	@Test
+	public void testRaster() {
+		Camera camera = new Camera(new Point3D(1, 2, 3), new Vector(0, 0, 1), new Vector(0, -1, 0)).setDistance(10)
+				.setViewPlaneSize(8, 6);
+		CameraRaster raster = camera.getRaster(4, 3);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: a tile has the rays of its pixels
+		double[] directions = new double[2 * 2 * 3];
+		raster.fillTile(2, 1, 2, 2, directions);
+		int k = 0;
+		for (int i = 1; i < 3; ++i) {
+			for (int j = 2; j < 4; ++j, k += 3) {
+				Ray ray = camera.constructRayThroughPixel(4, 3, j, i);
+				assertEquals("TC01 wrong ray", ray,
+						new Ray(raster.getP0(), directions[k], directions[k + 1], directions[k + 2]));
+				Point3D dir = ray.getVector().getHead();
+				assertTrue("TC01 wrong direction", dir.getX() == directions[k] && dir.getY() == directions[k + 1]
+						&& dir.getZ() == directions[k + 2]);
+			}
+		}
+		// TC02: a point inside a pixel
+		assertEquals("TC02 wrong ray", new Ray(new Point3D(1, 2, 3), new Vector(-2, -1, 10)),
+				raster.constructRay(0.5, 0.5));
+
+		// =============== Boundary Values Tests ==================
+		// TC03: the center of a pixel is the ray of the pixel
+		assertEquals("TC03 wrong ray", camera.constructRayThroughPixel(4, 3, 1, 2), raster.constructRay(1.0, 2.0));
+		// TC04: the raster is built again when the view plane changes
+		camera.setViewPlaneSize(4, 3);
+		assertNotSame("TC04 raster was not reset", raster, camera.getRaster(4, 3));
+	}
+
 }
@@ -0,0 +1,174 @@
+package unittests.geometries;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import geometries.*;
+import primitives.*;
+
+/**
+ * Testing BVHCache
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class BVHCacheTests {
+	/**
+	 * Test method for {@link geometries.BVHCache#get(double[], int)}.
+	 * 
+	 * @throws IOException if the directory cannot be used
+	 */
+	@Test
+	public void testGet() throws IOException {
+		Path directory = Files.createTempDirectory("bvh");
+		directory.toFile().deleteOnExit();
+		BVHCache cache = new BVHCache(directory, 100);
+		double[] bounds = boxes(1000, 1);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: a tree that is not in the cache is built and written
+		BVH built = cache.get(bounds, 1000);
+		assertEquals("TC01 wrong misses", 1, cache.getMisses());
+		assertEquals("TC01 wrong number of files", 1, files(directory));
+		// TC02: the same boxes load the same tree
+		BVH loaded = new BVHCache(directory, 100).get(bounds.clone(), 1000);
+		assertArrayEquals("TC02 wrong tree", built.getNodeBounds(), loaded.getNodeBounds(), 0);
+		assertArrayEquals("TC02 wrong tree", built.getNodeData(), loaded.getNodeData());
+		assertArrayEquals("TC02 wrong tree", built.getIndices(), loaded.getIndices());
+		cache.get(bounds, 1000);
+		assertEquals("TC02 wrong hits", 1, cache.getHits());
+		// TC03: a changed box is another tree
+		bounds[3] += 0.5;
+		cache.get(bounds, 1000);
+		assertEquals("TC03 wrong misses", 2, cache.getMisses());
+		assertEquals("TC03 wrong number of files", 2, files(directory));
+
+		// =============== Boundary Values Tests ==================
+		// TC04: a broken file is built again
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.bvh")) {
+			for (Path file : stream)
+				Files.write(file, new byte[] { 1, 2, 3 });
+		}
+		BVH rebuilt = cache.get(bounds, 1000);
+		assertEquals("TC04 wrong misses", 3, cache.getMisses());
+		assertEquals("TC04 wrong tree", 1000, rebuilt.getIndices().length);
+		// TC05: a file of the same size whose leaves lose an object is built again
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.bvh")) {
+			for (Path file : stream) {
+				byte[] bytes = Files.readAllBytes(file);
+				// the last index becomes the one before it, the broken file of TC04 is
+				// too short
+				if (bytes.length > 8) {
+					System.arraycopy(bytes, bytes.length - 8, bytes, bytes.length - 4, 4);
+					Files.write(file, bytes);
+				}
+			}
+		}
+		BVHCache fresh = new BVHCache(directory, 100);
+		rebuilt = fresh.get(bounds, 1000);
+		assertEquals("TC05 wrong misses", 1, fresh.getMisses());
+		int[] sorted = rebuilt.getIndices().clone();
+		Arrays.sort(sorted);
+		for (int i = 0; i < sorted.length; ++i)
+			assertEquals("TC05 an object is lost", i, sorted[i]);
+		// TC06: a small tree is not cached
+		cache.get(boxes(99, 2), 99);
+		assertEquals("TC06 wrong misses", 3, cache.getMisses());
+		assertEquals("TC06 wrong hits", 1, cache.getHits());
+	}
+
+	/**
+	 * Test method for {@link geometries.BVH#setCache(geometries.BVHCache)}: a mesh
+	 * finds the same points with a tree from the cache
+	 * 
+	 * @throws IOException if the directory cannot be used
+	 */
+	@Test
+	public void testMesh() throws IOException {
+		Path directory = Files.createTempDirectory("bvh");
+		directory.toFile().deleteOnExit();
+		BVHCache cache = new BVHCache(directory, 1);
+		Random random = new Random(3);
+		double[] vertices = new double[3 * 300];
+		for (int i = 0; i < vertices.length; ++i)
+			vertices[i] = random.nextDouble() * 10;
+		int[] faces = new int[3 * 100];
+		for (int i = 0; i < faces.length; ++i)
+			faces[i] = i;
+
+		BVHCache previous = BVH.getCache();
+		BVH.setCache(cache);
+		try {
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: the mesh of the cache finds the same points
+			TriangleMesh built = new TriangleMesh(vertices, faces);
+			TriangleMesh loaded = new TriangleMesh(vertices.clone(), faces.clone());
+			for (int i = 0; i < 50; ++i) {
+				Ray ray = new Ray(new Point3D(random.nextDouble() * 10, random.nextDouble() * 10, -5),
+						new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, 1));
+				assertEquals("TC01 wrong number of points", count(built, ray), count(loaded, ray));
+			}
+			assertEquals("TC01 wrong misses", 1, cache.getMisses());
+			assertEquals("TC01 wrong hits", 1, cache.getHits());
+		} finally {
+			BVH.setCache(previous);
+		}
+	}
+
+	/**
+	 * build random boxes
+	 * 
+	 * @param count number of boxes
+	 * @param seed  seed of the random numbers
+	 * @return 6 values per box
+	 */
+	private static double[] boxes(int count, long seed) {
+		Random random = new Random(seed);
+		double[] bounds = new double[count * 6];
+		for (int i = 0; i < count; ++i)
+			for (int axis = 0; axis < 3; ++axis) {
+				bounds[6 * i + axis] = random.nextDouble() * 100;
+				bounds[6 * i + 3 + axis] = bounds[6 * i + axis] + random.nextDouble();
+			}
+		return bounds;
+	}
+
+	/**
+	 * count the files of the cache
+	 * 
+	 * @param directory the directory
+	 * @return number of files
+	 * @throws IOException if the directory cannot be read
+	 */
+	private static int files(Path directory) throws IOException {
+		int count = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path file : stream) {
+				file.toFile().deleteOnExit();
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * count the intersection points of a ray
+	 * 
+	 * @param mesh the mesh
+	 * @param ray  the ray
+	 * @return number of points
+	 */
+	private static int count(TriangleMesh mesh, Ray ray) {
+		var points = mesh.findGeoIntersections(ray);
+		return points == null ? 0 : points.size();
+	}
+}
@@ -0,0 +1,110 @@
+package unittests.geometries;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import geometries.*;
+import primitives.*;
+
+/**
+ * Testing BVH
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class BVHTests {
+	/**
+	 * Test method for {@link geometries.BVH#of(double[], int[], int[])}.
+	 */
+	@Test
+	public void testOf() {
+		double[] bounds = new double[6 * 20];
+		for (int i = 0; i < 20; ++i)
+			for (int axis = 0; axis < 3; ++axis) {
+				bounds[6 * i + axis] = i + axis;
+				bounds[6 * i + 3 + axis] = i + axis + 0.5;
+			}
+		BVH built = BVH.build(bounds, 20);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the arrays of a built tree
+		BVH tree = BVH.of(built.getNodeBounds(), built.getNodeData(), built.getIndices());
+		assertEquals("TC01 wrong tree", built.getNodeCount(), tree.getNodeCount());
+		// TC02: an object twice and another not at all
+		int[] indices = built.getIndices().clone();
+		indices[0] = indices[1];
+		assertThrows("TC02 accepted an object twice", IllegalArgumentException.class,
+				() -> BVH.of(built.getNodeBounds(), built.getNodeData(), indices));
+		// TC03: two leaves of the same objects
+		int[] nodeData = chain(3);
+		nodeData[3 * 2] = 0;
+		assertThrows("TC03 accepted two leaves of an object", IllegalArgumentException.class,
+				() -> BVH.of(boxes(nodeData.length / 2), nodeData, new int[] { 0, 1, 2, 3 }));
+
+		// =============== Boundary Values Tests ==================
+		// TC04: a chain as deep as the traversal stack is traversed
+		tree = chainTree(128);
+		int[] visits = new int[1];
+		tree.traverse(new Ray(new Point3D(0, 0, -5), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY,
+				(index, maxDistance) -> {
+					++visits[0];
+					return maxDistance;
+				});
+		assertEquals("TC04 wrong number of objects", 129, visits[0]);
+		// TC05: a chain deeper than the traversal stack
+		assertThrows("TC05 accepted a deep tree", IllegalArgumentException.class, () -> chainTree(129));
+	}
+
+	/**
+	 * build a chain shaped tree over boxes that contain the origin
+	 * 
+	 * @param depth number of inner nodes
+	 * @return the tree
+	 */
+	private static BVH chainTree(int depth) {
+		int[] indices = new int[depth + 1];
+		for (int i = 0; i <= depth; ++i)
+			indices[i] = depth - i;
+		int[] nodeData = chain(depth);
+		return BVH.of(boxes(nodeData.length / 2), nodeData, indices);
+	}
+
+	/**
+	 * build the node data of a chain: every inner node has a leaf of one object
+	 * on the left and the next inner node on the right
+	 * 
+	 * @param depth number of inner nodes
+	 * @return 2 values per node
+	 */
+	private static int[] chain(int depth) {
+		int[] nodeData = new int[2 * (2 * depth + 1)];
+		for (int k = 0; k < depth; ++k) {
+			nodeData[4 * k] = 2 * k + 2;
+			nodeData[4 * k + 1] = -1;
+			nodeData[4 * k + 2] = k;
+			nodeData[4 * k + 3] = 1;
+		}
+		nodeData[4 * depth] = depth;
+		nodeData[4 * depth + 1] = 1;
+		return nodeData;
+	}
+
+	/**
+	 * build the boxes of nodes, every box is the cube around the origin
+	 * 
+	 * @param nodes number of nodes
+	 * @return 6 values per node
+	 */
+	private static double[] boxes(int nodes) {
+		double[] bounds = new double[6 * nodes];
+		for (int node = 0; node < nodes; ++node) {
+			Arrays.fill(bounds, 6 * node, 6 * node + 3, -1);
+			Arrays.fill(bounds, 6 * node + 3, 6 * node + 6, 1);
+		}
+		return bounds;
+	}
+}
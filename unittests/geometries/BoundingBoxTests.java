@@ -0,0 +1,90 @@
+package unittests.geometries;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import geometries.*;
+import primitives.*;
+
+/**
+ * Testing BoundingBox
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class BoundingBoxTests {
+
+	/**
+	 * Test method for {@link geometries.BoundingBox#intersects(primitives.Ray, double)}.
+	 */
+	@Test
+	public void testIntersects() {
+		BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: ray goes through the box
+		assertTrue("TC01 ray should hit the box",
+				box.intersects(new Ray(new Point3D(-1, 0.5, 0.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY));
+		// TC02: ray misses the box
+		assertFalse("TC02 ray should miss the box",
+				box.intersects(new Ray(new Point3D(-1, 2, 0.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY));
+		// TC03: box is behind the ray
+		assertFalse("TC03 box is behind the ray",
+				box.intersects(new Ray(new Point3D(-1, 0.5, 0.5), new Vector(-1, 0, 0)), Double.POSITIVE_INFINITY));
+		// TC04: ray starts inside the box
+		assertTrue("TC04 ray starts inside the box",
+				box.intersects(new Ray(new Point3D(0.5, 0.5, 0.5), new Vector(1, 1, 1)), Double.POSITIVE_INFINITY));
+
+		// =============== Boundary Values Tests ==================
+		// TC05: box is farther than the max distance
+		assertFalse("TC05 box is too far",
+				box.intersects(new Ray(new Point3D(-5, 0.5, 0.5), new Vector(1, 0, 0)), 4));
+		// TC06: ray goes along a face of the box
+		assertTrue("TC06 ray on a face should not be rejected",
+				box.intersects(new Ray(new Point3D(-1, 0, 0.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY));
+		// TC07: flat box of a triangle
+		BoundingBox flat = new Triangle(new Point3D(0, 0, 5), new Point3D(1, 0, 5), new Point3D(0, 1, 5))
+				.getBoundingBox();
+		assertTrue("TC07 ray should hit the flat box",
+				flat.intersects(new Ray(new Point3D(0.2, 0.2, 0), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY));
+	}
+
+	/**
+	 * Test method for {@link geometries.Intersectable#getBoundingBox()}.
+	 */
+	@Test
+	public void testGetBoundingBox() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: box of a sphere
+		BoundingBox box = new Sphere(2, new Point3D(1, 1, 1)).getBoundingBox();
+		assertEquals("TC01 wrong sphere box", -1, box.minX, 0.00001);
+		assertEquals("TC01 wrong sphere box", 3, box.maxZ, 0.00001);
+
+		// TC02: box of a cylinder along z
+		box = new Cylinder(new Ray(Point3D.ZERO, new Vector(0, 0, 1)), 1, 4).getBoundingBox();
+		assertEquals("TC02 wrong cylinder box", -1, box.minX, 0.00001);
+		assertEquals("TC02 wrong cylinder box", 1, box.maxY, 0.00001);
+		assertEquals("TC02 wrong cylinder box", 0, box.minZ, 0.00001);
+		assertEquals("TC02 wrong cylinder box", 4, box.maxZ, 0.00001);
+
+		// TC03: union box of a group
+		Geometries geometries = new Geometries(new Sphere(1, new Point3D(0, 0, 0)),
+				new Triangle(new Point3D(5, 0, 0), new Point3D(6, 0, 0), new Point3D(5, 1, 0)));
+		box = geometries.getBoundingBox();
+		assertEquals("TC03 wrong group box", -1, box.minX, 0.00001);
+		assertEquals("TC03 wrong group box", 6, box.maxX, 0.00001);
+
+		// =============== Boundary Values Tests ==================
+		// TC04: infinite geometries are unbounded
+		Plane plane = new Plane(new Point3D(0, 0, 1), new Point3D(1, 0, 1), new Point3D(0, 1, 1));
+		assertNull("TC04 plane should be unbounded", plane.getBoundingBox());
+		assertNull("TC04 tube should be unbounded",
+				new Tube(new Ray(Point3D.ZERO, new Vector(0, 0, 1)), 1).getBoundingBox());
+		// TC05: a group with an unbounded object is unbounded
+		geometries.add(plane);
+		assertNull("TC05 group with a plane should be unbounded", geometries.getBoundingBox());
+	}
+
+}
@@ -2,6 +2,12 @@ package unittests.geometries;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.junit.Test;
 
 import geometries.*;
@@ -76,4 +82,239 @@ public class GeometriesTest {
 				geometries.findIntersections(new Ray(new Point3D(-2.5, 2.5, 13), new Vector(0, 0, -1))).size());
 	}
 
+	/**
+	 * Test method for
+	 * {@link geometries.Geometries#setBVH(boolean)}.
+	 */
+	@Test
+	public void testBVH() {
+		Geometries bvh = new Geometries();
+		Geometries flat = new Geometries().setBVH(false);
+		// a grid of triangles and spheres, and an unbounded plane
+		for (int i = 0; i < 10; ++i) {
+			for (int j = 0; j < 10; ++j) {
+				Triangle triangle = new Triangle(new Point3D(i, j, 5), new Point3D(i + 1, j, 5),
+						new Point3D(i, j + 1, 5));
+				Sphere sphere = new Sphere(0.3, new Point3D(i + 0.5, j + 0.5, 2));
+				bvh.add(triangle, sphere);
+				flat.add(triangle, sphere);
+			}
+		}
+		Plane plane = new Plane(new Point3D(0, 0, 20), new Point3D(1, 0, 20), new Point3D(0, 1, 20));
+		bvh.add(plane);
+		flat.add(plane);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: rays through the grid find the same points as the list
+		for (double x = -0.9; x < 11; x += 0.37) {
+			for (double y = -0.9; y < 11; y += 0.41) {
+				Ray ray = new Ray(new Point3D(x, y, -1), new Vector(0.01, 0.02, 1));
+				var expected = flat.findGeoIntersections(ray);
+				var result = bvh.findGeoIntersections(ray);
+				assertEquals("TC01 wrong number of intersections", expected.size(), result.size());
+				assertTrue("TC01 wrong intersections", result.containsAll(expected));
+			}
+		}
+
+		// TC02: max distance cuts the far objects
+		Ray ray = new Ray(new Point3D(0.5, 0.5, -1), new Vector(0, 0, 1));
+		assertEquals("TC02 wrong number of intersections", 2, bvh.findGeoIntersections(ray, 4).size());
+
+		// =============== Boundary Values Tests ==================
+		// TC03: a ray that goes away from all the bounded objects hits only the plane
+		ray = new Ray(new Point3D(50, 50, 10), new Vector(0, 0, 1));
+		assertEquals("TC03 wrong number of intersections", 1, bvh.findGeoIntersections(ray).size());
+	}
+
+	/**
+	 * Test method for {@link geometries.Geometries#findGeoIntersections(primitives.Ray, double)}
+	 * with nested groups that are culled by their box.
+	 */
+	@Test
+	public void testNestedGroups() {
+		Geometries near = new Geometries(new Sphere(1, new Point3D(0, 0, 5)), new Sphere(1, new Point3D(3, 0, 5)));
+		Geometries far = new Geometries(new Sphere(1, new Point3D(0, 0, 15)), new Sphere(1, new Point3D(30, 0, 15)));
+		Geometries all = new Geometries(near, far);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: ray through both groups
+		Ray ray = new Ray(Point3D.ZERO, new Vector(0, 0, 1));
+		assertEquals("TC01 wrong number of intersections", 4, all.findGeoIntersections(ray).size());
+		// TC02: ray that misses both group boxes
+		ray = new Ray(new Point3D(0, 10, 0), new Vector(0, 0, 1));
+		assertNull("TC02 wrong number of intersections", all.findGeoIntersections(ray));
+
+		// =============== Boundary Values Tests ==================
+		// TC03: the same without BVH, only the box of the group rejects the ray
+		near.setBVH(false);
+		far.setBVH(false);
+		all.setBVH(false);
+		assertNull("TC03 wrong number of intersections", all.findGeoIntersections(ray));
+		ray = new Ray(new Point3D(30, 0, 0), new Vector(0, 0, 1));
+		assertEquals("TC03 wrong number of intersections", 2, all.findGeoIntersections(ray).size());
+	}
+
+	/**
+	 * Test method for {@link geometries.Geometries#add(Intersectable...)} and
+	 * {@link geometries.Geometries#getList()}: a change of a nested group after the
+	 * box of the outer group was built
+	 */
+	@Test
+	public void testNestedChanges() {
+		Geometries inner = new Geometries(new Sphere(1, new Point3D(0, 0, -10)));
+		Geometries outer = new Geometries(inner);
+		Ray ray = new Ray(new Point3D(5, 0, 0), new Vector(0, 0, -1));
+		assertNull("wrong number of intersections", outer.findGeoIntersections(ray));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: an object added to the nested group
+		inner.add(new Sphere(1, new Point3D(5, 0, -10)));
+		assertEquals("TC01 wrong number of intersections", 2, outer.findGeoIntersections(ray).size());
+		// TC02: an object put in the list of the nested group
+		ray = new Ray(new Point3D(-5, 0, 0), new Vector(0, 0, -1));
+		assertNull("TC02 wrong number of intersections", outer.findGeoIntersections(ray));
+		inner.getList().set(0, new Sphere(1, new Point3D(-5, 0, -10)));
+		assertEquals("TC02 wrong number of intersections", 2, outer.findGeoIntersections(ray).size());
+		// TC03: an object removed from the list of the nested group
+		inner.getList().remove(0);
+		assertNull("TC03 wrong number of intersections", outer.findGeoIntersections(ray));
+
+		// TC04: a group that was removed does not drop the index of the outer group
+		Geometries removed = new Geometries(new Sphere(1, new Point3D(0, -5, -10)));
+		outer.add(removed);
+		ray = new Ray(new Point3D(0, -5, 0), new Vector(0, 0, -1));
+		assertEquals("TC04 wrong number of intersections", 2, outer.findGeoIntersections(ray).size());
+		outer.getList().remove(removed);
+		assertNull("TC04 wrong number of intersections", outer.findGeoIntersections(ray));
+		Ray other = new Ray(new Point3D(0, -8, 0), new Vector(0, 0, -1));
+		BoundingBox box = outer.getBoundingBox();
+		removed.add(new Sphere(1, new Point3D(0, -8, -10)));
+		assertSame("TC04 the index of the outer group was dropped", box, outer.getBoundingBox());
+		assertNull("TC04 wrong number of intersections", outer.findGeoIntersections(other));
+
+		// =============== Boundary Values Tests ==================
+		// TC05: a change two groups deep
+		Geometries top = new Geometries(outer);
+		ray = new Ray(new Point3D(0, 5, 0), new Vector(0, 0, -1));
+		assertNull("TC05 wrong number of intersections", top.findGeoIntersections(ray));
+		inner.getList().add(new Sphere(1, new Point3D(0, 5, -10)));
+		assertEquals("TC05 wrong number of intersections", 2, top.findGeoIntersections(ray).size());
+	}
+
+	/**
+	 * Test method for {@link geometries.Geometries#buildBVH(int)}: the trees of
+	 * the nested groups are built by the threads
+	 * 
+	 * @throws IOException if the directory of the cache cannot be created
+	 */
+	@Test
+	public void testBuildBVH() throws IOException {
+		int count = 5000;
+		Geometries inner = new Geometries();
+		double[] bounds = new double[count * 6];
+		for (int i = 0; i < count; ++i) {
+			Sphere sphere = new Sphere(0.4, new Point3D(i % 100, i / 100, -10));
+			inner.add(sphere);
+			BoundingBox box = sphere.getBoundingBox();
+			double[] values = { box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ };
+			System.arraycopy(values, 0, bounds, 6 * i, 6);
+		}
+		Geometries outer = new Geometries(new Geometries(inner), new Sphere(1, new Point3D(0, 0, 10)));
+
+		// a cache that builds every tree and keeps the numbers of threads
+		Set<Integer> threads = ConcurrentHashMap.newKeySet();
+		Path directory = Files.createTempDirectory("bvh");
+		directory.toFile().deleteOnExit();
+		BVHCache previous = BVH.getCache();
+		BVH.setCache(new BVHCache(directory, Integer.MAX_VALUE) {
+			@Override
+			public BVH get(double[] b, int n, int t) {
+				threads.add(t);
+				return super.get(b, n, t);
+			}
+		});
+		try {
+			outer.buildBVH(4);
+		} finally {
+			BVH.setCache(previous);
+		}
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: every tree, of the nested groups too, is built by the threads
+		assertEquals("TC01 wrong numbers of threads", Set.of(4), threads);
+		// TC02: the nested tree is the tree of a parallel build
+		BVH expected = BVH.build(bounds, count, 4);
+		BVH tree = inner.getBVH();
+		assertArrayEquals("TC02 wrong tree", expected.getNodeBounds(), tree.getNodeBounds(), 0);
+		assertArrayEquals("TC02 wrong tree", expected.getNodeData(), tree.getNodeData());
+		assertArrayEquals("TC02 wrong tree", expected.getIndices(), tree.getIndices());
+	}
+
+	/**
+	 * Test method for
+	 * {@link geometries.Geometries#findClosestGeoIntersection(primitives.Ray, double)}.
+	 */
+	@Test
+	public void testFindClosestGeoIntersection() {
+		Geometries geometries = new Geometries();
+		for (int i = 0; i < 6; ++i) {
+			geometries.add(new Triangle(new Point3D(i, 0, 5 + i), new Point3D(i + 1, 0, 5 + i),
+					new Point3D(i, 1, 5 + i)), new Sphere(0.4, new Point3D(i + 0.5, 0.5, 3 + 2 * i)));
+		}
+		geometries.add(new Plane(new Point3D(0, 0, 20), new Point3D(1, 0, 20), new Point3D(0, 1, 20)));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the closest point is the nearest of all the points, with and without BVH
+		for (boolean bvh : new boolean[] { true, false }) {
+			geometries.setBVH(bvh);
+			for (double x = -0.5; x < 7; x += 0.23) {
+				Ray ray = new Ray(new Point3D(x, 0.3, -1), new Vector(0.05, 0.01, 1));
+				var expected = ray.findClosestGeoPoint(geometries.findGeoIntersections(ray));
+				assertEquals("TC01 wrong closest point", expected, geometries.findClosestGeoIntersection(ray));
+			}
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC02: nothing nearer than the max distance
+		Ray ray = new Ray(new Point3D(0.5, 0.5, -1), new Vector(0, 0, 1));
+		assertNull("TC02 there should be no point", geometries.findClosestGeoIntersection(ray, 3));
+		// TC03: the ray starts between objects
+		ray = new Ray(new Point3D(0.3, 0.3, 4), new Vector(0, 0, 1));
+		assertEquals("TC03 wrong closest point", new Point3D(0.3, 0.3, 5),
+				geometries.findClosestGeoIntersection(ray).point);
+	}
+
+	/**
+	 * Test method for
+	 * {@link geometries.Geometries#findTransparency(primitives.Ray, double, double)}.
+	 */
+	@Test
+	public void testFindTransparency() {
+		Geometries geometries = new Geometries(
+				new Sphere(1, new Point3D(0, 0, 5)).setMaterial(new Material().setKt(0.5)),
+				new Sphere(1, new Point3D(0, 0, 10)).setMaterial(new Material().setKt(0.5)),
+				new Sphere(1, new Point3D(5, 0, 5)));
+		Ray ray = new Ray(new Point3D(0, 0, 0), new Vector(0, 0, 1));
+
+		// ============ Equivalence Partitions Tests ==============
+		for (boolean bvh : new boolean[] { true, false }) {
+			geometries.setBVH(bvh);
+			// TC01: light passes through two transparent spheres (4 points)
+			assertEquals("TC01 wrong transparency", 0.0625, geometries.findTransparency(ray, 100, 0.001), 0.00001);
+			// TC02: only the first sphere is before the light
+			assertEquals("TC02 wrong transparency", 0.25, geometries.findTransparency(ray, 8, 0.001), 0.00001);
+			// TC03: light is blocked by an opaque sphere
+			Ray blocked = new Ray(new Point3D(5, 0, 0), new Vector(0, 0, 1));
+			assertEquals("TC03 light should be blocked", 0, geometries.findTransparency(blocked, 100, 0.001),
+					0.00001);
+			// TC04: nothing between the point and the light
+			Ray free = new Ray(new Point3D(20, 0, 0), new Vector(0, 0, 1));
+			assertEquals("TC04 light should pass", 1, geometries.findTransparency(free, 100, 0.001), 0.00001);
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC05: transparency below the threshold counts as blocked
+		assertEquals("TC05 light should be blocked", 0, geometries.findTransparency(ray, 100, 0.1), 0.00001);
+	}
+
 }
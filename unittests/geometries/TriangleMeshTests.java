@@ -0,0 +1,193 @@
+package unittests.geometries;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import geometries.*;
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+
+/**
+ * Testing TriangleMesh
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class TriangleMeshTests {
+	/**
+	 * vertices of a unit cube
+	 */
+	private static final double[] CUBE_VERTICES = { 0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0, //
+			0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1 };
+	/**
+	 * the 12 faces of the cube, the faces of z = 0 first
+	 */
+	private static final int[] CUBE_FACES = { 0, 2, 1, 0, 3, 2, 4, 5, 6, 4, 6, 7, 0, 1, 5, 0, 5, 4, //
+			1, 2, 6, 1, 6, 5, 2, 3, 7, 2, 7, 6, 3, 0, 4, 3, 4, 7 };
+
+	/**
+	 * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+	 */
+	@Test
+	public void testConstructor() {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: correct mesh
+		TriangleMesh mesh = new TriangleMesh(CUBE_VERTICES, CUBE_FACES);
+		assertEquals("TC01 wrong number of vertices", 8, mesh.getVertexCount());
+		assertEquals("TC01 wrong number of faces", 12, mesh.getFaceCount());
+
+		// =============== Boundary Values Tests ==================
+		// TC02: index of a vertex that does not exist
+		assertThrows("TC02 constructed a mesh with a wrong index", IllegalArgumentException.class,
+				() -> new TriangleMesh(CUBE_VERTICES, new int[] { 0, 1, 8 }));
+		// TC03: no faces
+		assertThrows("TC03 constructed a mesh without faces", IllegalArgumentException.class,
+				() -> new TriangleMesh(CUBE_VERTICES, new int[0]));
+		// TC04: faces that are not triples
+		assertThrows("TC04 constructed a mesh with a broken face", IllegalArgumentException.class,
+				() -> new TriangleMesh(CUBE_VERTICES, new int[] { 0, 1, 2, 3 }));
+	}
+
+	/**
+	 * Test method for
+	 * {@link geometries.TriangleMesh#findGeoIntersections(primitives.Ray, double)}.
+	 */
+	@Test
+	public void testFindGeoIntersections() {
+		TriangleMesh mesh = new TriangleMesh(CUBE_VERTICES, CUBE_FACES);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: ray crosses the cube (2 points)
+		Ray ray = new Ray(new Point3D(0.3, 0.4, -1), new Vector(0, 0, 1));
+		List<Point3D> result = mesh.findIntersections(ray);
+		assertEquals("TC01 wrong number of points", 2, result.size());
+		assertTrue("TC01 wrong points", result.contains(new Point3D(0.3, 0.4, 0)));
+		assertTrue("TC01 wrong points", result.contains(new Point3D(0.3, 0.4, 1)));
+		// TC02: ray starts inside the cube (1 point)
+		ray = new Ray(new Point3D(0.3, 0.4, 0.5), new Vector(0.1, 0.2, 1));
+		assertEquals("TC02 wrong number of points", 1, mesh.findGeoIntersections(ray).size());
+		// TC03: ray misses the cube
+		assertNull("TC03 ray should miss the cube",
+				mesh.findGeoIntersections(new Ray(new Point3D(2, 2, -1), new Vector(0, 0, 1))));
+		// TC04: the same points as the triangles of the faces
+		Geometries triangles = new Geometries();
+		for (int f = 0; f < CUBE_FACES.length; f += 3)
+			triangles.add(new Triangle(vertex(CUBE_FACES[f]), vertex(CUBE_FACES[f + 1]), vertex(CUBE_FACES[f + 2])));
+		for (double x = -0.45; x < 1.5; x += 0.1) {
+			ray = new Ray(new Point3D(x, -1, -0.7), new Vector(0.1, 1, 0.9));
+			List<Point3D> expected = triangles.findIntersections(ray);
+			assertEquals("TC04 wrong number of points", expected == null ? 0 : expected.size(),
+					mesh.findGeoIntersections(ray) == null ? 0 : mesh.findGeoIntersections(ray).size());
+			Point3D closest = ray.findClosestPoint(expected);
+			GeoPoint meshClosest = mesh.findClosestGeoIntersection(ray);
+			assertEquals("TC04 wrong closest point", closest, meshClosest == null ? null : meshClosest.point);
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC05: ray through the diagonal edges of the bottom and top faces
+		ray = new Ray(new Point3D(0.5, 0.5, -1), new Vector(0, 0, 1));
+		assertNull("TC05 edge points should be ignored", mesh.findGeoIntersections(ray));
+		// TC06: the cube is farther than the max distance
+		assertNull("TC06 cube is too far",
+				mesh.findGeoIntersections(new Ray(new Point3D(0.3, 0.4, -1), new Vector(0, 0, 1)), 0.5));
+	}
+
+	/**
+	 * Test method for {@link geometries.TriangleMesh#addGroup(int, Color, Material)}.
+	 */
+	@Test
+	public void testGroups() {
+		Material glass = new Material().setKt(0.5);
+		TriangleMesh mesh = new TriangleMesh(CUBE_VERTICES, CUBE_FACES) //
+				.setEmission(new Color(java.awt.Color.RED)) //
+				.addGroup(2, new Color(java.awt.Color.BLUE), glass);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the faces of z = 0 are in the first group
+		Ray ray = new Ray(new Point3D(0.3, 0.4, -1), new Vector(0, 0, 1));
+		GeoPoint point = mesh.findClosestGeoIntersection(ray);
+		assertEquals("TC01 wrong emission", new Color(java.awt.Color.RED).getColor(),
+				point.geometry.getEmission().getColor());
+		// TC02: the other faces are in the second group
+		ray = new Ray(new Point3D(0.3, 0.4, 2), new Vector(0, 0, -1));
+		point = mesh.findClosestGeoIntersection(ray);
+		assertSame("TC02 wrong material", glass, point.geometry.getMaterial());
+		// TC03: normal of a face is the normal of its triangle
+		assertEquals("TC03 wrong normal", new Vector(0, 0, 1), point.geometry.getNormal(point.point));
+		// TC04: transparent face lets light through and the opaque face blocks it
+		assertEquals("TC04 wrong transparency", 0.5,
+				mesh.findTransparency(new Ray(new Point3D(0.3, 0.4, 2), new Vector(0, 0, -1)), 1.5, 0.001), 0.00001);
+		assertEquals("TC04 light should be blocked", 0,
+				mesh.findTransparency(new Ray(new Point3D(0.3, 0.4, 2), new Vector(0, 0, -1)), 10, 0.001), 0.00001);
+
+		// =============== Boundary Values Tests ==================
+		// TC05: group that does not start after the last group
+		assertThrows("TC05 added a wrong group", IllegalArgumentException.class,
+				() -> mesh.addGroup(2, Color.BLACK, glass));
+		// TC06: group after the last face
+		assertThrows("TC06 added a wrong group", IllegalArgumentException.class,
+				() -> mesh.addGroup(12, Color.BLACK, glass));
+	}
+
+	/**
+	 * Test method for {@link geometries.TriangleMesh#buildBVH(int)}.
+	 */
+	@Test
+	public void testBuildBVH() {
+		Random random = new Random(5);
+		int faces = 40000;
+		double[] vertices = new double[9 * faces];
+		for (int i = 0; i < vertices.length; ++i)
+			vertices[i] = random.nextDouble() * 100 + (i % 9 < 3 ? 0 : random.nextDouble());
+		int[] indices = new int[3 * faces];
+		for (int i = 0; i < indices.length; ++i)
+			indices[i] = i;
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the tree of several threads is the tree of a single thread
+		TriangleMesh serial = new TriangleMesh(vertices, indices);
+		TriangleMesh parallel = new TriangleMesh(vertices.clone(), indices.clone());
+		parallel.buildBVH(4);
+		assertTree("TC01", serial.getBVH(), parallel.getBVH());
+		Ray ray = new Ray(new Point3D(50, 50, -10), new Vector(0.1, 0.2, 1));
+		assertEquals("TC01 wrong number of points", serial.findGeoIntersections(ray).size(),
+				parallel.findGeoIntersections(ray).size());
+
+		// =============== Boundary Values Tests ==================
+		// TC02: faces of the same center are split in the median by every thread
+		double[] same = new double[9 * faces];
+		for (int i = 0; i < same.length; ++i)
+			same[i] = i % 9 == 3 || i % 9 == 7 ? 1 : 0;
+		TriangleMesh equal = new TriangleMesh(same, indices);
+		equal.buildBVH(4);
+		assertTree("TC02", new TriangleMesh(same, indices).getBVH(), equal.getBVH());
+	}
+
+	/**
+	 * check that two trees are the same
+	 * 
+	 * @param test     name of the test
+	 * @param expected the expected tree
+	 * @param actual   the tree
+	 */
+	private static void assertTree(String test, BVH expected, BVH actual) {
+		assertArrayEquals(test + " wrong tree", expected.getNodeBounds(), actual.getNodeBounds(), 0);
+		assertArrayEquals(test + " wrong tree", expected.getNodeData(), actual.getNodeData());
+		assertArrayEquals(test + " wrong tree", expected.getIndices(), actual.getIndices());
+	}
+
+	/**
+	 * get a vertex of the cube
+	 * 
+	 * @param index vertex index
+	 * @return the vertex
+	 */
+	private static Point3D vertex(int index) {
+		return new Point3D(CUBE_VERTICES[3 * index], CUBE_VERTICES[3 * index + 1], CUBE_VERTICES[3 * index + 2]);
+	}
+}
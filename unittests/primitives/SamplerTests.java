@@ -0,0 +1,83 @@
+package unittests.primitives;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import primitives.*;
+
+/**
+ * Testing the samplers
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ *
+ */
+public class SamplerTests {
+	/**
+	 * Test method for {@link primitives.Sampler#startPixel(int, int)}.
+	 */
+	@Test
+	public void testStartPixel() {
+		Sampler[] samplers = { new RandomSampler(7), new StratifiedSampler(7, 16), new SobolSampler(7),
+				new BlueNoiseSampler(7) };
+		for (Sampler sampler : samplers) {
+			String name = sampler.getClass().getSimpleName();
+			Sampler copy = sampler.copy();
+
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: a copy restarted at the same pixel returns the same numbers
+			sampler.startPixel(3, 5);
+			copy.startPixel(10, 10);
+			copy.next();
+			copy.startPixel(3, 5);
+			double[] first = new double[10];
+			for (int i = 0; i < first.length; ++i) {
+				first[i] = sampler.next();
+				assertEquals("TC01 " + name + " wrong number", first[i], copy.next(), 0);
+				assertTrue("TC01 " + name + " number out of range", first[i] >= 0 && first[i] < 1);
+			}
+			// TC02: another pixel returns other numbers
+			sampler.startPixel(4, 5);
+			boolean same = true;
+			for (int i = 0; i < first.length; ++i)
+				same &= first[i] == sampler.next();
+			assertFalse("TC02 " + name + " pixels have the same numbers", same);
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC03: another seed returns other numbers
+		Sampler sampler = new RandomSampler(1);
+		Sampler other = new RandomSampler(2);
+		sampler.startPixel(0, 0);
+		other.startPixel(0, 0);
+		assertNotEquals("TC03 seeds have the same numbers", sampler.next(), other.next(), 0);
+	}
+
+	/**
+	 * Test method for {@link primitives.Sampler#next()}: the points of a pixel
+	 * cover the unit square
+	 */
+	@Test
+	public void testNext() {
+		Sampler[] samplers = { new StratifiedSampler(3, 16), new SobolSampler(3) };
+		for (Sampler sampler : samplers) {
+			String name = sampler.getClass().getSimpleName();
+
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: 16 points are in 16 different cells of a 4x4 grid
+			sampler.startPixel(1, 2);
+			boolean[] cells = new boolean[16];
+			for (int i = 0; i < 16; ++i) {
+				int cell = (int) (sampler.next() * 4) + 4 * (int) (sampler.next() * 4);
+				assertFalse("TC01 " + name + " two points in a cell", cells[cell]);
+				cells[cell] = true;
+			}
+		}
+
+		// =============== Boundary Values Tests ==================
+		// TC02: no samples in a pass
+		assertThrows("TC02 sampler without samples", IllegalArgumentException.class,
+				() -> new StratifiedSampler(0, 0));
+	}
+}
@@ -0,0 +1,111 @@
+package unittests.renderer;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Testing AmbientOcclusionTracer
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class AmbientOcclusionTracerTests {
+	/**
+	 * ray that hits the floor one unit from the wall
+	 */
+	private static final Ray RAY = new Ray(new Point3D(1, 5, 5), new Vector(0, -1, -1));
+
+	/**
+	 * Test method for {@link renderer.AmbientOcclusionTracer#traceRay(primitives.Ray)}
+	 */
+	@Test
+	public void testTraceRay() {
+		Sampler previous = Sampler.current();
+		Sampler.setCurrent(new RandomSampler(1));
+		try {
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: open floor
+			AmbientOcclusionTracer tracer = new AmbientOcclusionTracer(corner(null), 10);
+			assertEquals("TC01 open point is occluded", 255, tracer.traceRay(RAY).getRed(), 0.000001);
+			// TC02: the wall next to the point hides almost half of the hemisphere
+			tracer = new AmbientOcclusionTracer(corner(new Material()), 10);
+			tracer.setSamples(10000);
+			double red = tracer.traceRay(RAY).getRed();
+			assertTrue("TC02 wrong occlusion", red > 0.5 * 255 && red < 0.7 * 255);
+			// TC03: a transparent wall hides less
+			tracer = new AmbientOcclusionTracer(corner(new Material().setKt(0.5)), 10);
+			tracer.setSamples(10000);
+			double transparent = tracer.traceRay(RAY).getRed();
+			assertTrue("TC03 wrong occlusion", transparent > red && transparent < 255);
+
+			// =============== Boundary Values Tests ==================
+			// TC04: the wall is farther than the distance
+			tracer = new AmbientOcclusionTracer(corner(new Material()), 0.9);
+			assertEquals("TC04 far wall occludes", 255, tracer.traceRay(RAY).getRed(), 0.000001);
+			// TC05: a closed point
+			Scene scene = new Scene("Test scene");
+			scene.geometries.add(new Sphere(5, Point3D.ZERO));
+			tracer = new AmbientOcclusionTracer(scene, 100);
+			assertEquals("TC05 closed point is open", 0,
+					tracer.traceRay(new Ray(Point3D.ZERO, new Vector(1, 2, 3))).getRed(), 0.000001);
+			// TC06: a ray that misses
+			assertEquals("TC06 missing ray has a color", 0,
+					tracer.traceRay(new Ray(new Point3D(10, 0, 0), new Vector(1, 0, 0))).getRed(), 0.000001);
+		} finally {
+			Sampler.setCurrent(previous);
+		}
+	}
+
+	/**
+	 * Test method for {@link renderer.RayTracerBasic#setAmbientOcclusion(int, double)}
+	 */
+	@Test
+	public void testAmbientOcclusion() {
+		Scene scene = corner(new Material());
+		scene.setAmbientLight(new AmbientLight(new Color(100, 100, 100), 1));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setAmbientOcclusion(100, 10);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the ambient light of a point near the wall is lower
+		double red = tracer.traceRay(RAY).getRed();
+		assertTrue("TC01 wrong ambient light", red > 0 && red < 100);
+		// TC02: the ambient light of an open point is all there
+		Ray open = new Ray(new Point3D(20, 5, 5), new Vector(0, -1, -1));
+		assertEquals("TC02 wrong ambient light", 100, tracer.traceRay(open).getRed(), 0.000001);
+
+		// =============== Boundary Values Tests ==================
+		// TC03: a render budget halves the occlusion samples after the beams
+		tracer.setNumOfRays(2);
+		assertTrue("TC03 quality was not lowered", tracer.degradeQuality() && tracer.degradeQuality());
+		Properties quality = new Properties();
+		tracer.addQuality(quality);
+		assertEquals("TC03 wrong beam", "1", quality.getProperty("tracer.numOfRays"));
+		assertEquals("TC03 wrong occlusion samples", "50", quality.getProperty("tracer.aoSamples"));
+	}
+
+	/**
+	 * build a scene of a floor y = 0 and a wall x = 0
+	 * 
+	 * @param wall material of the wall, null for no wall
+	 * @return the scene
+	 */
+	private static Scene corner(Material wall) {
+		Scene scene = new Scene("Test scene");
+		scene.geometries.add(new Plane(new Point3D(0, 0, 0), new Point3D(0, 0, 1), new Point3D(1, 0, 0)));
+		if (wall != null)
+			scene.geometries.add(new Plane(new Point3D(0, 0, 0), new Point3D(0, 1, 0), new Point3D(0, 0, 1)) //
+					.setMaterial(wall));
+		return scene;
+	}
+}
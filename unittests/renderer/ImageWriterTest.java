@@ -1,5 +1,14 @@
 package unittests.renderer;
 
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 import primitives.*;
 import renderer.*;
@@ -43,4 +52,59 @@ public class ImageWriterTest {
 		}
 		imageWriter.writeToImage();
 	}
+
+	/**
+	 * Test method for {@link renderer.ImageWriter#getPixel(int, int)}.
+	 */
+	@Test
+	public void testGetPixel() {
+		ImageWriter imageWriter = new ImageWriter("pixels", 4, 3);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the color of a pixel is kept
+		imageWriter.writePixel(3, 2, new Color(10, 20, 30));
+		Color color = imageWriter.getPixel(3, 2);
+		assertEquals("TC01 wrong red", 10, color.getRed(), 0.0001);
+		assertEquals("TC01 wrong blue", 30, color.getBlue(), 0.0001);
+		// TC02: samples are accumulated
+		imageWriter.addPixel(3, 2, new Color(0.5, 0.25, 0.125));
+		assertEquals("TC02 wrong accumulated green", 20.25, imageWriter.getPixel(3, 2).getGreen(), 0.0001);
+
+		// =============== Boundary Values Tests ==================
+		// TC03: color brighter than 255 is not clamped
+		imageWriter.writePixel(0, 0, new Color(1000, 300, 255));
+		assertEquals("TC03 color should not be clamped", 1000, imageWriter.getPixel(0, 0).getRed(), 0.0001);
+		// TC04: a pixel that was not written is black
+		assertEquals("TC04 pixel should be black", 0, imageWriter.getPixel(1, 1).getGreen(), 0);
+	}
+
+	/**
+	 * Test method for {@link renderer.ImageWriter#writePfm(java.io.OutputStream)}.
+	 * 
+	 * @throws IOException if the stream fails
+	 */
+	@Test
+	public void testWritePfm() throws IOException {
+		ImageWriter imageWriter = new ImageWriter("pfm", 2, 3);
+		imageWriter.writePixel(0, 2, new Color(1000.5, 2, 3));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		imageWriter.writePfm(out);
+		byte[] bytes = out.toByteArray();
+		String header = "PF\n2 3\n-1.0\n";
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: header of the resolution and little endian floats
+		assertEquals("TC01 wrong header", header,
+				new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+		assertEquals("TC01 wrong size", header.length() + 2 * 3 * 3 * 4, bytes.length);
+		// TC02: the bottom row is first and the colors are not clamped
+		FloatBuffer floats = ByteBuffer.wrap(bytes, header.length(), bytes.length - header.length())
+				.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		assertEquals("TC02 wrong red", 1000.5, floats.get(0), 0);
+		assertEquals("TC02 wrong blue", 3, floats.get(2), 0);
+
+		// =============== Boundary Values Tests ==================
+		// TC03: a pixel that was not written is 0
+		assertEquals("TC03 pixel should be black", 0, floats.get(3), 0);
+	}
 }
@@ -0,0 +1,128 @@
+package unittests.renderer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Testing PathTracer
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class PathTracerTests {
+	/**
+	 * Test method for {@link renderer.PathTracer#traceRay(primitives.Ray)}: inside
+	 * a closed sphere that emits E and reflects a part a of the light, every ray
+	 * sees E / (1 - a)
+	 */
+	@Test
+	public void testFurnace() {
+		Sampler previous = Sampler.current();
+		Sampler.setCurrent(new RandomSampler(1));
+		try {
+			Ray ray = new Ray(new Point3D(10, 5, 0), new Vector(0.3, -0.2, 1));
+
+			// ============ Equivalence Partitions Tests ==============
+			// TC01: diffuse sphere
+			PathTracer tracer = furnace(new Material().setKd(0.5));
+			tracer.setMaxDepth(1000);
+			tracer.setSamples(20000);
+			assertEquals("TC01 wrong color", 20, tracer.traceRay(ray).getRed(), 0.4);
+			// TC02: a sphere that is half diffuse and half mirror
+			tracer = furnace(new Material().setKd(0.25).setKr(0.25));
+			tracer.setMaxDepth(1000);
+			tracer.setSamples(20000);
+			assertEquals("TC02 wrong color", 20, tracer.traceRay(ray).getRed(), 0.4);
+
+			// =============== Boundary Values Tests ==================
+			// TC03: a single bounce has only the emission
+			tracer.setMaxDepth(1);
+			assertEquals("TC03 wrong color", 10, tracer.traceRay(ray).getRed(), 0.000001);
+			// TC04: without Russian roulette the paths end at the max depth
+			tracer = furnace(new Material().setKr(0.5));
+			tracer.setRussianRoulette(0);
+			tracer.setMaxDepth(3);
+			assertEquals("TC04 wrong color", 17.5, tracer.traceRay(ray).getRed(), 0.000001);
+		} finally {
+			Sampler.setCurrent(previous);
+		}
+	}
+
+	/**
+	 * Test method for {@link renderer.PathTracer#traceRay(primitives.Ray)}: the
+	 * direct light is the light of the Whitted ray tracer and the shadows get
+	 * indirect light
+	 */
+	@Test
+	public void testLights() {
+		Scene scene = new Scene("Test scene");
+		scene.geometries.add( //
+				new Plane(new Point3D(0, 0, 0), new Point3D(0, 0, 1), new Point3D(1, 0, 0)) //
+						.setMaterial(new Material().setKd(0.8)), //
+				new Triangle(new Point3D(-3, 1, -3), new Point3D(3, 1, -3), new Point3D(0, 1, 4)) //
+						.setMaterial(new Material().setKd(0.8)));
+		scene.lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 3, 0)));
+		RayTracerBasic basic = new RayTracerBasic(scene);
+		PathTracer tracer = new PathTracer(scene);
+		tracer.setMaxDepth(1);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: a lit point
+		Ray ray = new Ray(new Point3D(8, 1, 1), new Vector(0, -1, -1));
+		assertEquals("TC01 wrong direct light", basic.traceRay(ray).getRed(), tracer.traceRay(ray).getRed(),
+				0.000001);
+		// TC02: a point in the shadow gets only indirect light
+		ray = new Ray(new Point3D(0, 0.5, 5), new Vector(0, -0.5, -5));
+		assertEquals("TC02 shadow should be black", 0, basic.traceRay(ray).getRed(), 0.000001);
+		assertEquals("TC02 shadow should be black", 0, tracer.traceRay(ray).getRed(), 0.000001);
+		tracer.setMaxDepth(5);
+		tracer.setSamples(1000);
+		assertTrue("TC02 shadow has no indirect light", tracer.traceRay(ray).getRed() > 0);
+	}
+
+	/**
+	 * Test method for {@link renderer.PathTracer#degradeQuality()}
+	 */
+	@Test
+	public void testDegradeQuality() {
+		PathTracer tracer = new PathTracer(new Scene("Test scene"));
+		tracer.setSamples(3);
+		tracer.setMaxDepth(2);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the paths are halved first
+		assertTrue("TC01 quality was not lowered", tracer.degradeQuality());
+		assertEquals("TC01 wrong amount of paths", 2, tracer.getSamples());
+		assertTrue("TC01 quality was not lowered", tracer.degradeQuality());
+		assertEquals("TC01 wrong amount of paths", 1, tracer.getSamples());
+		// TC02: then the bounces
+		assertTrue("TC02 quality was not lowered", tracer.degradeQuality());
+		assertEquals("TC02 wrong max depth", 1, tracer.getMaxDepth());
+
+		// =============== Boundary Values Tests ==================
+		// TC03: the lowest quality
+		assertFalse("TC03 quality was lowered", tracer.degradeQuality());
+	}
+
+	/**
+	 * build a path tracer of a closed sphere that emits red 10
+	 * 
+	 * @param material material of the sphere
+	 * @return the path tracer
+	 */
+	private static PathTracer furnace(Material material) {
+		Scene scene = new Scene("Test scene");
+		scene.geometries.add(new Sphere(100, Point3D.ZERO) //
+				.setEmission(new Color(10, 0, 0)) //
+				.setMaterial(material));
+		return new PathTracer(scene);
+	}
+}
@@ -0,0 +1,98 @@
+package unittests.renderer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import geometries.*;
+import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+/**
+ * Testing RayTracerBasic
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ *
+ */
+public class RayTracerBasicTests {
+	/**
+	 * Test method for {@link renderer.RayTracerBasic#traceRay(primitives.Ray)}:
+	 * the tree of reflected rays is walked without recursion, so any level works
+	 */
+	@Test
+	public void testDeepReflections() {
+		// two mirrors that face each other, every reflection adds red 1
+		Scene scene = new Scene("Test scene");
+		scene.geometries.add( //
+				new Plane(new Point3D(0, 0, -10), new Point3D(1, 0, -10), new Point3D(0, 1, -10)) //
+						.setEmission(new Color(1, 0, 0)) //
+						.setMaterial(new Material().setKr(1)),
+				new Plane(new Point3D(0, 0, 10), new Point3D(1, 0, 10), new Point3D(0, 1, 10)) //
+						.setEmission(new Color(1, 0, 0)) //
+						.setMaterial(new Material().setKr(1)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setNumOfRays(1);
+		Ray ray = new Ray(Point3D.ZERO, new Vector(0, 0, -1));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: default level
+		assertEquals("TC01 wrong color", 10, tracer.traceRay(ray).getRed(), 0.000001);
+		// TC02: a level that recursion would not survive
+		tracer.setMaxLevel(100000);
+		assertEquals("TC02 wrong color", 100000, tracer.traceRay(ray).getRed(), 0.000001);
+
+		// =============== Boundary Values Tests ==================
+		// TC03: a single level has no reflections
+		tracer.setMaxLevel(1);
+		assertEquals("TC03 wrong color", 1, tracer.traceRay(ray).getRed(), 0.000001);
+	}
+
+	/**
+	 * Test method for {@link renderer.RayTracerBasic#setRussianRoulette(int, double)}
+	 */
+	@Test
+	public void testRussianRoulette() {
+		// a hall of mirrors, every reflection adds red 1 times the weight of the ray
+		Scene scene = new Scene("Test scene");
+		scene.geometries.add( //
+				new Plane(new Point3D(0, 0, -10), new Point3D(1, 0, -10), new Point3D(0, 1, -10)) //
+						.setEmission(new Color(1, 0, 0)) //
+						.setMaterial(new Material().setKr(0.9)),
+				new Plane(new Point3D(0, 0, 10), new Point3D(1, 0, 10), new Point3D(0, 1, 10)) //
+						.setEmission(new Color(1, 0, 0)) //
+						.setMaterial(new Material().setKr(0.9)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setNumOfRays(1);
+		tracer.setMaxLevel(50);
+		Ray ray = new Ray(Point3D.ZERO, new Vector(0, 0, -1));
+		// 1 + 0.9 + ... + 0.9^49
+		double expected = (1 - Math.pow(0.9, 50)) / 0.1;
+		assertEquals("wrong color without Russian roulette", expected, tracer.traceRay(ray).getRed(), 0.000001);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the mean of many rays is the color without Russian roulette, with
+		// much less rays
+		tracer.setRussianRoulette(2, 1);
+		Sampler previous = Sampler.current();
+		Sampler.setCurrent(new RandomSampler(1));
+		try {
+			long rays = tracer.getRayCount();
+			double sum = 0;
+			int count = 20000;
+			for (int i = 0; i < count; ++i)
+				sum += tracer.traceRay(ray).getRed();
+			rays = tracer.getRayCount() - rays;
+			assertEquals("TC01 Russian roulette is biased", expected, sum / count, expected * 0.01);
+			assertTrue("TC01 Russian roulette did not kill rays", rays < count * 50 / 3);
+
+			// =============== Boundary Values Tests ==================
+			// TC02: rays above the threshold are never killed
+			tracer.setRussianRoulette(1, 0.001);
+			assertEquals("TC02 wrong color", expected, tracer.traceRay(ray).getRed(), 0.000001);
+		} finally {
+			Sampler.setCurrent(previous);
+		}
+	}
+}
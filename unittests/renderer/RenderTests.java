@@ -1,5 +1,9 @@
 package unittests.renderer;
 
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import elements.*;
@@ -83,4 +87,389 @@ public class RenderTests {
 		render.printGrid(100, new Color(java.awt.Color.WHITE));
 		render.writeToImage();
 	}
+
+	/**
+	 * Produce the basic scene with several threads that render small tiles, the
+	 * image should be the same as the image of the single thread
+	 */
+	@Test
+	public void basicRenderThreadedTest() {
+		Scene scene = new Scene("Test scene")//
+				.setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1)) //
+				.setBackground(new Color(75, 127, 90));
+
+		scene.geometries.add(new Sphere(50, new Point3D(0, 0, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, 100, -100), new Point3D(-100, 100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, 100, -100), new Point3D(100, 100, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, -100, -100), new Point3D(-100, -100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, -100, -100), new Point3D(100, -100, -100)));
+
+		ImageWriter single = new ImageWriter("base render single thread test", 1000, 1000);
+		new Render() //
+				.setImageWriter(single) //
+				.setCamera(camera) //
+				.setRayTracer(new RayTracerBasic(scene)) //
+				.renderImage();
+		ImageWriter imageWriter = new ImageWriter("base render threaded test", 1000, 1000);
+		Render render = new Render() //
+				.setImageWriter(imageWriter) //
+				.setCamera(camera) //
+				.setRayTracer(new RayTracerBasic(scene)) //
+				.setMultiThreading(3) //
+				.setTileSize(7);
+
+		render.renderImage();
+		for (int i = 0; i < 1000; ++i)
+			for (int j = 0; j < 1000; ++j)
+				assertEquals("the images are different", single.getPixel(j, i).getColor(),
+						imageWriter.getPixel(j, i).getColor());
+		render.printGrid(100, new Color(java.awt.Color.YELLOW));
+		render.writeToImage();
+	}
+
+	/**
+	 * Produce a glossy scene with a seeded sampler once with a single thread and
+	 * once with several threads, the random beams should give the same image
+	 */
+	@Test
+	public void seededRenderTest() {
+		Scene scene = new Scene("Test scene") //
+				.setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+		scene.geometries.add( //
+				new Sphere(50, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.BLUE)) //
+						.setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKr(0.3)),
+				new Plane(new Point3D(0, -50, 0), new Point3D(1, -50, 0), new Point3D(0, -50, 1)) //
+						.setEmission(new Color(java.awt.Color.GRAY)) //
+						.setMaterial(new Material().setKd(0.5).setKr(0.3)));
+		scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(-100, 100, 100)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setNumOfRays(5);
+		tracer.setRayDistance(10);
+
+		ImageWriter single = new ImageWriter("seeded render test", 40, 40);
+		new Render() //
+				.setImageWriter(single) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.setSampler(new SobolSampler(42)) //
+				.renderImage();
+		ImageWriter threaded = new ImageWriter("seeded render test", 40, 40);
+		new Render() //
+				.setImageWriter(threaded) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.setSampler(new SobolSampler(42)) //
+				.setMultiThreading(3) //
+				.setTileSize(3) //
+				.renderImage();
+
+		for (int i = 0; i < 40; ++i)
+			for (int j = 0; j < 40; ++j)
+				assertEquals("the images are different", single.getPixel(j, i).getColor(),
+						threaded.getPixel(j, i).getColor());
+	}
+
+	/**
+	 * Produce the basic scene with adaptive super sampling, the edges should be
+	 * closer to uniform 4x4 super sampling than a ray per pixel, with much less
+	 * rays than uniform 4x4 super sampling
+	 */
+	@Test
+	public void adaptiveRenderTest() {
+		Scene scene = new Scene("Test scene")//
+				.setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1)) //
+				.setBackground(new Color(75, 127, 90));
+
+		scene.geometries.add(new Sphere(50, new Point3D(0, 0, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, 100, -100), new Point3D(-100, 100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, 100, -100), new Point3D(100, 100, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, -100, -100), new Point3D(-100, -100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, -100, -100), new Point3D(100, -100, -100)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		AtomicInteger rays = new AtomicInteger();
+
+		ImageWriter imageWriter = new ImageWriter("adaptive render test", 100, 100);
+		Render render = new Render() //
+				.setImageWriter(imageWriter) //
+				.setCamera(camera) //
+				.setRayTracer(new RayTracerBase(scene) {
+					@Override
+					public Color traceRay(Ray ray) {
+						rays.incrementAndGet();
+						return tracer.traceRay(ray);
+					}
+				}) //
+				.setAdaptiveSuperSampling(2, 10) //
+				.setMultiThreading(2);
+		render.renderImage();
+		render.writeToImage();
+		assertTrue("too many rays", rays.get() < 100 * 100 * 2);
+
+		// compare to uniform 4x4 super sampling and to a ray through the center
+		CameraRaster raster = camera.getRaster(100, 100);
+		double adaptiveError = 0, centerError = 0;
+		for (int i = 0; i < 100; ++i)
+			for (int j = 0; j < 100; ++j) {
+				Color color = Color.BLACK;
+				for (int y = 0; y < 4; ++y)
+					for (int x = 0; x < 4; ++x)
+						color = color.add(tracer.traceRay(raster.constructRay(j - 0.375 + x / 4d, i - 0.375 + y / 4d)));
+				color = color.reduce(16);
+				adaptiveError += difference(color, imageWriter.getPixel(j, i));
+				centerError += difference(color, tracer.traceRay(raster.constructRay(j, i)));
+			}
+		assertTrue("edges are not smoother", adaptiveError < centerError * 0.75);
+	}
+
+	/**
+	 * Produce a glossy scene with full beams and with adaptive beams, the adaptive
+	 * beams should trace less rays for a similar image. The amount of rays of the
+	 * pixels is written into an image.
+	 */
+	@Test
+	public void adaptiveBeamRenderTest() {
+		Scene scene = new Scene("Test scene") //
+				.setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+		scene.geometries.add( //
+				new Sphere(50, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.BLUE)) //
+						.setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKr(0.1)),
+				new Plane(new Point3D(0, -50, 0), new Point3D(1, -50, 0), new Point3D(0, -50, 1)) //
+						.setEmission(new Color(java.awt.Color.GRAY)) //
+						.setMaterial(new Material().setKd(0.5).setKr(0.1)));
+		scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(-100, 100, 100)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setNumOfRays(33);
+		tracer.setRayDistance(10);
+
+		ImageWriter full = new ImageWriter("full beam render test", 30, 30);
+		long fullRays = tracer.getRayCount();
+		new Render() //
+				.setImageWriter(full) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.renderImage();
+		fullRays = tracer.getRayCount() - fullRays;
+
+		tracer.setAdaptiveBeam(8, 2);
+		ImageWriter adaptive = new ImageWriter("adaptive beam render test", 30, 30);
+		Render render = new Render() //
+				.setImageWriter(adaptive) //
+				.setRayCountImage(new ImageWriter("adaptive beam ray count test", 30, 30)) //
+				.setCamera(camera) //
+				.setRayTracer(tracer);
+		long adaptiveRays = tracer.getRayCount();
+		render.renderImage();
+		adaptiveRays = tracer.getRayCount() - adaptiveRays;
+		render.writeToImage();
+
+		double error = 0;
+		for (int i = 0; i < 30; ++i)
+			for (int j = 0; j < 30; ++j)
+				error += difference(full.getPixel(j, i), adaptive.getPixel(j, i));
+		assertTrue("adaptive beams traced too many rays", adaptiveRays < fullRays / 2);
+		// two renders of full beams with other seeds differ by about 2 on average
+		assertTrue("adaptive beams changed the image", error / 900 < 4);
+	}
+
+	/**
+	 * Produce the basic scene progressively, the first pass should be the image
+	 * of a ray per pixel and the passes should stop when the image converges
+	 */
+	@Test
+	public void progressiveRenderTest() {
+		Scene scene = new Scene("Test scene")//
+				.setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1)) //
+				.setBackground(new Color(75, 127, 90));
+
+		scene.geometries.add(new Sphere(50, new Point3D(0, 0, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, 100, -100), new Point3D(-100, 100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, 100, -100), new Point3D(100, 100, -100)),
+				new Triangle(new Point3D(-100, 0, -100), new Point3D(0, -100, -100), new Point3D(-100, -100, -100)),
+				new Triangle(new Point3D(100, 0, -100), new Point3D(0, -100, -100), new Point3D(100, -100, -100)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+
+		ImageWriter basic = new ImageWriter("progressive basic test", 50, 50);
+		new Render() //
+				.setImageWriter(basic) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.renderImage();
+
+		// TC01: a single pass is the image of a ray per pixel
+		ImageWriter progressive = new ImageWriter("progressive render test", 50, 50);
+		Render render = new Render() //
+				.setImageWriter(progressive) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.setMultiThreading(2) //
+				.setProgressiveBudget(1, 0, 0);
+		render.renderProgressive();
+		assertEquals("TC01 wrong amount of passes", 1, render.getRenderedPasses());
+		for (int i = 0; i < 50; ++i)
+			for (int j = 0; j < 50; ++j)
+				assertEquals("TC01 first pass is not the basic image", basic.getPixel(j, i).getColor(),
+						progressive.getPixel(j, i).getColor());
+
+		// TC02: the passes stop when the pixels hardly change
+		render.setProgressiveBudget(1000, 0, 0.1).setSnapshots(10, 0);
+		render.renderProgressive();
+		assertTrue("TC02 passes did not converge",
+				render.getRenderedPasses() > 1 && render.getRenderedPasses() < 1000);
+		render.writeToImage();
+
+		// TC03: the passes stop when the time is up
+		render.setProgressiveBudget(1000000, 100, 0);
+		render.renderProgressive();
+		assertTrue("TC03 passes did not stop in time", render.getRenderedPasses() < 1000000);
+	}
+
+	/**
+	 * Produce a glossy scene that takes minutes in full quality with a budget of a
+	 * second, the quality should be lowered to finish about in time
+	 */
+	@Test
+	public void renderBudgetTest() {
+		Scene scene = new Scene("Test scene") //
+				.setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+		scene.geometries.add( //
+				new Sphere(50, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.BLUE)) //
+						.setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKr(0.5)),
+				new Plane(new Point3D(0, -50, 0), new Point3D(1, -50, 0), new Point3D(0, -50, 1)) //
+						.setEmission(new Color(java.awt.Color.GRAY)) //
+						.setMaterial(new Material().setKd(0.5).setKr(0.5)));
+		scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(-100, 100, 100)));
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		tracer.setNumOfRays(33);
+		tracer.setRayDistance(10);
+
+		Render render = new Render() //
+				.setImageWriter(new ImageWriter("render budget test", 100, 100)) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.setAdaptiveSuperSampling(2, 10) //
+				.setMultiThreading(2) //
+				.setRenderBudget(1000);
+		long time = System.currentTimeMillis();
+		render.renderImage();
+		time = System.currentTimeMillis() - time;
+		render.writeToImage();
+
+		assertTrue("rendering took too long", time < 5000);
+		assertNotEquals("quality was not lowered", "0", render.getQuality().getProperty("render.degradeSteps"));
+		assertEquals("wrong build time in the quality", Long.toString(render.getBuildMillis()),
+				render.getQuality().getProperty("render.build.millis"));
+		assertTrue("trace time is not part of the render time", render.getTraceMillis() <= Long
+				.parseLong(render.getQuality().getProperty("render.millis")));
+		assertEquals("wrong beam in the quality", Integer.toString(tracer.getNumOfRays()),
+				render.getQuality().getProperty("tracer.numOfRays"));
+	}
+
+	/**
+	 * Produce the glossy scene with the path tracer progressively, every pass is
+	 * a path per pixel and the passes of the threads should be averaged
+	 */
+	@Test
+	public void pathTracerRenderTest() {
+		Scene scene = new Scene("Test scene") //
+				.setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+		scene.geometries.add( //
+				new Sphere(50, new Point3D(0, 0, -100)) //
+						.setEmission(new Color(java.awt.Color.BLUE)) //
+						.setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKr(0.3)),
+				new Plane(new Point3D(0, -50, 0), new Point3D(1, -50, 0), new Point3D(0, -50, 1)) //
+						.setEmission(new Color(java.awt.Color.GRAY)) //
+						.setMaterial(new Material().setKd(0.5).setKr(0.2)));
+		scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(-100, 100, 100)));
+		PathTracer tracer = new PathTracer(scene);
+
+		ImageWriter writer = new ImageWriter("path tracer test", 100, 100);
+		Render render = new Render() //
+				.setImageWriter(writer) //
+				.setCamera(camera) //
+				.setRayTracer(tracer) //
+				.setSampler(new RandomSampler(1)) //
+				.setMultiThreading(2) //
+				.setProgressiveBudget(16, 0, 0);
+		render.renderProgressive();
+		render.writeToImage();
+
+		assertEquals("wrong amount of passes", 16, render.getRenderedPasses());
+		// the plane under the sphere gets the blue light of the sphere
+		Color plane = writer.getPixel(50, 85);
+		assertTrue("plane has no indirect light", plane.getBlue() > plane.getRed());
+	}
+
+	/**
+	 * Produce the output variables of a sphere in front of triangles in the same
+	 * traversal as the image
+	 */
+	@Test
+	public void aovRenderTest() {
+		Scene scene = new Scene("Test scene");
+		Material glass = new Material().setKd(0.2).setKt(0.6);
+		scene.geometries.add(new Sphere(50, new Point3D(0, 0, -100)) //
+				.setEmission(new Color(java.awt.Color.BLUE)) //
+				.setMaterial(glass), //
+				new Triangle(new Point3D(-100, 0, -200), new Point3D(0, 100, -200), new Point3D(-100, 100, -200)) //
+						.setEmission(new Color(java.awt.Color.GREEN)) //
+						.setMaterial(new Material().setKd(0.5)));
+		ImageWriter[] aovs = new ImageWriter[Aov.values().length];
+		Render render = new Render() //
+				.setImageWriter(new ImageWriter("aov render test", 51, 51)) //
+				.setCamera(camera) //
+				.setRayTracer(new RayTracerBasic(scene)) //
+				.setMultiThreading(2);
+		for (Aov aov : Aov.values()) {
+			aovs[aov.ordinal()] = new ImageWriter("aov render test " + aov, 51, 51);
+			render.setAov(aov, aovs[aov.ordinal()]);
+		}
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the center of the sphere
+		render.renderImage();
+		render.writeToImage();
+		assertEquals("TC01 wrong depth", 50, aovs[Aov.DEPTH.ordinal()].getPixel(25, 25).getRed(), 0.0001);
+		assertEquals("TC01 wrong normal", 255, aovs[Aov.NORMAL.ordinal()].getPixel(25, 25).getBlue(), 0.0001);
+		assertEquals("TC01 wrong normal", 127.5, aovs[Aov.NORMAL.ordinal()].getPixel(25, 25).getRed(), 0.0001);
+		assertEquals("TC01 wrong albedo", 255, aovs[Aov.ALBEDO.ordinal()].getPixel(25, 25).getBlue(), 0.0001);
+		assertTrue("TC01 no rays", aovs[Aov.RAY_COUNT.ordinal()].getPixel(25, 25).getRed() > 0);
+		// TC02: a triangle has another material
+		assertNotEquals("TC02 same material id", aovs[Aov.MATERIAL_ID.ordinal()].getPixel(25, 25).getColor(),
+				aovs[Aov.MATERIAL_ID.ordinal()].getPixel(20, 20).getColor());
+		// pixel 20 is 5 pixels of 500 / 51 from the center of the view plane at 100
+		double side = 5 * 500d / 51 * 2;
+		assertEquals("TC02 wrong depth", Math.sqrt(2 * side * side + 200 * 200),
+				aovs[Aov.DEPTH.ordinal()].getPixel(20, 20).getRed(), 0.001);
+		assertEquals("TC02 wrong albedo", 255, aovs[Aov.ALBEDO.ordinal()].getPixel(20, 20).getGreen(), 0.0001);
+		// TC03: the first pass of progressive rendering has the same variables
+		ImageWriter depth = aovs[Aov.DEPTH.ordinal()];
+		render.setAov(Aov.DEPTH, new ImageWriter("aov progressive test", 51, 51)) //
+				.setProgressiveBudget(2, 0, 0) //
+				.renderProgressive();
+		render.setAov(Aov.DEPTH, depth).setProgressiveBudget(1, 0, 0).renderProgressive();
+		assertEquals("TC03 wrong depth", 50, depth.getPixel(25, 25).getRed(), 0.0001);
+
+		// =============== Boundary Values Tests ==================
+		// TC04: a ray that misses
+		assertEquals("TC04 missing ray has a depth", 0, depth.getPixel(50, 50).getRed(), 0);
+		// TC05: adaptive super sampling does not trace the centers of the pixels
+		render.setAdaptiveSuperSampling(1, 10);
+		assertThrows("TC05 adaptive rendering of output variables", IllegalArgumentException.class,
+				render::renderImage);
+	}
+
+	/**
+	 * get the biggest difference of red, green or blue of two colors
+	 * 
+	 * @param c1 first color
+	 * @param c2 second color
+	 * @return the difference
+	 */
+	private static double difference(Color c1, Color c2) {
+		return Math.max(Math.abs(c1.getRed() - c2.getRed()),
+				Math.max(Math.abs(c1.getGreen() - c2.getGreen()), Math.abs(c1.getBlue() - c2.getBlue())));
+	}
 }
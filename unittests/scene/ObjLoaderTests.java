@@ -0,0 +1,148 @@
+package unittests.scene;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+import geometries.TriangleMesh;
+import primitives.*;
+import scene.ObjLoader;
+
+/**
+ * Testing ObjLoader
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class ObjLoaderTests {
+	/**
+	 * a unit cube of quads, with texture coordinates, normals and comments
+	 */
+	private static final String CUBE = "# unit cube\n" //
+			+ "mtllib cube.mtl\n" //
+			+ "o cube\n" //
+			+ "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\n" //
+			+ "v 0 0 1\nv 1.0 0 1\nv 1e0 1 1\n  v\t0 1.0E+0 1\n" //
+			+ "vt 0 0\nvn 0 0 -1\n" //
+			+ "usemtl white\n" //
+			+ "f 1 4 3 2\n" //
+			+ "f 5/1 6/1 7/1 8/1 # top\n" //
+			+ "f 1//1 2//1 6//1 5//1\r\n" //
+			+ "f 2/1/1 3/1/1 7/1/1 6/1/1\n" //
+			+ "f -6 -2 -1 -5\n" //
+			+ "f -8 -5 -1 -4";
+
+	/**
+	 * Test method for {@link scene.ObjLoader#load(java.nio.file.Path)}.
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testLoad() throws IOException {
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the cube, quads are cut into 2 triangles
+		TriangleMesh mesh = ObjLoader.load(write(CUBE));
+		assertEquals("TC01 wrong number of vertices", 8, mesh.getVertexCount());
+		assertEquals("TC01 wrong number of faces", 12, mesh.getFaceCount());
+		assertEquals("TC01 wrong vertex", new Point3D(1, 1, 1), mesh.getVertex(6));
+		assertEquals("TC01 wrong vertex", new Point3D(0, 1, 1), mesh.getVertex(7));
+		assertArrayEquals("TC01 wrong face", new int[] { 0, 3, 2 }, mesh.getFace(0));
+		assertArrayEquals("TC01 wrong face", new int[] { 4, 6, 7 }, mesh.getFace(3));
+		// TC02: relative indices
+		assertArrayEquals("TC02 wrong face", new int[] { 2, 6, 7 }, mesh.getFace(8));
+		assertArrayEquals("TC02 wrong face", new int[] { 0, 3, 7 }, mesh.getFace(10));
+		// TC03: the cube is closed
+		Ray ray = new Ray(new Point3D(0.3, 0.4, -1), new Vector(0, 0, 1));
+		assertEquals("TC03 wrong number of points", 2, mesh.findGeoIntersections(ray).size());
+		ray = new Ray(new Point3D(-1, 0.3, 0.4), new Vector(1, 0, 0));
+		assertEquals("TC03 wrong number of points", 2, mesh.findGeoIntersections(ray).size());
+
+		// =============== Boundary Values Tests ==================
+		// TC04: a wrong number
+		assertThrows("TC04 loaded a wrong number", IOException.class,
+				() -> ObjLoader.load(write("v 0 x 0\nf 1 1 1\n")));
+		// TC05: index 0
+		assertThrows("TC05 loaded index 0", IOException.class,
+				() -> ObjLoader.load(write("v 0 0 0\nf 0 1 1\n")));
+		// TC06: index of a vertex that does not exist
+		assertThrows("TC06 loaded a wrong index", IllegalArgumentException.class,
+				() -> ObjLoader.load(write("v 0 0 0\nf 1 1 2\n")));
+		// TC07: no faces
+		assertThrows("TC07 loaded a mesh without faces", IllegalArgumentException.class,
+				() -> ObjLoader.load(write("v 0 0 0\n")));
+	}
+
+	/**
+	 * Test method for {@link scene.ObjLoader#load(java.nio.file.Path, int)}: the
+	 * numbers are the numbers of Double.parseDouble, and the chunks give the mesh
+	 * of a single chunk
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testChunks() throws IOException {
+		Random random = new Random(7);
+		StringBuilder obj = new StringBuilder();
+		String[] numbers = new String[3000 * 3];
+		for (int i = 0; i < numbers.length; ++i) {
+			// points keep only coordinates that are not almost zero
+			double value = (random.nextBoolean() ? 1 : -1) * (0.5 + random.nextDouble())
+					* Math.pow(10, random.nextInt(10) - 2);
+			numbers[i] = i % 4 == 0 ? Double.toString(value) : String.format("%.6f", value);
+		}
+		for (int v = 0; v < 3000; ++v) {
+			obj.append("v ").append(numbers[3 * v]).append(' ').append(numbers[3 * v + 1]).append(' ')
+					.append(numbers[3 * v + 2]).append('\n');
+			if (v >= 3)
+				obj.append(v % 2 == 0 ? "f -1 -2 -3 -4\n" : "f " + (v - 2) + " " + (v - 1) + " " + v + "\n");
+		}
+		Path path = write(obj.toString());
+		TriangleMesh single = ObjLoader.load(path, 1);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the numbers are parsed like Double.parseDouble
+		for (int v = 0; v < 3000; ++v) {
+			Point3D vertex = single.getVertex(v);
+			assertEquals("TC01 wrong x", Double.parseDouble(numbers[3 * v]), vertex.getX(), 0);
+			assertEquals("TC01 wrong y", Double.parseDouble(numbers[3 * v + 1]), vertex.getY(), 0);
+			assertEquals("TC01 wrong z", Double.parseDouble(numbers[3 * v + 2]), vertex.getZ(), 0);
+		}
+		// TC02: chunks give the same mesh
+		TriangleMesh chunked = ObjLoader.load(path, 7);
+		assertEquals("TC02 wrong number of faces", single.getFaceCount(), chunked.getFaceCount());
+		for (int f = 0; f < single.getFaceCount(); ++f)
+			assertArrayEquals("TC02 wrong face", single.getFace(f), chunked.getFace(f));
+
+		// =============== Boundary Values Tests ==================
+		// TC03: more chunks than lines
+		TriangleMesh tiny = ObjLoader.load(write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n"), 100);
+		assertEquals("TC03 wrong number of faces", 1, tiny.getFaceCount());
+		assertEquals("TC03 wrong vertex", new Point3D(0, 1, 0), tiny.getVertex(2));
+		// TC04: long numbers are parsed exactly
+		tiny = ObjLoader.load(write("v 0.12345678901234567890 -4.5e25 123456789012345678901234\nf 1 1 1\n"), 1);
+		assertEquals("TC04 wrong x", 0.12345678901234567890, tiny.getVertex(0).getX(), 0);
+		assertEquals("TC04 wrong y", -4.5e25, tiny.getVertex(0).getY(), 0);
+		assertEquals("TC04 wrong z", 123456789012345678901234d, tiny.getVertex(0).getZ(), 0);
+	}
+
+	/**
+	 * write a temporary OBJ file that is deleted at exit
+	 * 
+	 * @param text content of the file
+	 * @return the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static Path write(String text) throws IOException {
+		Path path = Files.createTempFile("mesh", ".obj");
+		path.toFile().deleteOnExit();
+		Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+		return path;
+	}
+}
@@ -0,0 +1,131 @@
+package unittests.scene;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import geometries.TriangleMesh;
+import primitives.*;
+import scene.PlyLoader;
+
+/**
+ * Testing PlyLoader
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class PlyLoaderTests {
+	/**
+	 * header of a unit square and a triangle above it, with colors, a comment and
+	 * an element of edges that are skipped
+	 */
+	private static final String HEADER = "ply\n" //
+			+ "format binary_little_endian 1.0\n" //
+			+ "comment made by hand\n" //
+			+ "element vertex 5\n" //
+			+ "property float x\nproperty float y\nproperty float z\n" //
+			+ "property uchar red\n" //
+			+ "element face 2\n" //
+			+ "property uchar flags\n" //
+			+ "property list uchar int vertex_indices\n" //
+			+ "element edge 1\n" //
+			+ "property list uchar int vertex_index\n" //
+			+ "end_header\n";
+
+	/**
+	 * Test method for {@link scene.PlyLoader#load(java.nio.file.Path)}.
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testLoad() throws IOException {
+		ByteBuffer data = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		float[][] points = { { 0, 0, 0 }, { 1, 0, 0 }, { 1, 1, 0 }, { 0, 1, 0 }, { 0.5f, 0.5f, 1 } };
+		for (float[] point : points)
+			data.putFloat(point[0]).putFloat(point[1]).putFloat(point[2]).put((byte) 200);
+		// a quad and a triangle
+		data.put((byte) 0).put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+		data.put((byte) 0).put((byte) 3).putInt(0).putInt(1).putInt(4);
+		// an edge
+		data.put((byte) 2).putInt(0).putInt(4);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the square is cut into 2 triangles, the colors and the edges are
+		// skipped
+		TriangleMesh mesh = PlyLoader.load(write(HEADER, data));
+		assertEquals("TC01 wrong number of vertices", 5, mesh.getVertexCount());
+		assertEquals("TC01 wrong number of faces", 3, mesh.getFaceCount());
+		assertEquals("TC01 wrong vertex", new Point3D(0.5, 0.5, 1), mesh.getVertex(4));
+		assertArrayEquals("TC01 wrong face", new int[] { 0, 1, 2 }, mesh.getFace(0));
+		assertArrayEquals("TC01 wrong face", new int[] { 0, 2, 3 }, mesh.getFace(1));
+		assertArrayEquals("TC01 wrong face", new int[] { 0, 1, 4 }, mesh.getFace(2));
+		Ray ray = new Ray(new Point3D(0.3, 0.6, 1), new Vector(0, 0, -1));
+		assertEquals("TC01 wrong intersection", new Point3D(0.3, 0.6, 0),
+				mesh.findGeoIntersections(ray).get(0).point);
+		// TC02: doubles and unsigned indices
+		ByteBuffer doubles = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		doubles.putDouble(0.1).putDouble(0.2).putDouble(0.3);
+		doubles.putDouble(1).putDouble(0).putDouble(0);
+		doubles.putDouble(0).putDouble(1).putDouble(0);
+		doubles.putShort((short) 3).putInt(2).putInt(1).putInt(0);
+		mesh = PlyLoader.load(write("ply\nformat binary_little_endian 1.0\nelement vertex 3\n"
+				+ "property double x\nproperty double y\nproperty double z\nelement face 1\n"
+				+ "property list ushort uint vertex_indices\nend_header\n", doubles));
+		assertEquals("TC02 wrong vertex", new Point3D(0.1, 0.2, 0.3), mesh.getVertex(0));
+		assertArrayEquals("TC02 wrong face", new int[] { 2, 1, 0 }, mesh.getFace(0));
+
+		// =============== Boundary Values Tests ==================
+		// TC03: an ascii file
+		assertThrows("TC03 loaded an ascii file", IOException.class,
+				() -> PlyLoader.load(write(HEADER.replace("binary_little_endian", "ascii"), data)));
+		// TC04: a file that is shorter than its header
+		ByteBuffer shortData = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+		assertThrows("TC04 loaded a short file", IOException.class,
+				() -> PlyLoader.load(write(HEADER, shortData)));
+		// TC05: a face of 2 vertices
+		ByteBuffer line = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		line.putFloat(0).putFloat(0).putFloat(0).put((byte) 0).putFloat(1).putFloat(0).putFloat(0).put((byte) 0);
+		line.put((byte) 0).put((byte) 2).putInt(0).putInt(1);
+		assertThrows("TC05 loaded a face of 2 vertices", IOException.class, () -> PlyLoader
+				.load(write(HEADER.replace("vertex 5", "vertex 2").replace("face 2", "face 1"), line)));
+		// TC06: a header without an end
+		assertThrows("TC06 loaded a header without an end", IOException.class,
+				() -> PlyLoader.load(write("ply\nformat binary_little_endian 1.0\n", data)));
+		// TC07: counts so big that their arrays would overflow
+		assertThrows("TC07 loaded too many vertices", IOException.class,
+				() -> PlyLoader.load(write(HEADER.replace("vertex 5", "vertex 1000000000"), data)));
+		assertThrows("TC07 loaded too many faces", IOException.class,
+				() -> PlyLoader.load(write(HEADER.replace("face 2", "face 2000000000"), data)));
+		ByteBuffer huge = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+		huge.put(line.array(), 0, 26).put((byte) 0).put((byte) -1).putInt(0).putInt(1).putInt(0);
+		assertThrows("TC07 loaded a huge list", IOException.class, () -> PlyLoader
+				.load(write(HEADER.replace("vertex 5", "vertex 2").replace("face 2", "face 1"), huge)));
+	}
+
+	/**
+	 * write a temporary PLY file that is deleted at exit
+	 * 
+	 * @param header text of the header
+	 * @param data   binary data, up to its position
+	 * @return the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static Path write(String header, ByteBuffer data) throws IOException {
+		Path path = Files.createTempFile("mesh", ".ply");
+		path.toFile().deleteOnExit();
+		byte[] text = header.getBytes(StandardCharsets.US_ASCII);
+		byte[] bytes = Arrays.copyOf(text, text.length + data.position());
+		System.arraycopy(data.array(), 0, bytes, text.length, data.position());
+		Files.write(path, bytes);
+		return path;
+	}
+}
@@ -0,0 +1,151 @@
+package unittests.scene;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import elements.*;
+import geometries.*;
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+import scene.LazyMesh;
+import scene.Scene;
+import scene.SceneLoader;
+
+/**
+ * Testing SceneLoader
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class SceneLoaderTests {
+	/**
+	 * a tetrahedron in OBJ
+	 */
+	private static final String TETRAHEDRON = "v 0 0 0\nv 1 0 0\nv 0 1 0\nv 0 0 1\n" //
+			+ "f 1 3 2\nf 1 2 4\nf 1 4 3\nf 2 3 4\n";
+
+	/**
+	 * a scene of every kind of element
+	 */
+	private static final String SCENE = "<?xml version=\"1.0\"?>\n" //
+			+ "<scene name=\"Test scene\" background=\"10 20 30\">\n" //
+			+ "  <!-- the scene -->\n" //
+			+ "  <ambient-light color=\"255 255 255\" k=\"0.1\"/>\n" //
+			+ "  <camera position=\"0 0 100\" to=\"0 0 -1\" up=\"0 1 0\" width=\"150\" height=\"150\""
+			+ " distance=\"100\"/>\n" //
+			+ "  <material id=\"shiny\" kd=\"0.5\" ks=\"0.5\" shininess=\"30\"/>\n" //
+			+ "  <material id=\"glass\" kt=\"0.8\"/>\n" //
+			+ "  <point-light color=\"500 300 0\" position=\"0 5 5\" kl=\"0.0005\" kq=\"0.0001\"/>\n" //
+			+ "  <spot-light color=\"300 300 300\" position=\"5 5 5\" direction=\"-1 -1 -2\"/>\n" //
+			+ "  <directional-light color=\"100 100 100\" direction=\"0 -1 -1\"/>\n" //
+			+ "  <geometries>\n" //
+			+ "    <sphere center=\"3 0 -4\" radius=\"1\" emission=\"0 100 0\" material=\"shiny\"/>\n" //
+			+ "    <plane point=\"0 0 -10\" normal=\"0 0 1\"/>\n" //
+			+ "    <triangle points=\"-5 0 -6, -3 0 -6, -4 2 -6\" material=\"glass\"/>\n" //
+			+ "    <polygon points=\"-5 -5 -7 -3 -5 -7 -3 -3 -7 -5 -3 -7\"/>\n" //
+			+ "    <cylinder origin=\"4 -4 -8\" direction=\"0 1 0\" radius=\"1\" height=\"2\"/>\n" //
+			+ "    <mesh vertices=\"0 0 -5 1 0 -5 0 1 -5\" faces=\"0 1 2\" material=\"shiny\"/>\n" //
+			+ "    <geometries>\n" //
+			+ "      <tube origin=\"-20 0 0\" direction=\"0 0 1\" radius=\"1\"/>\n" //
+			+ "      <mesh file=\"tetrahedron.obj\" emission=\"50 0 0\"/>\n" //
+			+ "      <mesh file=\"tetrahedron.obj\" box=\"0 0 0 1 1 1\"/>\n" //
+			+ "    </geometries>\n" //
+			+ "  </geometries>\n" //
+			+ "</scene>\n";
+
+	/**
+	 * Test method for {@link scene.SceneLoader#load(java.nio.file.Path)}.
+	 * 
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testLoad() throws IOException {
+		Path directory = Files.createTempDirectory("scene");
+		directory.toFile().deleteOnExit();
+		write(directory, "tetrahedron.obj", TETRAHEDRON);
+		Scene scene = SceneLoader.load(write(directory, "scene.xml", SCENE));
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the scene, the camera and the lights
+		assertEquals("TC01 wrong name", "Test scene", scene.name);
+		assertEquals("TC01 wrong background", 20, scene.background.getGreen(), 0);
+		assertEquals("TC01 wrong ambient light", 25.5, scene.ambientLight.getIntensity().getRed(), 0.000001);
+		assertEquals("TC01 wrong camera", new Point3D(0, 0, 100), scene.camera.getP0());
+		assertEquals("TC01 wrong view plane", 150, scene.camera.getWidth(), 0);
+		assertEquals("TC01 wrong number of lights", 3, scene.lights.size());
+		assertEquals("TC01 wrong light", 0.0001, ((PointLight) scene.lights.get(0)).getKq(), 0);
+		assertEquals("TC01 wrong light", 1, ((PointLight) scene.lights.get(0)).getKc(), 0);
+		assertTrue("TC01 wrong light", scene.lights.get(1) instanceof SpotLight);
+		assertTrue("TC01 wrong light", scene.lights.get(2) instanceof DirectionalLight);
+
+		// TC02: the geometries and the shared materials
+		assertEquals("TC02 wrong number of geometries", 7, scene.geometries.getList().size());
+		Sphere sphere = (Sphere) scene.geometries.getList().get(0);
+		assertEquals("TC02 wrong sphere", new Point3D(3, 0, -4), sphere.getCenter());
+		assertEquals("TC02 wrong emission", 100, sphere.getEmission().getGreen(), 0);
+		assertEquals("TC02 wrong material", 30, sphere.getMaterial().nShininess);
+		assertEquals("TC02 wrong material", 0.8, ((Geometry) scene.geometries.getList().get(2)).getMaterial().kT, 0);
+		assertEquals("TC02 wrong polygon", 4, ((Polygon) scene.geometries.getList().get(3)).getVertices().size());
+		TriangleMesh mesh = (TriangleMesh) scene.geometries.getList().get(5);
+		assertEquals("TC02 wrong mesh", 1, mesh.getFaceCount());
+		assertSame("TC02 material is not shared", sphere.getMaterial(), mesh.getGroupMaterial(0));
+
+		// TC03: the mesh files are loaded on first use, the meshes without a box
+		// together
+		Geometries nested = (Geometries) scene.geometries.getList().get(6);
+		LazyMesh lazy = (LazyMesh) nested.getList().get(1);
+		LazyMesh boxed = (LazyMesh) nested.getList().get(2);
+		assertFalse("TC03 the mesh was loaded with the scene", lazy.isLoaded());
+		assertEquals("TC03 wrong box", 1, boxed.getBoundingBox().maxZ, 0);
+		assertFalse("TC03 the mesh was loaded for its box", boxed.isLoaded());
+		Ray ray = new Ray(new Point3D(0.2, 0.2, 5), new Vector(0, 0, -1));
+		GeoPoint point = nested.findClosestGeoIntersection(ray);
+		assertEquals("TC03 wrong point", new Point3D(0.2, 0.2, 0.6), point.point);
+		assertTrue("TC03 the mesh was not loaded", lazy.isLoaded() && boxed.isLoaded());
+		assertEquals("TC03 wrong emission", 50, lazy.getMesh().getGroupEmission(0).getRed(), 0);
+
+		// =============== Boundary Values Tests ==================
+		// TC04: malformed XML
+		assertThrows("TC04 loaded malformed XML", IOException.class,
+				() -> SceneLoader.load(write(directory, "bad.xml", "<scene><geometries></scene>")));
+		// TC05: a material that was not defined
+		String unknown = "<scene><geometries><sphere center=\"0 0 0\" radius=\"1\" material=\"x\"/></geometries></scene>";
+		assertThrows("TC05 loaded an unknown material", IOException.class,
+				() -> SceneLoader.load(write(directory, "bad.xml", unknown)));
+		// TC06: an unknown geometry
+		assertThrows("TC06 loaded an unknown geometry", IOException.class, () -> SceneLoader
+				.load(write(directory, "bad.xml", "<scene><geometries><cube/></geometries></scene>")));
+		// TC07: a point of 2 numbers
+		assertThrows("TC07 loaded a wrong point", IOException.class, () -> SceneLoader.load(write(directory,
+				"bad.xml", "<scene><geometries><sphere center=\"0 0\" radius=\"1\"/></geometries></scene>")));
+		// TC08: a mesh file that does not exist is found on first use
+		Scene missing = SceneLoader.load(write(directory, "missing.xml",
+				"<scene><geometries><mesh file=\"missing.obj\"/></geometries></scene>"));
+		assertThrows("TC08 loaded a missing file", UncheckedIOException.class,
+				() -> missing.geometries.findClosestGeoIntersection(ray));
+	}
+
+	/**
+	 * write a file that is deleted at exit
+	 * 
+	 * @param directory the directory
+	 * @param name      name of the file
+	 * @param text      content of the file
+	 * @return the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static Path write(Path directory, String name, String text) throws IOException {
+		Path path = directory.resolve(name);
+		path.toFile().deleteOnExit();
+		Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+}
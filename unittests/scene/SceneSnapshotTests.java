@@ -0,0 +1,176 @@
+package unittests.scene;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+import renderer.RayTracerBasic;
+import scene.Scene;
+import scene.SceneSnapshot;
+
+/**
+ * Testing SceneSnapshot
+ * 
+ * @author Daniel Klein
+ * @author Yitzchak Meltz
+ * 
+ */
+public class SceneSnapshotTests {
+	/**
+	 * Test method for
+	 * {@link scene.SceneSnapshot#write(scene.Scene, java.nio.file.Path)} and
+	 * {@link scene.SceneSnapshot#read(java.nio.file.Path)}.
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testWriteRead() throws IOException {
+		Scene scene = buildScene();
+		Path path = temp();
+		SceneSnapshot.write(scene, path);
+		Scene loaded = SceneSnapshot.read(path);
+
+		// ============ Equivalence Partitions Tests ==============
+		// TC01: the scene, the camera and the lights
+		assertEquals("TC01 wrong name", scene.name, loaded.name);
+		assertColor("TC01 wrong background", scene.background, loaded.background);
+		assertColor("TC01 wrong ambient light", scene.ambientLight.getIntensity(),
+				loaded.ambientLight.getIntensity());
+		assertEquals("TC01 wrong camera", scene.camera.getP0(), loaded.camera.getP0());
+		assertEquals("TC01 wrong camera", scene.camera.getVUo(), loaded.camera.getVUo());
+		assertEquals("TC01 wrong view plane", scene.camera.getWidth(), loaded.camera.getWidth(), 0);
+		assertEquals("TC01 wrong view plane", scene.camera.getDistance(), loaded.camera.getDistance(), 0);
+		assertEquals("TC01 wrong number of lights", 3, loaded.lights.size());
+		assertTrue("TC01 wrong light", loaded.lights.get(1) instanceof SpotLight);
+		assertEquals("TC01 wrong light", ((PointLight) scene.lights.get(0)).getKq(),
+				((PointLight) loaded.lights.get(0)).getKq(), 0);
+
+		// TC02: the geometries give the same colors
+		RayTracerBasic tracer = new RayTracerBasic(scene);
+		RayTracerBasic loadedTracer = new RayTracerBasic(loaded);
+		for (int i = 0; i < 20; ++i) {
+			Ray ray = new Ray(new Point3D(0, 0, 100), new Vector(i * 0.005 - 0.05, (i % 5) * 0.01 - 0.02, -1));
+			assertColor("TC02 wrong color", tracer.traceRay(ray), loadedTracer.traceRay(ray));
+		}
+
+		// TC03: the trees were written and not built again, shared materials stay
+		// shared
+		assertArrayEquals("TC03 wrong tree", scene.geometries.getBVH().getIndices(),
+				loaded.geometries.getBVH().getIndices());
+		TriangleMesh mesh = (TriangleMesh) scene.geometries.getList().get(0);
+		TriangleMesh loadedMesh = (TriangleMesh) loaded.geometries.getList().get(0);
+		assertArrayEquals("TC03 wrong mesh tree", mesh.getBVH().getNodeBounds(),
+				loadedMesh.getBVH().getNodeBounds(), 0);
+		assertArrayEquals("TC03 wrong mesh tree", mesh.getBVH().getNodeData(), loadedMesh.getBVH().getNodeData());
+		assertArrayEquals("TC03 wrong mesh", mesh.getVertices(), loadedMesh.getVertices(), 0);
+		assertEquals("TC03 wrong groups", 2, loadedMesh.getGroupCount());
+		assertSame("TC03 material is not shared", loadedMesh.getGroupMaterial(1),
+				((Geometry) loaded.geometries.getList().get(1)).getMaterial());
+
+		// =============== Boundary Values Tests ==================
+		// TC04: a snapshot of another version
+		byte[] bytes = Files.readAllBytes(path);
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, SceneSnapshot.VERSION + 1);
+		Path other = temp();
+		Files.write(other, bytes);
+		assertThrows("TC04 loaded another version", IOException.class, () -> SceneSnapshot.read(other));
+		// TC05: a broken snapshot
+		Path broken = temp();
+		Files.write(broken, Arrays.copyOf(Files.readAllBytes(path), 200));
+		assertThrows("TC05 loaded a broken snapshot", IOException.class, () -> SceneSnapshot.read(broken));
+		// TC06: a geometry that a snapshot does not support
+		Scene unsupported = new Scene("Test scene");
+		unsupported.geometries.add(new Sphere(1, Point3D.ZERO) {
+		});
+		assertThrows("TC06 wrote an unknown geometry", IllegalArgumentException.class,
+				() -> SceneSnapshot.write(unsupported, temp()));
+		// TC07: an empty scene without a camera
+		Scene empty = new Scene(null);
+		SceneSnapshot.write(empty, path);
+		loaded = SceneSnapshot.read(path);
+		assertNull("TC07 wrong name", loaded.name);
+		assertNull("TC07 wrong camera", loaded.camera);
+		assertTrue("TC07 wrong geometries", loaded.geometries.getList().isEmpty());
+		// TC08: a group of unbounded objects keeps its BVH for the objects added
+		// later, and a group without a BVH stays without it
+		Scene planes = new Scene("Test scene");
+		planes.geometries.add(new Plane(Point3D.ZERO, new Vector(0, 0, 1)),
+				new Geometries(new Plane(new Point3D(0, 0, 5), new Vector(0, 0, 1))).setBVH(false));
+		SceneSnapshot.write(planes, path);
+		loaded = SceneSnapshot.read(path);
+		assertTrue("TC08 the BVH was turned off", loaded.geometries.isBVHEnabled());
+		assertFalse("TC08 the BVH was turned on",
+				((Geometries) loaded.geometries.getList().get(1)).isBVHEnabled());
+		loaded.geometries.add(new Sphere(1, new Point3D(5, 0, 0)));
+		assertNotNull("TC08 no BVH for the added object", loaded.geometries.getBVH());
+	}
+
+	/**
+	 * build a scene of every kind of geometry and light
+	 * 
+	 * @return the scene
+	 */
+	private static Scene buildScene() {
+		Material shared = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+		TriangleMesh mesh = new TriangleMesh(
+				new double[] { -1, -1, -5, 1, -1, -5, 1, 1, -5, -1, 1, -5, 0, 0, -3 },
+				new int[] { 0, 1, 4, 1, 2, 4, 2, 3, 4, 3, 0, 4 });
+		mesh.setEmission(new Color(20, 40, 60)).setMaterial(new Material().setKd(0.3));
+		mesh.addGroup(2, new Color(60, 20, 10), shared);
+
+		Scene scene = new Scene("Test scene") //
+				.setBackground(new Color(10, 20, 30)) //
+				.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1)) //
+				.setCamera(new Camera(new Point3D(0, 0, 100), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+						.setViewPlaneSize(150, 150).setDistance(100));
+		scene.geometries.add(mesh, //
+				new Sphere(1, new Point3D(3, 0, -4)).setEmission(new Color(0, 100, 0)).setMaterial(shared),
+				new Plane(new Point3D(0, 0, -10), new Vector(0, 0, 1)).setEmission(new Color(30, 30, 30)),
+				new Triangle(new Point3D(-5, 0, -6), new Point3D(-3, 0, -6), new Point3D(-4, 2, -6)),
+				new Polygon(new Point3D(-5, -5, -7), new Point3D(-3, -5, -7), new Point3D(-3, -3, -7),
+						new Point3D(-5, -3, -7)).setMaterial(new Material().setKr(0.5)),
+				new Cylinder(new Ray(new Point3D(4, -4, -8), new Vector(0, 1, 0)), 1, 2)
+						.setMaterial(new Material().setKt(0.5)),
+				new Geometries(new Tube(new Ray(new Point3D(-20, 0, 0), new Vector(0, 0, 1)), 1),
+						new Sphere(0.5, new Point3D(0, 3, -4))));
+		scene.lights.add(new PointLight(new Color(500, 300, 0), new Point3D(0, 5, 5), 1, 0.0005, 0.0001));
+		scene.lights.add(new SpotLight(new Color(300, 300, 300), new Point3D(5, 5, 5), new Vector(-1, -1, -2)));
+		scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(0, -1, -1)));
+		return scene;
+	}
+
+	/**
+	 * assert that two colors are the same
+	 * 
+	 * @param message  message of the failure
+	 * @param expected expected color
+	 * @param actual   actual color
+	 */
+	private static void assertColor(String message, Color expected, Color actual) {
+		assertEquals(message, expected.getRed(), actual.getRed(), 0);
+		assertEquals(message, expected.getGreen(), actual.getGreen(), 0);
+		assertEquals(message, expected.getBlue(), actual.getBlue(), 0);
+	}
+
+	/**
+	 * create a temporary file that is deleted at exit
+	 * 
+	 * @return the file
+	 * @throws IOException if the file cannot be created
+	 */
+	private static Path temp() throws IOException {
+		Path path = Files.createTempFile("scene", ".snapshot");
+		path.toFile().deleteOnExit();
+		return path;
+	}
+}
@@ -16,12 +16,26 @@ import scene.Scene;
  * @author Yitzchak Meltz
  */
 public class GlossyAndDiffuseSurfacesTest {
-        private Scene scene = new Scene("Test scene");
-        private Camera camera = new Camera(new Point3D(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
-                        .setViewPlaneSize(200, 200).setDistance(1000);
+        private Camera camera = createCamera();
 
-        @Test
-        public void createTenBodies() {
+        /**
+         * create the camera of the scene, it is also used by the render benchmarks
+         * 
+         * @return the camera
+         */
+        public static Camera createCamera() {
+                return new Camera(new Point3D(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                                .setViewPlaneSize(200, 200).setDistance(1000);
+        }
+
+        /**
+         * create the scene of the ten bodies, it is also used by the render
+         * benchmarks
+         * 
+         * @return the scene
+         */
+        public static Scene createScene() {
+                Scene scene = new Scene("Test scene");
                 scene.geometries.add( //
                                 new Sphere(60, new Point3D(0, 0, -700)) //
                                                 .setEmission(new Color(java.awt.Color.RED)) //
@@ -72,10 +86,28 @@ public class GlossyAndDiffuseSurfacesTest {
                                 new SpotLight(new Color(400, 240, 0), new Point3D(290, -490, .03),
                                                 new Vector(0, 0, -200)) //
                                                                 .setKl(1E-5).setKq(1.5E-7));
+                return scene;
+        }
 
+        /**
+         * create the ray tracer with the beams of the glossy and diffuse surfaces
+         * 
+         * @param scene the scene
+         * @return the ray tracer
+         */
+        public static RayTracerBasic createTracer(Scene scene) {
                 RayTracerBasic tracer = new RayTracerBasic(scene);
                 tracer.setNumOfRays(35);
                 tracer.setRayDistance(100);
+                return tracer;
+        }
+
+        /**
+         * Produce a picture of ten bodies with glossy surfaces and diffuse glass
+         */
+        @Test
+        public void createTenBodies() {
+                RayTracerBasic tracer = createTracer(createScene());
 
                 Render render = new Render(). //
                                 setImageWriter(new ImageWriter("createTenBodies", 400, 400)) //
@@ -14,9 +14,7 @@ import scene.Scene;
  * @author Dan
  */
 public class TeapotTest {
-	private final Camera camera = new Camera(new Point3D(0, 0, -1000), new Vector(0, 0, 1), new Vector(0, 1, 0)) //
-			.setDistance(1000).setViewPlaneSize(200, 200);
-	private final Scene scene = new Scene("Test scene");
+	private final Camera camera = createCamera();
 
 	private static final Color color = new Color(200, 0, 0);
 	private static final Material mat = new Material().setKd(0.5).setKs(0.5).setShininess(60);
@@ -555,10 +553,23 @@ public class TeapotTest {
 	};
 
 	/**
-	 * Produce a scene with a 3D model and render it into a png image
+	 * create the camera that looks at the teapot, it is also used by the render
+	 * benchmarks
+	 * 
+	 * @return the camera
 	 */
-	@Test
-	public void teapot1() {
+	public static Camera createCamera() {
+		return new Camera(new Point3D(0, 0, -1000), new Vector(0, 0, 1), new Vector(0, 1, 0)) //
+				.setDistance(1000).setViewPlaneSize(200, 200);
+	}
+
+	/**
+	 * create the scene of the teapot, it is also used by the render benchmarks
+	 * 
+	 * @return the scene
+	 */
+	public static Scene createScene() {
+		Scene scene = new Scene("Test scene");
 		scene.geometries.add( //
 				new Triangle(points[7], points[6], points[1]).setEmission(color).setMaterial(mat), //
 				new Triangle(points[1], points[2], points[7]).setEmission(color).setMaterial(mat), //
@@ -1555,7 +1566,15 @@ public class TeapotTest {
 		);
 		scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(100, 0, -100)) //
 				.setKq(0.000001));
+		return scene;
+	}
 
+	/**
+	 * Produce a scene with a 3D model and render it into a png image
+	 */
+	@Test
+	public void teapot1() {
+		Scene scene = createScene();
 		ImageWriter imageWriter = new ImageWriter("teapot", 800, 800);
 		Render render = new Render() //
 				.setCamera(camera) //